@@ -0,0 +1,82 @@
+#!/usr/bin/env bash
+# Time-to-first-request: milliseconds from launching user-api until GET /user/all?size=1 answers 200.
+#
+# Usage: benchmarks/startup.sh [mode...]    modes: jar aot cds native (default: jar aot cds)
+#   jar     java -jar on the fat jar
+#   aot     the same jar with -Dspring.aot.enabled=true (build with ./mvnw -Paot package)
+#   cds     the extracted AOT jar with an AppCDS archive trained by this script
+#   native  target/user-api (build with ./mvnw -Pnative native:compile)
+# RUNS (default 5) launches per mode, PORT (default 8090). PostgreSQL must be up, as for a normal run.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${RUNS:-5}
+PORT=${PORT:-8090}
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+JAR=target/user-api-0.0.1-SNAPSHOT.jar
+CDS_DIR=target/startup-cds
+URL="http://localhost:$PORT/user/all?size=1"
+
+now_ms() {
+  echo $(($(date +%s%N) / 1000000))
+}
+
+train_cds() {
+  rm -rf "$CDS_DIR"
+  "$JAVA" -Djarmode=tools -jar "$JAR" extract --destination "$CDS_DIR" > /dev/null
+  # The training run stops once the context is refreshed and never touches the database
+  (cd "$CDS_DIR" && "$JAVA" -XX:ArchiveClassesAtExit=application.jsa -Dspring.context.exit=onRefresh \
+    -Dspring.flyway.enabled=false -Dspring.jpa.hibernate.ddl-auto=none \
+    -Dspring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=false \
+    -jar "$(basename "$JAR")" > training.log 2>&1)
+}
+
+launch() {
+  case "$1" in
+    jar) exec "$JAVA" -jar "$JAR" --server.port="$PORT" ;;
+    aot) exec "$JAVA" -Dspring.aot.enabled=true -jar "$JAR" --server.port="$PORT" ;;
+    # The archive only loads with the exact classpath it was trained with
+    cds) cd "$CDS_DIR" && exec "$JAVA" -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true \
+           -jar "$(basename "$JAR")" --server.port="$PORT" ;;
+    native) exec target/user-api --server.port="$PORT" ;;
+    *) echo "Unknown mode: $1" >&2; exit 1 ;;
+  esac
+}
+
+time_to_first_request() {
+  local start pid elapsed
+  start=$(now_ms)
+  launch "$1" > target/startup-"$1".log 2>&1 &
+  pid=$!
+  until curl -sf -o /dev/null "$URL"; do
+    if ! kill -0 "$pid" 2> /dev/null; then
+      echo "user-api ($1) exited, see target/startup-$1.log" >&2
+      exit 1
+    fi
+    sleep 0.01
+  done
+  elapsed=$(($(now_ms) - start))
+  kill "$pid"
+  wait "$pid" 2> /dev/null || true
+  echo "$elapsed"
+}
+
+MODES=("$@")
+if [ ${#MODES[@]} -eq 0 ]; then
+  MODES=(jar aot cds)
+fi
+
+echo "| Mode | Min ms | Median ms | Max ms |"
+echo "| ---- | ------ | --------- | ------ |"
+for mode in "${MODES[@]}"; do
+  if [ "$mode" = cds ]; then
+    train_cds
+  fi
+  samples=()
+  for _ in $(seq "$RUNS"); do
+    samples+=("$(time_to_first_request "$mode")")
+  done
+  sorted=($(printf '%s\n' "${samples[@]}" | sort -n))
+  echo "| $mode | ${sorted[0]} | ${sorted[$((RUNS / 2))]} | ${sorted[$((RUNS - 1))]} |"
+done
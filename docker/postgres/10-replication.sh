@@ -0,0 +1,5 @@
+#!/bin/bash
+set -e
+
+# Lets the postgres-replica service stream from this instance (runs only when the data volume is created)
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
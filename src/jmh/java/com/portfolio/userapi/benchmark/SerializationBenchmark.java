@@ -0,0 +1,77 @@
+package com.portfolio.userapi.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.portfolio.userapi.dto.UserPageRecord;
+import com.portfolio.userapi.entity.UserEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+	private static final int PAGE_SIZE = 20;
+
+	private ObjectMapper objectMapper;
+	private UserEntity userEntity;
+	private UserPageRecord userPageRecord;
+
+	@Setup
+	public void setUp() {
+		objectMapper = Jackson2ObjectMapperBuilder.json()
+				.filters(new SimpleFilterProvider().setFailOnUnknownId(false))
+				.build();
+
+		List<UserEntity> userEntityList = new ArrayList<>(PAGE_SIZE);
+		for (int i = 0; i < PAGE_SIZE; i++) {
+			userEntityList.add(newUserEntity(i));
+		}
+		userEntity = userEntityList.get(0);
+		userPageRecord = new UserPageRecord(0, 1000L, 50, null, userEntityList);
+	}
+
+	@Benchmark
+	public byte[] serializeUserEntity() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(userEntity);
+	}
+
+	@Benchmark
+	public byte[] serializeUserPageRecord() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(userPageRecord);
+	}
+
+	private UserEntity newUserEntity(long id) {
+		UserEntity userEntity = new UserEntity();
+		userEntity.setId(id);
+		userEntity.setUserName("user" + id);
+		userEntity.setCpf("52998224725");
+		userEntity.setFirstName("First Name " + id);
+		userEntity.setLastName("Last Name " + id);
+		userEntity.setDateOfBirth(LocalDate.of(1990, 5, 17));
+		userEntity.setEmail("user" + id + "@example.com");
+		userEntity.setCreationDate(LocalDateTime.of(2024, 1, 15, 10, 30, 0));
+		userEntity.setUpdateDate(LocalDateTime.of(2024, 2, 1, 8, 0, 0));
+		return userEntity;
+	}
+}
@@ -0,0 +1,83 @@
+package com.portfolio.userapi.benchmark;
+
+import com.portfolio.userapi.dto.UserSaveRecord;
+import com.portfolio.userapi.util.Tools;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+	private final String formattedCpf = "529.982.247-25";
+	private final String plainCpf = "52998224725";
+	private final String repeatedDigitsCpf = "99999999999";
+	private final String email = "john.smith+news@example.com.br";
+
+	private ValidatorFactory validatorFactory;
+	private Validator validator;
+	private UserSaveRecord userSaveRecord;
+
+	@Setup
+	public void setUp() {
+		validatorFactory = Validation.buildDefaultValidatorFactory();
+		validator = validatorFactory.getValidator();
+		userSaveRecord = new UserSaveRecord("johnsmith", plainCpf, "John", "Smith", LocalDate.of(1990, 5, 17), email);
+	}
+
+	@TearDown
+	public void tearDown() {
+		validatorFactory.close();
+	}
+
+	@Benchmark
+	public boolean isValidCpfFormatted() {
+		return Tools.isValidCpf(formattedCpf);
+	}
+
+	@Benchmark
+	public boolean isValidCpfPlain() {
+		return Tools.isValidCpf(plainCpf);
+	}
+
+	@Benchmark
+	public boolean isValidCpfRepeatedDigits() {
+		return Tools.isValidCpf(repeatedDigitsCpf);
+	}
+
+	@Benchmark
+	public String removeCaracteresEspeciais() {
+		return Tools.removeCaracteresEspeciais(formattedCpf);
+	}
+
+	@Benchmark
+	public boolean isValidEmail() {
+		return Tools.isValidEmail(email);
+	}
+
+	@Benchmark
+	public Set<ConstraintViolation<UserSaveRecord>> validateUserSaveRecord() {
+		return validator.validate(userSaveRecord);
+	}
+}
@@ -0,0 +1,42 @@
+package com.portfolio.userapi.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * The operations the load test drives, each with the name it has in {@code loadtest.rates} and in the report,
+ * and the status that counts as a success.
+ */
+public enum Endpoint {
+	ADD("add", 201),
+	BY_USERNAME("username", 200),
+	BY_CPF("cpf", 200),
+	FIRST_NAME("firstname", 200),
+	LAST_NAME("lastname", 200),
+	ALL("all", 200),
+	PUT("put", 200),
+	DELETE("delete", 200);
+
+	private final String key;
+	private final int expectedStatus;
+
+	Endpoint(String key, int expectedStatus) {
+		this.key = key;
+		this.expectedStatus = expectedStatus;
+	}
+
+	public String key() {
+		return key;
+	}
+
+	public int expectedStatus() {
+		return expectedStatus;
+	}
+
+	public static Endpoint of(String key) {
+		return Arrays.stream(values())
+				.filter(endpoint -> endpoint.key.equals(key))
+				.findFirst()
+				.orElseThrow(() -> new IllegalArgumentException("Unknown endpoint " + key + ", use one of " +
+						Arrays.stream(values()).map(Endpoint::key).toList()));
+	}
+}
@@ -0,0 +1,149 @@
+package com.portfolio.userapi.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Response times and statuses per endpoint. A response time runs from when the request was due, not from when it
+ * was sent, so a stalled server is charged for the requests that queued behind it (no coordinated omission).
+ * Values are kept in microseconds with 3 significant digits, up to {@link #HIGHEST_TRACKABLE}.
+ */
+public class LatencyReport {
+	private static final Logger log = LoggerFactory.getLogger(LatencyReport.class);
+
+	private static final long HIGHEST_TRACKABLE = TimeUnit.MINUTES.toMicros(10);
+	private static final double MICROS_PER_MILLI = 1000.0;
+	private static final String FAILED = "failed";
+
+	private final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+
+	public LatencyReport() {
+		for (Endpoint endpoint : Endpoint.values()) {
+			stats.put(endpoint, new EndpointStats());
+		}
+	}
+
+	public void record(Endpoint endpoint, long responseTimeNanos, int status) {
+		EndpointStats endpointStats = stats.get(endpoint);
+		endpointStats.histogram.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(responseTimeNanos), HIGHEST_TRACKABLE));
+		endpointStats.statuses.computeIfAbsent(String.valueOf(status), key -> new LongAdder()).increment();
+		if (status != endpoint.expectedStatus()) {
+			endpointStats.errors.increment();
+		}
+	}
+
+	// Timeouts and refused connections have no status; they still cost the time they took
+	public void recordFailure(Endpoint endpoint, long responseTimeNanos) {
+		EndpointStats endpointStats = stats.get(endpoint);
+		endpointStats.histogram.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(responseTimeNanos), HIGHEST_TRACKABLE));
+		endpointStats.statuses.computeIfAbsent(FAILED, key -> new LongAdder()).increment();
+		endpointStats.errors.increment();
+	}
+
+	public double errorRate(Endpoint endpoint) {
+		long requests = stats.get(endpoint).histogram.getTotalCount();
+		return requests == 0 ? 0 : stats.get(endpoint).errors.doubleValue() / requests;
+	}
+
+	/**
+	 * Keys are sorted and numbers rounded to the microsecond, so two reports diff line by line. Next to it, each
+	 * endpoint's full percentile distribution goes to {@code <endpoint>.hgrm} for HdrHistogram's plotter.
+	 */
+	public Map<String, Object> toReport(LoadTestSettings settings) {
+		Map<String, Object> endpoints = new LinkedHashMap<>();
+		for (Map.Entry<Endpoint, Double> rate : settings.rates().entrySet()) {
+			EndpointStats endpointStats = stats.get(rate.getKey());
+			Histogram histogram = endpointStats.histogram;
+
+			Map<String, Object> endpoint = new LinkedHashMap<>();
+			endpoint.put("targetRate", rate.getValue());
+			endpoint.put("requests", histogram.getTotalCount());
+			endpoint.put("achievedRate", round(histogram.getTotalCount() / (double) settings.duration().toSeconds()));
+			endpoint.put("errors", endpointStats.errors.sum());
+			endpoint.put("statuses", new TreeMap<>(endpointStats.statuses.entrySet().stream()
+					.collect(Collectors.toMap(Map.Entry::getKey, status -> status.getValue().sum()))));
+			endpoint.put("meanMs", round(histogram.getMean() / MICROS_PER_MILLI));
+			endpoint.put("p50Ms", millis(histogram, 50));
+			endpoint.put("p90Ms", millis(histogram, 90));
+			endpoint.put("p99Ms", millis(histogram, 99));
+			endpoint.put("p999Ms", millis(histogram, 99.9));
+			endpoint.put("maxMs", round(histogram.getMaxValue() / MICROS_PER_MILLI));
+			endpoints.put(rate.getKey().key(), endpoint);
+		}
+
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("warmupSeconds", settings.warmup().toSeconds());
+		report.put("durationSeconds", settings.duration().toSeconds());
+		report.put("seededUsers", settings.users());
+		report.put("endpoints", endpoints);
+		return report;
+	}
+
+	public void write(LoadTestSettings settings) throws IOException {
+		ObjectMapper objectMapper = new ObjectMapper()
+				.enable(SerializationFeature.INDENT_OUTPUT)
+				.enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+		Map<String, Object> report = toReport(settings);
+
+		Path reportFile = settings.report().toAbsolutePath();
+		Files.createDirectories(reportFile.getParent());
+		objectMapper.writeValue(reportFile.toFile(), report);
+
+		for (Endpoint endpoint : settings.rates().keySet()) {
+			Path distributionFile = reportFile.resolveSibling(endpoint.key() + ".hgrm");
+			try (PrintStream printStream = new PrintStream(Files.newOutputStream(distributionFile))) {
+				stats.get(endpoint).histogram.outputPercentileDistribution(printStream, MICROS_PER_MILLI);
+			}
+		}
+		log.info("Load test report -> {}", reportFile);
+
+		if (Objects.nonNull(settings.baseline()) && Files.exists(settings.baseline())) {
+			compare(objectMapper.valueToTree(report), objectMapper.readTree(settings.baseline().toFile()));
+		}
+	}
+
+	// Logs p50 and p99 next to the baseline's; the JSON files themselves are what a release diff keeps
+	private static void compare(JsonNode report, JsonNode baseline) {
+		StringBuilder table = new StringBuilder(String.format("%n%-10s %12s %12s %12s %12s", "endpoint", "p50 base", "p50 now", "p99 base", "p99 now"));
+		report.get("endpoints").fields().forEachRemaining(endpoint -> {
+			JsonNode baselineEndpoint = baseline.path("endpoints").path(endpoint.getKey());
+			table.append(String.format("%n%-10s %12s %12s %12s %12s", endpoint.getKey(),
+					baselineEndpoint.path("p50Ms").asText("-"), endpoint.getValue().get("p50Ms").asText(),
+					baselineEndpoint.path("p99Ms").asText("-"), endpoint.getValue().get("p99Ms").asText()));
+		});
+		log.info("Compared with the baseline (ms):{}", table);
+	}
+
+	private static double millis(Histogram histogram, double percentile) {
+		return round(histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI);
+	}
+
+	private static double round(double value) {
+		return Math.round(value * 1000) / 1000.0;
+	}
+
+	private static final class EndpointStats {
+		private final Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE, 3);
+		private final Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+		private final LongAdder errors = new LongAdder();
+	}
+}
@@ -0,0 +1,131 @@
+package com.portfolio.userapi.loadtest;
+
+import com.portfolio.userapi.UserApiApplication;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Drives the whole stack, HTTP to PostgreSQL, at fixed arrival rates per endpoint and reports the response time
+ * percentiles of each one. It boots user-api against the configured database unless {@code loadtest.url} points to
+ * a running one, seeds users, warms up, records, then deletes what it created. Run with
+ * {@code mvn verify -Ploadtest -DskipTests}; see {@link LoadTestSettings} for the knobs.
+ * <p>
+ * Every endpoint has its own dispatcher that sends a request every {@code 1 / rate} seconds on a new virtual
+ * thread, whether or not earlier ones have answered, so a slow endpoint shows up as latency, not as less load.
+ */
+public class LoadTest {
+	private static final Logger log = LoggerFactory.getLogger(LoadTest.class);
+
+	public static void main(String[] args) throws Exception {
+		LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+
+		ConfigurableApplicationContext context = null;
+		String baseUrl = settings.url();
+		if (settings.bootsApplication()) {
+			// Devtools is on the test classpath and would restart the application in a second class loader
+			System.setProperty("spring.devtools.restart.enabled", "false");
+			// Rate limiting would turn the offered load into 429s, so the booted application runs without it
+			String[] applicationArgs = Stream.concat(Stream.of("--server.port=0", "--user-api.rate-limit.enabled=false"),
+					Stream.of(args)).toArray(String[]::new);
+			context = new SpringApplicationBuilder(UserApiApplication.class).run(applicationArgs);
+			baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+		}
+
+		boolean passed;
+		try (HttpClient httpClient = HttpClient.newBuilder()
+				.executor(Executors.newVirtualThreadPerTaskExecutor())
+				.connectTimeout(Duration.ofSeconds(10))
+				.build()) {
+			UserLoad userLoad = new UserLoad(baseUrl, httpClient);
+			try {
+				userLoad.seed(settings.users());
+				log.info("Warming up for {} at {}", settings.warmup(), settings.rates());
+				LatencyReport warmupReport = new LatencyReport();
+				run(settings.rates(), settings.warmup(), userLoad, httpClient, warmupReport);
+				settings.rates().keySet().stream()
+						.filter(endpoint -> warmupReport.errorRate(endpoint) > 0)
+						.forEach(endpoint -> log.warn("{} failed {} of its warm-up requests", endpoint.key(), warmupReport.errorRate(endpoint)));
+
+				log.info("Recording for {}", settings.duration());
+				LatencyReport latencyReport = new LatencyReport();
+				run(settings.rates(), settings.duration(), userLoad, httpClient, latencyReport);
+
+				latencyReport.write(settings);
+				passed = settings.rates().keySet().stream()
+						.allMatch(endpoint -> latencyReport.errorRate(endpoint) <= settings.maxErrorRate());
+			} finally {
+				userLoad.cleanUp();
+			}
+		} finally {
+			if (Objects.nonNull(context)) {
+				context.close();
+			}
+		}
+
+		if (!passed) {
+			log.error("An endpoint failed more than {} of its requests, see the statuses in {}", settings.maxErrorRate(), settings.report());
+		}
+		System.exit(passed ? 0 : 1);
+	}
+
+	// Returns once every request sent in the window has answered or timed out
+	private static void run(Map<Endpoint, Double> rates, Duration window, UserLoad userLoad, HttpClient httpClient,
+							LatencyReport latencyReport) throws InterruptedException {
+		long start = System.nanoTime();
+		long end = start + window.toNanos();
+
+		try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+			List<Thread> dispatchers = new ArrayList<>(rates.size());
+			for (Map.Entry<Endpoint, Double> rate : rates.entrySet()) {
+				long intervalNanos = (long) (1_000_000_000 / rate.getValue());
+				dispatchers.add(Thread.ofVirtual().name("loadtest-" + rate.getKey().key()).start(() -> {
+					for (long due = start; due < end; due += intervalNanos) {
+						parkUntil(due);
+						long dueTime = due;
+						Optional<HttpRequest> request = userLoad.nextRequest(rate.getKey());
+						request.ifPresent(httpRequest -> requests.submit(() ->
+								send(rate.getKey(), httpRequest, dueTime, userLoad, httpClient, latencyReport)));
+					}
+				}));
+			}
+			for (Thread dispatcher : dispatchers) {
+				dispatcher.join();
+			}
+		}
+	}
+
+	private static void send(Endpoint endpoint, HttpRequest request, long dueTime, UserLoad userLoad, HttpClient httpClient,
+							 LatencyReport latencyReport) {
+		try {
+			HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+			latencyReport.record(endpoint, System.nanoTime() - dueTime, response.statusCode());
+			userLoad.onResponse(endpoint, response);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			latencyReport.recordFailure(endpoint, System.nanoTime() - dueTime);
+		}
+	}
+
+	private static void parkUntil(long nanoTime) {
+		for (long remaining = nanoTime - System.nanoTime(); remaining > 0; remaining = nanoTime - System.nanoTime()) {
+			LockSupport.parkNanos(remaining);
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package com.portfolio.userapi.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * What to run, read from {@code loadtest.*} system properties. The {@code loadtest} profile passes the Maven
+ * properties of the same names, so they are set with {@code -Dloadtest.rates=...} on the Maven command line.
+ *
+ * @param url           an already running user-api to drive; blank boots one in this JVM on a random port
+ * @param rates         requests per second sent to each endpoint, whatever the responses take
+ * @param warmup        time at the same rates before anything is recorded
+ * @param duration      recorded time
+ * @param users         users seeded before the run: half are read and updated, half are deleted
+ * @param report        where the JSON report goes
+ * @param baseline      a previous report to compare with, skipped when the file does not exist
+ * @param maxErrorRate  the share of failed requests of any endpoint above which the run exits with status 1
+ */
+public record LoadTestSettings(String url,
+							   Map<Endpoint, Double> rates,
+							   Duration warmup,
+							   Duration duration,
+							   int users,
+							   Path report,
+							   Path baseline,
+							   double maxErrorRate) {
+
+	private static final String DEFAULT_RATES = "add=10,username=40,cpf=30,firstname=15,lastname=15,all=30,put=10,delete=5";
+
+	public static LoadTestSettings fromSystemProperties() {
+		String url = System.getProperty("loadtest.url", "");
+		String baseline = System.getProperty("loadtest.baseline", "");
+		return new LoadTestSettings(
+				url.isBlank() ? null : url,
+				parseRates(System.getProperty("loadtest.rates", DEFAULT_RATES)),
+				DurationStyle.detectAndParse(System.getProperty("loadtest.warmup", "15s")),
+				DurationStyle.detectAndParse(System.getProperty("loadtest.duration", "60s")),
+				Integer.parseInt(System.getProperty("loadtest.users", "2000")),
+				Path.of(System.getProperty("loadtest.report", "target/loadtest/loadtest-result.json")),
+				baseline.isBlank() ? null : Path.of(baseline),
+				Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.01")));
+	}
+
+	public boolean bootsApplication() {
+		return Objects.isNull(url);
+	}
+
+	// "add=10,username=40": endpoints left out, or set to 0, get no traffic
+	static Map<Endpoint, Double> parseRates(String rates) {
+		Map<Endpoint, Double> parsedRates = new EnumMap<>(Endpoint.class);
+		for (String rate : rates.split(",")) {
+			String[] keyAndValue = rate.trim().split("=");
+			if (keyAndValue.length != 2) {
+				throw new IllegalArgumentException("Invalid rate " + rate + ", use endpoint=requestsPerSecond");
+			}
+			double requestsPerSecond = Double.parseDouble(keyAndValue[1].trim());
+			if (requestsPerSecond > 0) {
+				parsedRates.put(Endpoint.of(keyAndValue[0].trim()), requestsPerSecond);
+			}
+		}
+		return Collections.unmodifiableMap(parsedRates);
+	}
+}
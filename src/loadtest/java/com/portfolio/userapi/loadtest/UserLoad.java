@@ -0,0 +1,215 @@
+package com.portfolio.userapi.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.portfolio.userapi.config.Config;
+import com.portfolio.userapi.dto.UserBatchResultRecord;
+import com.portfolio.userapi.dto.UserDeleteBatchRecord;
+import com.portfolio.userapi.dto.UserSaveRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The users the load test works on and the requests it sends. Seeded users are split in two: the first half is
+ * looked up and updated, the second half is deleted, so a lookup never misses because of the run itself. Every
+ * user it creates is named after the run, and {@link #cleanUp()} deletes whatever is left.
+ */
+public class UserLoad {
+	private static final Logger log = LoggerFactory.getLogger(UserLoad.class);
+
+	private static final String JSON = "application/json";
+	private static final int SEED_BATCH_SIZE = 500;
+	private static final int NAME_GROUPS = 100;
+	private static final int PAGES = 50;
+	private static final int PAGE_SIZE = 20;
+	private static final LocalDate FIRST_DATE_OF_BIRTH = LocalDate.of(1960, 1, 1);
+	private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+	private final String baseUrl;
+	private final HttpClient httpClient;
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+	// Base 36 seconds keep user names of different runs apart and within the 20 characters of userName
+	private final String runId = Long.toString(System.currentTimeMillis() / 1000 % 60_466_176, 36);
+
+	private final List<SeededUser> readUsers = new ArrayList<>();
+	private final Queue<Long> deletableIds = new ConcurrentLinkedQueue<>();
+	private final Queue<Long> createdIds = new ConcurrentLinkedQueue<>();
+	// Everything the run created, deleted or not: a delete that timed out must not leave its user behind
+	private final Queue<Long> runIds = new ConcurrentLinkedQueue<>();
+	private final AtomicLong nextUserIndex = new AtomicLong();
+	private final Map<Endpoint, AtomicLong> sequences = new EnumMap<>(Endpoint.class);
+
+	public UserLoad(String baseUrl, HttpClient httpClient) {
+		this.baseUrl = baseUrl;
+		this.httpClient = httpClient;
+		for (Endpoint endpoint : Endpoint.values()) {
+			sequences.put(endpoint, new AtomicLong());
+		}
+	}
+
+	public void seed(int users) throws IOException, InterruptedException {
+		List<SeededUser> seededUsers = new ArrayList<>(users);
+		while (seededUsers.size() < users) {
+			List<UserSaveRecord> batch = new ArrayList<>(SEED_BATCH_SIZE);
+			for (int i = 0; i < Math.min(SEED_BATCH_SIZE, users - seededUsers.size()); i++) {
+				batch.add(newUser(nextUserIndex.getAndIncrement()));
+			}
+
+			HttpResponse<String> response = httpClient.send(jsonRequest("/user/batch", "POST", batch), HttpResponse.BodyHandlers.ofString());
+			if (response.statusCode() != 200) {
+				throw new IllegalStateException("Seeding failed with " + response.statusCode() + ": " + response.body());
+			}
+
+			// A random CPF can clash with one already stored; that user is simply not seeded
+			List<UserBatchResultRecord> results = objectMapper.readValue(response.body(), new TypeReference<>() {
+			});
+			int seeded = seededUsers.size();
+			for (UserBatchResultRecord result : results) {
+				if (result.status() == 201) {
+					seededUsers.add(new SeededUser(result.id(), batch.get(result.position())));
+					runIds.add(result.id());
+				}
+			}
+			if (seededUsers.size() == seeded) {
+				throw new IllegalStateException("Seeding failed, no user of the batch was created: " + results.get(0).legend());
+			}
+		}
+
+		readUsers.addAll(seededUsers.subList(0, users / 2));
+		seededUsers.subList(users / 2, users).forEach(seededUser -> deletableIds.add(seededUser.id()));
+		log.info("Seeded {} users for run {}", users, runId);
+	}
+
+	/**
+	 * The request that the {@code sequence}-th arrival on {@code endpoint} sends, or empty when there is nothing left
+	 * to delete.
+	 */
+	public Optional<HttpRequest> nextRequest(Endpoint endpoint) {
+		long sequence = sequences.get(endpoint).getAndIncrement();
+		SeededUser readUser = readUsers.get((int) (sequence % readUsers.size()));
+
+		return switch (endpoint) {
+			case ADD -> Optional.of(jsonRequest("/user/add", "POST", newUser(nextUserIndex.getAndIncrement())));
+			case BY_USERNAME -> Optional.of(getRequest("/user/username/" + readUser.user().userName()));
+			case BY_CPF -> Optional.of(getRequest("/user/cpf/" + readUser.user().cpf()));
+			case FIRST_NAME -> Optional.of(getRequest("/user/user/filter/firstname?size=" + PAGE_SIZE + "&firstname=" + firstName(sequence)));
+			case LAST_NAME -> Optional.of(getRequest("/user/user/filter/lastname?size=" + PAGE_SIZE + "&lastname=" + lastName(sequence)));
+			case ALL -> Optional.of(getRequest("/user/all?size=" + PAGE_SIZE + "&page=" + sequence % PAGES));
+			// Moving the date of birth back and forth makes every PUT a real update
+			case PUT -> Optional.of(jsonRequest("/user/" + readUser.id(), "PUT", withDateOfBirth(readUser.user(),
+					readUser.user().dateOfBirth().plusDays(sequence / readUsers.size() % 2 == 0 ? 1 : 0))));
+			case DELETE -> Optional.ofNullable(deletableIds.poll()).or(() -> Optional.ofNullable(createdIds.poll()))
+					.map(id -> HttpRequest.newBuilder(URI.create(baseUrl + "/user/" + id)).timeout(TIMEOUT).DELETE().build());
+		};
+	}
+
+	// Created users become deletable, and are deleted at the end if the run did not get to them
+	public void onResponse(Endpoint endpoint, HttpResponse<String> response) {
+		if (endpoint == Endpoint.ADD && response.statusCode() == 201) {
+			try {
+				JsonNode user = objectMapper.readTree(response.body());
+				createdIds.add(user.get("id").asLong());
+				runIds.add(user.get("id").asLong());
+			} catch (JsonProcessingException e) {
+				log.warn("Unreadable user created -> {}", e.getMessage());
+			}
+		}
+	}
+
+	// The batch delete reports the users already gone as not found, so every id the run created is sent
+	public void cleanUp() throws IOException, InterruptedException {
+		List<Long> ids = new ArrayList<>(runIds);
+
+		for (int from = 0; from < ids.size(); from += Config.MAX_DELETE_BATCH_SIZE) {
+			List<Long> batch = ids.subList(from, Math.min(from + Config.MAX_DELETE_BATCH_SIZE, ids.size()));
+			httpClient.send(jsonRequest("/user/batch", "DELETE", new UserDeleteBatchRecord(batch, null, null)),
+					HttpResponse.BodyHandlers.discarding());
+		}
+		log.info("Deleted the users left by run {}", runId);
+	}
+
+	private HttpRequest getRequest(String path) {
+		return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(TIMEOUT).GET().build();
+	}
+
+	private HttpRequest jsonRequest(String path, String method, Object body) {
+		try {
+			return HttpRequest.newBuilder(URI.create(baseUrl + path))
+					.timeout(TIMEOUT)
+					.header("Content-Type", JSON)
+					.method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+					.build();
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private UserSaveRecord newUser(long index) {
+		String userName = "lt" + runId + "-" + index;
+		return new UserSaveRecord(userName, randomCpf(), firstName(index), lastName(index),
+				FIRST_DATE_OF_BIRTH.plusDays(index % 10_000), userName + "@loadtest.com");
+	}
+
+	private static UserSaveRecord withDateOfBirth(UserSaveRecord user, LocalDate dateOfBirth) {
+		return new UserSaveRecord(user.userName(), user.cpf(), user.firstName(), user.lastName(), dateOfBirth, user.email());
+	}
+
+	// Each name group holds about 1% of the users, so a filter returns a full page of them
+	private static String firstName(long index) {
+		return "Loadfn" + String.format("%02d", index % NAME_GROUPS);
+	}
+
+	private static String lastName(long index) {
+		return "Loadln" + String.format("%02d", index / NAME_GROUPS % NAME_GROUPS);
+	}
+
+	private static String randomCpf() {
+		int[] digits = new int[11];
+		do {
+			for (int i = 0; i < 9; i++) {
+				digits[i] = ThreadLocalRandom.current().nextInt(10);
+			}
+		} while (Arrays.stream(digits, 0, 9).distinct().count() == 1);
+		digits[9] = checkDigit(digits, 9);
+		digits[10] = checkDigit(digits, 10);
+
+		StringBuilder cpf = new StringBuilder(11);
+		for (int digit : digits) {
+			cpf.append(digit);
+		}
+		return cpf.toString();
+	}
+
+	private static int checkDigit(int[] digits, int length) {
+		int sum = 0;
+		for (int i = 0; i < length; i++) {
+			sum += digits[i] * (length + 1 - i);
+		}
+		int remainder = sum % 11;
+		return remainder < 2 ? 0 : 11 - remainder;
+	}
+
+	private record SeededUser(long id, UserSaveRecord user) {
+	}
+}
@@ -1,9 +1,14 @@
 package com.portfolio.userapi;
 
+import com.portfolio.userapi.config.UserApiRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@ImportRuntimeHints(UserApiRuntimeHints.class)
 public class UserApiApplication {
 
 	public static void main(String[] args) {
@@ -16,4 +16,12 @@ public class Config {
 	public static LocalDateTimeSerializer LOCAL_DATETIME_SERIALIZER =
 			new LocalDateTimeSerializer(DateTimeFormatter.ofPattern(DATETIME_FORMAT));
 	public static final byte ALLOWED_AGE_USERS_REGISTRATION = 19;
+	public static final int MAX_BATCH_SIZE = 5000;
+	public static final int MAX_DELETE_BATCH_SIZE = 50000;
+	public static final int MAX_LOOKUP_SIZE = 1000;
+	public static final int BATCH_FLUSH_SIZE = 500;
+	public static final int MAX_PAGE_SIZE = 1000;
+	public static final int MAX_SEARCH_SIZE = 200;
+	public static final int MIN_SEARCH_LENGTH = 3;
+	public static final String USER_FIELDS_FILTER = "userFields";
 }
@@ -0,0 +1,95 @@
+package com.portfolio.userapi.config;
+
+import com.portfolio.userapi.logging.RepositoryCallTracker;
+import com.portfolio.userapi.logging.RequestIdFilter;
+import com.portfolio.userapi.logging.SlowQueryListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.Objects;
+
+@Configuration
+@EnableConfigurationProperties(SlowQueryProperties.class)
+public class LoggingConfig {
+
+	private static final String DATA_SOURCE_BEAN = "dataSource";
+
+	@Bean
+	public FilterRegistrationBean<RequestIdFilter> requestIdFilter() {
+		FilterRegistrationBean<RequestIdFilter> registration = new FilterRegistrationBean<>(new RequestIdFilter());
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+		return registration;
+	}
+
+	// Streaming responses run on the task executor, so the request id follows them there
+	@Bean
+	public TaskDecorator mdcTaskDecorator() {
+		return runnable -> {
+			Map<String, String> context = MDC.getCopyOfContextMap();
+			return () -> {
+				if (Objects.nonNull(context)) {
+					MDC.setContextMap(context);
+				}
+				try {
+					runnable.run();
+				} finally {
+					MDC.clear();
+				}
+			};
+		};
+	}
+
+	// Only the data source the application uses is wrapped: with read replicas the primary pool sits behind it and
+	// would log every statement twice
+	@Bean
+	public static BeanPostProcessor slowQueryDataSource(ObjectProvider<SlowQueryProperties> slowQueryProperties) {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (!(bean instanceof DataSource dataSource) || !DATA_SOURCE_BEAN.equals(beanName)) {
+					return bean;
+				}
+
+				SlowQueryProperties properties = slowQueryProperties.getObject();
+				if (!properties.enabled()) {
+					return bean;
+				}
+
+				SlowQueryListener slowQueryListener = new SlowQueryListener(properties.threshold(),
+						properties.sampleRate(), properties.logParameters());
+				return ProxyDataSourceBuilder.create(dataSource)
+						.name(DATA_SOURCE_BEAN)
+						.listener(slowQueryListener)
+						.methodListener(slowQueryListener)
+						.proxyResultSet()
+						.build();
+			}
+		};
+	}
+
+	@Bean
+	public static BeanPostProcessor repositoryCallTracking() {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessBeforeInitialization(Object bean, String beanName) {
+				if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repositoryFactoryBean) {
+					repositoryFactoryBean.addRepositoryFactoryCustomizer(repositoryFactory ->
+							repositoryFactory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) ->
+									proxyFactory.addAdvice(new RepositoryCallTracker(repositoryInformation.getRepositoryInterface()))));
+				}
+				return bean;
+			}
+		};
+	}
+}
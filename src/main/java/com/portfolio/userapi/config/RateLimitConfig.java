@@ -0,0 +1,33 @@
+package com.portfolio.userapi.config;
+
+import com.portfolio.userapi.ratelimit.RateLimitInterceptor;
+import com.portfolio.userapi.ratelimit.RateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig implements WebMvcConfigurer {
+
+	private final RateLimitProperties rateLimitProperties;
+	private final MeterRegistry meterRegistry;
+
+	public RateLimitConfig(RateLimitProperties rateLimitProperties, MeterRegistry meterRegistry) {
+		this.rateLimitProperties = rateLimitProperties;
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		// Checked here rather than with a condition, so the switch still works on an AOT-built jar
+		if (rateLimitProperties.enabled()) {
+			registry.addInterceptor(new RateLimitInterceptor(new RateLimiter(rateLimitProperties),
+					rateLimitProperties.clientHeader(), rateLimitProperties.apiKeys(), rateLimitProperties.maxConcurrentRequests(),
+					meterRegistry))
+					.addPathPatterns("/user/**");
+		}
+	}
+}
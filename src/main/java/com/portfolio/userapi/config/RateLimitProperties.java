@@ -0,0 +1,33 @@
+package com.portfolio.userapi.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Endpoints are keyed by the name of their {@code UserController} method, e.g. {@code endpoints[addUser]}. A limit
+ * with a capacity of 0 turns rate limiting off for that endpoint. Only the keys in {@code apiKeys} get buckets of
+ * their own; a caller sending any other key is limited by its address, so it cannot mint fresh buckets.
+ */
+@Validated
+@ConfigurationProperties(prefix = "user-api.rate-limit")
+public record RateLimitProperties(@DefaultValue("true") boolean enabled,
+								  @DefaultValue("X-API-Key") String clientHeader,
+								  @DefaultValue Set<String> apiKeys,
+								  @DefaultValue @Valid Limit defaultLimit,
+								  @DefaultValue Map<String, @Valid Limit> endpoints,
+								  @DefaultValue("100000") @Positive long maxClients,
+								  @DefaultValue("10m") Duration idleTimeout,
+								  @DefaultValue("200") @Positive int maxConcurrentRequests) {
+
+	public record Limit(@DefaultValue("100") @PositiveOrZero long capacity,
+						@DefaultValue("50") @Positive double refillPerSecond) {
+	}
+}
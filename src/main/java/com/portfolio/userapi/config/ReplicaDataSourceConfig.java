@@ -0,0 +1,79 @@
+package com.portfolio.userapi.config;
+
+import com.portfolio.userapi.datasource.ReadYourWritesInterceptor;
+import com.portfolio.userapi.datasource.ReplicaHealth;
+import com.portfolio.userapi.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Only active once a replica is configured, otherwise the auto-configured datasource is used as before
+@Configuration
+@EnableConfigurationProperties(ReplicaProperties.class)
+@ConditionalOnProperty(name = "user-api.datasource.replicas[0].url")
+public class ReplicaDataSourceConfig implements WebMvcConfigurer {
+
+	private final ReplicaProperties replicaProperties;
+
+	public ReplicaDataSourceConfig(ReplicaProperties replicaProperties) {
+		this.replicaProperties = replicaProperties;
+	}
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+		HikariDataSource primaryDataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		primaryDataSource.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+		return primaryDataSource;
+	}
+
+	@Bean
+	public ReplicaHealth replicaHealth(MeterRegistry meterRegistry) {
+		Map<String, DataSource> replicas = new LinkedHashMap<>();
+		for (int i = 0; i < replicaProperties.replicas().size(); i++) {
+			ReplicaProperties.Replica replica = replicaProperties.replicas().get(i);
+			// Not a bean of its own, so ReplicaHealth closes it when the context shuts down
+			HikariDataSource replicaDataSource = new HikariDataSource();
+			replicaDataSource.setPoolName("replica-" + (i + 1));
+			replicaDataSource.setJdbcUrl(replica.url());
+			replicaDataSource.setUsername(replica.username());
+			replicaDataSource.setPassword(replica.password());
+			replicaDataSource.setMaximumPoolSize(replicaProperties.replicaPoolSize());
+			replicaDataSource.setConnectionTimeout(replicaProperties.replicaConnectionTimeout().toMillis());
+			replicaDataSource.setReadOnly(true);
+			// Lets the app start while a replica is down, the health check keeps it out of rotation
+			replicaDataSource.setInitializationFailTimeout(-1);
+			replicaDataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+			replicas.put(replicaDataSource.getPoolName(), replicaDataSource);
+		}
+
+		return new ReplicaHealth(replicas, replicaProperties.maxLag(), replicaProperties.healthInterval());
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaHealth replicaHealth) {
+		ReplicaRoutingDataSource replicaRoutingDataSource = new ReplicaRoutingDataSource(primaryDataSource, replicaHealth);
+		replicaRoutingDataSource.afterPropertiesSet();
+		return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(new ReadYourWritesInterceptor(replicaProperties.stickyWindow()));
+	}
+}
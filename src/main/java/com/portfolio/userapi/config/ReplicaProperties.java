@@ -0,0 +1,21 @@
+package com.portfolio.userapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "user-api.datasource")
+public record ReplicaProperties(@DefaultValue List<Replica> replicas,
+								@DefaultValue("20") int replicaPoolSize,
+								@DefaultValue("2s") Duration replicaConnectionTimeout,
+								@DefaultValue("5s") Duration maxLag,
+								@DefaultValue("5s") Duration healthInterval,
+								@DefaultValue("5s") Duration stickyWindow) {
+
+	public record Replica(String url,
+						  String username,
+						  String password) {
+	}
+}
@@ -0,0 +1,13 @@
+package com.portfolio.userapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "user-api.slow-query")
+public record SlowQueryProperties(@DefaultValue("true") boolean enabled,
+								  @DefaultValue("200ms") Duration threshold,
+								  @DefaultValue("1.0") double sampleRate,
+								  @DefaultValue("false") boolean logParameters) {
+}
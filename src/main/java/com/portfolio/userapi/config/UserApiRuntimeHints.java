@@ -0,0 +1,59 @@
+package com.portfolio.userapi.config;
+
+import com.portfolio.userapi.dto.UserBatchResultRecord;
+import com.portfolio.userapi.dto.UserCacheStatsRecord;
+import com.portfolio.userapi.dto.UserChangePageRecord;
+import com.portfolio.userapi.dto.UserChangeRecord;
+import com.portfolio.userapi.dto.UserDeleteBatchRecord;
+import com.portfolio.userapi.dto.UserDeleteBatchResultRecord;
+import com.portfolio.userapi.dto.UserLookupItemRecord;
+import com.portfolio.userapi.dto.UserLookupRecord;
+import com.portfolio.userapi.dto.UserLookupResultRecord;
+import com.portfolio.userapi.dto.UserPageRecord;
+import com.portfolio.userapi.dto.UserPatchRecord;
+import com.portfolio.userapi.dto.UserSaveRecord;
+import com.portfolio.userapi.dto.UserSummaryRecord;
+import com.portfolio.userapi.entity.UserEntity;
+import com.portfolio.userapi.entity.UserTombstoneEntity;
+import com.portfolio.userapi.validation.ValidEmail;
+import com.portfolio.userapi.validation.ValidEmailConstraintValidator;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+/**
+ * Hints for a native image that the AOT engine cannot infer. Most endpoints answer with
+ * {@code ResponseEntity<Object>}, so the types Jackson reads and writes are registered here. So are the custom
+ * email constraint, which Hibernate Validator builds reflectively, and the connection proxy the replica routing
+ * hands out.
+ */
+public class UserApiRuntimeHints implements RuntimeHintsRegistrar {
+
+	private static final Class<?>[] JSON_TYPES = {
+			UserEntity.class,
+			UserTombstoneEntity.class,
+			UserBatchResultRecord.class,
+			UserCacheStatsRecord.class,
+			UserChangePageRecord.class,
+			UserChangeRecord.class,
+			UserDeleteBatchRecord.class,
+			UserDeleteBatchResultRecord.class,
+			UserLookupItemRecord.class,
+			UserLookupRecord.class,
+			UserLookupResultRecord.class,
+			UserPageRecord.class,
+			UserPatchRecord.class,
+			UserSaveRecord.class,
+			UserSummaryRecord.class
+	};
+
+	@Override
+	public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+		new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), JSON_TYPES);
+		hints.reflection().registerType(ValidEmail.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+		hints.reflection().registerType(ValidEmailConstraintValidator.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+		hints.proxies().registerJdkProxy(ConnectionProxy.class);
+	}
+}
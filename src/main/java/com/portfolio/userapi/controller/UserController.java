@@ -1,224 +1,828 @@
 package com.portfolio.userapi.controller;
 
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.portfolio.userapi.config.Config;
+import com.portfolio.userapi.dto.UserBatchResultRecord;
+import com.portfolio.userapi.dto.UserCacheStatsRecord;
+import com.portfolio.userapi.dto.UserChangeCursorRecord;
+import com.portfolio.userapi.dto.UserChangePageRecord;
+import com.portfolio.userapi.dto.UserCursorRecord;
+import com.portfolio.userapi.dto.UserDeleteBatchRecord;
+import com.portfolio.userapi.dto.UserLookupRecord;
 import com.portfolio.userapi.dto.UserPageRecord;
+import com.portfolio.userapi.dto.UserPatchRecord;
 import com.portfolio.userapi.dto.UserSaveRecord;
+import com.portfolio.userapi.dto.UserSummaryRecord;
 import com.portfolio.userapi.entity.UserEntity;
+import com.portfolio.userapi.exception.IdempotencyKeyReusedException;
+import com.portfolio.userapi.exception.UserConflictException;
+import com.portfolio.userapi.service.UserChangeService;
+import com.portfolio.userapi.service.UserChangeStream;
+import com.portfolio.userapi.service.UserExportService;
+import com.portfolio.userapi.service.UserIdempotencyService;
 import com.portfolio.userapi.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/user")
 public class UserController {
 
+	private final static String LAST_EVENT_ID = "Last-Event-ID";
 	private final static String LEGEND_USER_NOT_FOUND = "User not found";
 	private final static String LEGEND_USER_DELETED = "User has been deleted";
+	private final static String LEGEND_BATCH_TOO_LARGE = "A batch cannot have more than " + Config.MAX_BATCH_SIZE + " users";
+	private final static String LEGEND_DELETE_BATCH_TOO_LARGE = "A batch cannot delete more than " + Config.MAX_DELETE_BATCH_SIZE + " keys";
+	private final static String LEGEND_LOOKUP_TOO_LARGE = "A lookup cannot ask for more than " + Config.MAX_LOOKUP_SIZE + " keys";
+	private final static String LEGEND_USER_DATA_MISSING = "User data is missing";
+	private final static String LEGEND_INVALID_CURSOR = "Invalid cursor";
+	private final static String LEGEND_CURSOR_EXPIRED = "Cursor is older than the tombstone retention, sync again from the start";
+	private final static String LEGEND_INVALID_ORDER = "Invalid order, use id or creationDate";
+	private final static String LEGEND_INVALID_EXPORT_FORMAT = "Invalid format, use ndjson, csv or cbor";
+	private final static String LEGEND_SEARCH_TERM_TOO_SHORT = "Search terms must have at least " + Config.MIN_SEARCH_LENGTH + " characters";
+	private final static String LEGEND_INVALID_PAGE = "Invalid page, page cannot be negative and size must be at least 1";
+	private final static String LEGEND_USER_MODIFIED = "User has been modified by another request";
+	private final static String LEGEND_INVALID_FIELDS = "Invalid fields, use a comma separated list of user fields";
+	private final static String LEGEND_INVALID_IDEMPOTENCY_KEY = "Invalid Idempotency-Key, use 1 to 255 visible ASCII characters";
+	private final static String FIELDS_DESCRIPTION = "Pass fields (e.g. fields=id,userName,firstName,lastName) to return only those " +
+			"fields; within id, userName, firstName and lastName only those columns are read";
+	private final static Set<String> USER_FIELDS = Set.of("id", "userName", "cpf", "firstName", "lastName", "dateOfBirth",
+			"email", "creationDate", "updateDate", "version");
+	private final static String MEDIA_TYPE_MERGE_PATCH_JSON = "application/merge-patch+json";
+	private final static MediaType MEDIA_TYPE_CBOR_SEQUENCE = new MediaType("application", "cbor-seq");
 
 	@Autowired
 	private UserService userService;
 
-	public UserController(UserService userService) {
+	@Autowired
+	private UserExportService userExportService;
+
+	@Autowired
+	private UserChangeService userChangeService;
+
+	@Autowired
+	private UserChangeStream userChangeStream;
+
+	@Autowired
+	private UserIdempotencyService userIdempotencyService;
+
+	@Autowired
+	private Validator validator;
+
+	public UserController(UserService userService, UserExportService userExportService, Validator validator) {
 		this.userService = userService;
+		this.userExportService = userExportService;
+		this.validator = validator;
 	}
 
-	@Operation(summary = "Add a user", description = "Allows adding a user record")
+	@Operation(summary = "Add a user", description = "Allows adding a user record. Send an Idempotency-Key to retry safely: " +
+			"a request with a key that already created a user gets the same 201 back, with Idempotent-Replayed: true")
 	@ApiResponses(value = {
 			@ApiResponse(responseCode = "201", description = "User created"),
-			@ApiResponse(responseCode = "422", description = "Unprocessable entity")
+			@ApiResponse(responseCode = "400", description = "Invalid Idempotency-Key"),
+			@ApiResponse(responseCode = "422", description = "Unprocessable entity, or Idempotency-Key reused with a different request")
 	})
 	@PostMapping(value = "/add",
 			consumes = MediaType.APPLICATION_JSON_VALUE,
 			produces = MediaType.APPLICATION_JSON_VALUE
 	)
-	public ResponseEntity<Object> addUser(@RequestBody @Valid UserSaveRecord userSaveRecord) {
-		UserEntity userEntity = new UserEntity();
-		userEntity.setUserName(userSaveRecord.userName());
-		userEntity.setCpf(userSaveRecord.cpf());
-		userEntity.setFirstName(userSaveRecord.firstName());
-		userEntity.setLastName(userSaveRecord.lastName());
-		userEntity.setDateOfBirth(userSaveRecord.dateOfBirth());
-		userEntity.setEmail(userSaveRecord.email());
+	public ResponseEntity<Object> addUser(@RequestBody @Valid UserSaveRecord userSaveRecord,
+										  @RequestHeader(value = UserIdempotencyService.HEADER, required = false) String idempotencyKey) {
 
-		String validateNewUserLegend = userService.validateUserData(userEntity, true);
+		if (Objects.isNull(idempotencyKey)) {
+			return createUser(userSaveRecord);
+		}
+		if (!UserIdempotencyService.isValidKey(idempotencyKey)) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, LEGEND_INVALID_IDEMPOTENCY_KEY);
+		}
 
-		if (!validateNewUserLegend.isEmpty()) {
-			return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(validateNewUserLegend);
-		} else {
+		return userIdempotencyService.execute(idempotencyKey, userSaveRecord, () -> createUser(userSaveRecord));
+	}
 
-			return ResponseEntity.status(HttpStatus.CREATED).body(userService.save(userEntity));
+	@Operation(summary = "Add users in batch", description = "Allows adding a batch of user records, reporting the result of each one")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Batch processed, see the status of each record"),
+			@ApiResponse(responseCode = "422", description = "Unprocessable entity")
+	})
+	@PostMapping(value = "/batch",
+			consumes = MediaType.APPLICATION_JSON_VALUE,
+			produces = MediaType.APPLICATION_JSON_VALUE
+	)
+	public ResponseEntity<Object> addUsers(@RequestBody List<UserSaveRecord> userSaveRecordList) {
+
+		if (userSaveRecordList.size() > Config.MAX_BATCH_SIZE) {
+			return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(LEGEND_BATCH_TOO_LARGE);
+		}
+
+		UserBatchResultRecord[] results = new UserBatchResultRecord[userSaveRecordList.size()];
+		List<Integer> positions = new ArrayList<>();
+		List<UserEntity> candidates = new ArrayList<>();
+
+		for (int i = 0; i < userSaveRecordList.size(); i++) {
+			String legend = validateUserSaveRecord(userSaveRecordList.get(i));
+			if (legend.isEmpty()) {
+				positions.add(i);
+				candidates.add(toUserEntity(userSaveRecordList.get(i)));
+			} else {
+				results[i] = new UserBatchResultRecord(i, HttpStatus.UNPROCESSABLE_ENTITY.value(), legend, null);
+			}
+		}
+
+		List<String> legends = userService.validateUsersData(candidates);
+		List<Integer> acceptedPositions = new ArrayList<>();
+		List<UserEntity> accepted = new ArrayList<>();
+
+		for (int i = 0; i < candidates.size(); i++) {
+			int position = positions.get(i);
+			if (legends.get(i).isEmpty()) {
+				acceptedPositions.add(position);
+				accepted.add(candidates.get(i));
+			} else {
+				results[position] = new UserBatchResultRecord(position, HttpStatus.UNPROCESSABLE_ENTITY.value(), legends.get(i), null);
+			}
+		}
+
+		if (!accepted.isEmpty()) {
+			List<UserEntity> savedList = userService.saveAll(accepted);
+			for (int i = 0; i < savedList.size(); i++) {
+				int position = acceptedPositions.get(i);
+				results[position] = new UserBatchResultRecord(position, HttpStatus.CREATED.value(), "", savedList.get(i).getId());
+			}
 		}
+
+		return ResponseEntity.status(HttpStatus.OK).body(Arrays.asList(results));
 	}
 
-	@Operation(summary = "Get all users", description = "Returns all users")
+	@Operation(summary = "Get all users", description = "Returns all users. Pass 'after' (empty for the first page, then the " +
+			"returned nextCursor) to page by cursor without count queries, ordered by 'id' or 'creationDate'. " +
+			"Set withTotals=false to skip the count query on offset pages. " + FIELDS_DESCRIPTION)
 	@ApiResponses(value = {
 			@ApiResponse(responseCode = "200", description = "Successfully retrieved"),
+			@ApiResponse(responseCode = "400", description = "Invalid page, cursor, order or fields")
 	})
 	@GetMapping("/all")
-	public ResponseEntity<UserPageRecord> getAllUsers(@RequestParam(defaultValue = "0") int page,
-													  @RequestParam(defaultValue = "10") int size) {
+	public ResponseEntity<Object> getAllUsers(@RequestParam(defaultValue = "0") int page,
+											  @RequestParam(defaultValue = "10") int size,
+											  @RequestParam(required = false) String after,
+											  @RequestParam(defaultValue = UserCursorRecord.ORDER_ID) String order,
+											  @RequestParam(defaultValue = "true") boolean withTotals,
+											  @RequestParam(required = false) Set<String> fields) {
+
+		validatePage(page, size);
+		int pageSize = Math.min(size, Config.MAX_PAGE_SIZE);
+		boolean summary = isSummary(fields);
+
+		if (Objects.nonNull(after)) {
+			UserCursorRecord userCursorRecord = after.isEmpty() ? null : UserCursorRecord.decode(after)
+					.orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, LEGEND_INVALID_CURSOR));
+			String cursorOrder = Objects.isNull(userCursorRecord) ? order : userCursorRecord.order();
+			if (!UserCursorRecord.isValidOrder(cursorOrder)) {
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST, LEGEND_INVALID_ORDER);
+			}
+
+			if (summary && UserCursorRecord.ORDER_ID.equals(cursorOrder)) {
+				Slice<UserSummaryRecord> slicedSummaries = userService.findAllSummariesAfter(userCursorRecord, pageSize);
+				String nextCursor = slicedSummaries.hasNext()
+						? UserCursorRecord.of(slicedSummaries.getContent().get(slicedSummaries.getNumberOfElements() - 1)).encode()
+						: null;
+
+				return ResponseEntity.status(HttpStatus.OK).body(withFields(new UserPageRecord(null, null, null, nextCursor, slicedSummaries.getContent()), fields));
+			}
+
+			Slice<UserEntity> slicedUsers = userService.findAllAfter(cursorOrder, userCursorRecord, pageSize);
+			String nextCursor = slicedUsers.hasNext()
+					? UserCursorRecord.of(slicedUsers.getContent().get(slicedUsers.getNumberOfElements() - 1), cursorOrder).encode()
+					: null;
+
+			return ResponseEntity.status(HttpStatus.OK).body(withFields(new UserPageRecord(null, null, null, nextCursor, slicedUsers.getContent()), fields));
+		}
+
+		if (!withTotals) {
+			Slice<?> slicedUsers = summary
+					? userService.findAllSummariesWithoutCount(offsetPage(page, pageSize))
+					: userService.findAllWithoutCount(offsetPage(page, pageSize));
+			return ResponseEntity.status(HttpStatus.OK).body(withFields(new UserPageRecord(slicedUsers.getNumber(), null, null, null, slicedUsers.getContent()), fields));
+		}
+
+		Page<?> pagedUsers = summary
+				? userService.findAllSummaries(offsetPage(page, pageSize))
+				: userService.findAll(offsetPage(page, pageSize));
+		UserPageRecord userPageRecord = new UserPageRecord(pagedUsers.getNumber(), pagedUsers.getTotalElements(), pagedUsers.getTotalPages(), null, pagedUsers.getContent());
+
+		return ResponseEntity.status(HttpStatus.OK).body(withFields(userPageRecord, fields));
+	}
 
-		Page<UserEntity> pagedUsers = userService.findAll(PageRequest.of(page, size));
-		UserPageRecord userPageRecord = new UserPageRecord(pagedUsers.getNumber(), pagedUsers.getTotalElements(), pagedUsers.getTotalPages(), pagedUsers.getContent());
+	@Operation(summary = "Export all users", description = "Streams every user as NDJSON (one JSON object per line), CSV " +
+			"or a CBOR sequence (one CBOR item per user)")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Successfully exported"),
+			@ApiResponse(responseCode = "400", description = "Invalid format")
+	})
+	@GetMapping("/export")
+	public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(defaultValue = UserExportService.FORMAT_NDJSON) String format) {
+
+		if (!UserExportService.isValidFormat(format)) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, LEGEND_INVALID_EXPORT_FORMAT);
+		}
 
-		return ResponseEntity.status(HttpStatus.OK).body(userPageRecord);
+		MediaType mediaType = switch (format) {
+			case UserExportService.FORMAT_CSV -> new MediaType("text", "csv", StandardCharsets.UTF_8);
+			case UserExportService.FORMAT_CBOR -> MEDIA_TYPE_CBOR_SEQUENCE;
+			default -> MediaType.APPLICATION_NDJSON;
+		};
+		StreamingResponseBody streamingResponseBody = outputStream -> userExportService.export(outputStream, format);
+
+		return ResponseEntity.status(HttpStatus.OK)
+				.contentType(mediaType)
+				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=users." + format)
+				.body(streamingResponseBody);
 	}
 
-	@Operation(summary = "Get a user by username", description = "Returns a user record given its username")
+	@Operation(summary = "Get the user changes since a cursor", description = "Returns the users created, updated or deleted " +
+			"after 'since' (omit it to start from the beginning), oldest first. Deleted users come as tombstones. Keep the " +
+			"returned nextCursor and pass it as 'since' on the next call")
 	@ApiResponses(value = {
 			@ApiResponse(responseCode = "200", description = "Successfully retrieved"),
+			@ApiResponse(responseCode = "400", description = "Invalid cursor or size"),
+			@ApiResponse(responseCode = "410", description = "The cursor is older than the tombstone retention, sync again from the start")
+	})
+	@GetMapping("/changes")
+	public ResponseEntity<UserChangePageRecord> getChanges(@RequestParam(required = false) String since,
+														   @RequestParam(defaultValue = "500") int size) {
+
+		validatePage(0, size);
+		return ResponseEntity.status(HttpStatus.OK).body(userChangeService.changesAfter(changeCursor(since), Math.min(size, Config.MAX_PAGE_SIZE)));
+	}
+
+	@Operation(summary = "Stream the user changes", description = "Server-Sent Events stream that replays the changes after " +
+			"'since' or Last-Event-ID and then pushes each change as it commits. Every event id is a cursor to resume from; pushed " +
+			"changes repeat the id of the last replayed one, so resuming replays them again")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Streaming"),
+			@ApiResponse(responseCode = "400", description = "Invalid cursor"),
+			@ApiResponse(responseCode = "410", description = "The cursor is older than the tombstone retention, sync again from the start")
+	})
+	@GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public ResponseEntity<StreamingResponseBody> streamChanges(@RequestParam(required = false) String since,
+															   @RequestHeader(value = LAST_EVENT_ID, required = false) String lastEventId) {
+
+		UserChangeCursorRecord cursor = changeCursor(Objects.nonNull(lastEventId) ? lastEventId : since);
+		StreamingResponseBody streamingResponseBody = outputStream -> userChangeStream.stream(cursor, outputStream);
+
+		return ResponseEntity.status(HttpStatus.OK)
+				.contentType(MediaType.TEXT_EVENT_STREAM)
+				.header(HttpHeaders.CACHE_CONTROL, "no-cache")
+				.body(streamingResponseBody);
+	}
+
+	@Operation(summary = "Get the user cache statistics", description = "Returns the hits, misses, evictions and size of the user lookup cache")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Successfully retrieved"),
+	})
+	@GetMapping("/cache/stats")
+	public ResponseEntity<UserCacheStatsRecord> getCacheStats() {
+		return ResponseEntity.status(HttpStatus.OK).body(userService.cacheStats());
+	}
+
+	@Operation(summary = "Get a user by username", description = "Returns a user record given its username. Pass fields to return only those fields")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Successfully retrieved"),
+			@ApiResponse(responseCode = "304", description = "If-None-Match matches the current ETag"),
 	})
 	@GetMapping("/username/{username}")
-	public ResponseEntity<Object> getUserByUserName(@PathVariable(value = "username") String userName) {
+	public ResponseEntity<Object> getUserByUserName(@PathVariable(value = "username") String userName,
+													@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+													@RequestParam(required = false) Set<String> fields) {
+		validateFields(fields);
 		Optional<UserEntity> userEntityOptional = userService.findByUserName(userName);
-		return userEntityOptional.<ResponseEntity<Object>>map(userEntity -> ResponseEntity.status(HttpStatus.OK).body(userEntity)).
+		return userEntityOptional.<ResponseEntity<Object>>map(userEntity -> userResponse(userEntity, ifNoneMatch, fields)).
 				orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(LEGEND_USER_NOT_FOUND));
 	}
 
-	@Operation(summary = "Get a user by cpf", description = "Returns a user record given its cpf")
+	@Operation(summary = "Get a user by cpf", description = "Returns a user record given its cpf. Pass fields to return only those fields")
 	@ApiResponses(value = {
 			@ApiResponse(responseCode = "200", description = "Successfully retrieved"),
+			@ApiResponse(responseCode = "304", description = "If-None-Match matches the current ETag"),
 	})
 	@GetMapping("/cpf/{cpf}")
-	public ResponseEntity<Object> getUserByCpf(@PathVariable(value = "cpf") String cpf) {
+	public ResponseEntity<Object> getUserByCpf(@PathVariable(value = "cpf") String cpf,
+											   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+											   @RequestParam(required = false) Set<String> fields) {
+		validateFields(fields);
 		Optional<UserEntity> userEntityOptional = userService.findByCpf(cpf);
 		return userEntityOptional.
-				<ResponseEntity<Object>>map(userEntity -> ResponseEntity.status(HttpStatus.OK).body(userEntity))
+				<ResponseEntity<Object>>map(userEntity -> userResponse(userEntity, ifNoneMatch, fields))
 				.orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(LEGEND_USER_NOT_FOUND));
 	}
 
-	@Operation(summary = "Gets users given first name", description = "Returns the users given the first name or part of it")
+	@Operation(summary = "Look up users by many keys", description = "Resolves lists of ids, usernames and cpfs with one query " +
+			"per key type. Every list of the answer follows the request order and marks the keys that matched no user with found false. " +
+			"Pass fields to return only those fields of each user")
 	@ApiResponses(value = {
 			@ApiResponse(responseCode = "200", description = "Successfully retrieved"),
+			@ApiResponse(responseCode = "422", description = "Unprocessable entity")
 	})
-	@RequestMapping(value = {"/user/filter/firstname"}, method = RequestMethod.GET, params = "firstname")
-	public ResponseEntity<List<UserEntity>> getUserbyFirstName(
-			@RequestParam(value = "firstname") String firstName) {
+	@PostMapping(value = "/lookup",
+			consumes = MediaType.APPLICATION_JSON_VALUE,
+			produces = MediaType.APPLICATION_JSON_VALUE
+	)
+	public ResponseEntity<Object> lookupUsers(@RequestBody UserLookupRecord userLookupRecord,
+											  @RequestParam(required = false) Set<String> fields) {
+		validateFields(fields);
+
+		if (userLookupRecord.size() > Config.MAX_LOOKUP_SIZE) {
+			return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(LEGEND_LOOKUP_TOO_LARGE);
+		}
+
+		return ResponseEntity.status(HttpStatus.OK).body(withFields(userService.lookup(userLookupRecord), fields));
+	}
 
-		return ResponseEntity.status(HttpStatus.OK).body(userService.findByFirstNameContains(firstName));
+	@Operation(summary = "Gets users given first name", description = "Returns a page of the users given the first name or part of it, " +
+			"which needs at least 3 characters. " + FIELDS_DESCRIPTION)
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Successfully retrieved"),
+			@ApiResponse(responseCode = "400", description = "The first name is too short or the page is invalid")
+	})
+	@RequestMapping(value = {"/user/filter/firstname"}, method = RequestMethod.GET, params = "firstname")
+	public ResponseEntity<Object> getUserbyFirstName(
+			@RequestParam(value = "firstname") String firstName,
+			@RequestParam(defaultValue = "0") int page,
+			@RequestParam(defaultValue = "50") int size,
+			@RequestParam(required = false) Set<String> fields) {
+
+		String firstNameTerm = searchTerm(firstName);
+		List<?> users = isSummary(fields)
+				? userService.findSummariesByFirstNameContains(firstNameTerm, searchPage(page, size))
+				: userService.findByFirstNameContains(firstNameTerm, searchPage(page, size));
+
+		return ResponseEntity.status(HttpStatus.OK).body(withFields(users, fields));
 	}
 
-	@Operation(summary = "Gets users given last name", description = "Returns the users given the last name or part of it")
+	@Operation(summary = "Gets users given last name", description = "Returns a page of the users given the last name or part of it, " +
+			"which needs at least 3 characters. " + FIELDS_DESCRIPTION)
 	@ApiResponses(value = {
 			@ApiResponse(responseCode = "200", description = "Successfully retrieved"),
+			@ApiResponse(responseCode = "400", description = "The last name is too short or the page is invalid")
 	})
 	@RequestMapping(value = {"/user/filter/lastname"}, method = RequestMethod.GET, params = "lastname")
-	public ResponseEntity<List<UserEntity>> getUserbyLastName(
-			@RequestParam(value = "lastname") String lastName) {
+	public ResponseEntity<Object> getUserbyLastName(
+			@RequestParam(value = "lastname") String lastName,
+			@RequestParam(defaultValue = "0") int page,
+			@RequestParam(defaultValue = "50") int size,
+			@RequestParam(required = false) Set<String> fields) {
+
+		String lastNameTerm = searchTerm(lastName);
+		List<?> users = isSummary(fields)
+				? userService.findSummariesByLastNameContains(lastNameTerm, searchPage(page, size))
+				: userService.findByLastNameContains(lastNameTerm, searchPage(page, size));
+
+		return ResponseEntity.status(HttpStatus.OK).body(withFields(users, fields));
+	}
 
-		return ResponseEntity.status(HttpStatus.OK).body(userService.findByLastNameContains(lastName));
+	@Operation(summary = "Search users by name", description = "Returns a page of the users whose full name contains 'name', " +
+			"or whose first and/or last name contain 'firstname' and 'lastname'. Each term needs at least 3 characters. " + FIELDS_DESCRIPTION)
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Successfully retrieved"),
+			@ApiResponse(responseCode = "400", description = "Search terms are missing or too short, or the page is invalid")
+	})
+	@GetMapping("/search")
+	public ResponseEntity<Object> searchUsers(@RequestParam(required = false) String name,
+											 @RequestParam(value = "firstname", required = false) String firstName,
+											 @RequestParam(value = "lastname", required = false) String lastName,
+											 @RequestParam(defaultValue = "0") int page,
+											 @RequestParam(defaultValue = "20") int size,
+											 @RequestParam(required = false) Set<String> fields) {
+
+		boolean summary = isSummary(fields);
+		Slice<?> slicedUsers;
+		if (Objects.nonNull(name)) {
+			slicedUsers = summary
+					? userService.searchSummariesByName(searchTerm(name), searchPage(page, size))
+					: userService.searchByName(searchTerm(name), searchPage(page, size));
+		} else if (Objects.nonNull(firstName) || Objects.nonNull(lastName)) {
+			String firstNameTerm = Objects.isNull(firstName) ? null : searchTerm(firstName);
+			String lastNameTerm = Objects.isNull(lastName) ? null : searchTerm(lastName);
+			slicedUsers = summary
+					? userService.searchSummariesByFirstAndLastName(firstNameTerm, lastNameTerm, searchPage(page, size))
+					: userService.searchByFirstAndLastName(firstNameTerm, lastNameTerm, searchPage(page, size));
+		} else {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, LEGEND_SEARCH_TERM_TOO_SHORT);
+		}
+
+		return ResponseEntity.status(HttpStatus.OK).body(withFields(new UserPageRecord(slicedUsers.getNumber(), null, null, null, slicedUsers.getContent()), fields));
 	}
 
 	@Operation(summary = "Delete a user given their id", description = "Delete a user record by giving its id")
 	@ApiResponses(value = {
 			@ApiResponse(responseCode = "200", description = "User has been deleted"),
 			@ApiResponse(responseCode = "404", description = "User not found"),
+			@ApiResponse(responseCode = "412", description = "If-Match does not match the current ETag, or the user is not found"),
 	})
 	@DeleteMapping("/{id}")
-	public ResponseEntity<Object> deleteUserById(@PathVariable(value = "id") long id) {
+	public ResponseEntity<Object> deleteUserById(@PathVariable(value = "id") long id,
+											@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
-		return deleteUser(userService.findById(id));
+		return deleteUser(userService.deleteById(id, strongETags(ifMatch)), ifMatch);
 	}
 
 	@Operation(summary = "Delete a user given their username", description = "Delete a user record by giving its username")
 	@ApiResponses(value = {
 			@ApiResponse(responseCode = "200", description = "User has been deleted"),
 			@ApiResponse(responseCode = "404", description = "User not found"),
+			@ApiResponse(responseCode = "412", description = "If-Match does not match the current ETag, or the user is not found"),
 	})
 	@DeleteMapping("/username/{username}")
-	public ResponseEntity<Object> deleteUserByUserName(@PathVariable(value = "username") String userName) {
+	public ResponseEntity<Object> deleteUserByUserName(@PathVariable(value = "username") String userName,
+												  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
-		return deleteUser(userService.findByUserName(userName));
+		return deleteUser(userService.deleteByUserName(userName, strongETags(ifMatch)), ifMatch);
 	}
 
 	@Operation(summary = "Delete a user given their cpf", description = "Delete a user record by giving its cpf")
 	@ApiResponses(value = {
 			@ApiResponse(responseCode = "200", description = "User has been deleted"),
 			@ApiResponse(responseCode = "404", description = "User not found"),
+			@ApiResponse(responseCode = "412", description = "If-Match does not match the current ETag, or the user is not found"),
 	})
 	@DeleteMapping("/cpf/{cpf}")
-	public ResponseEntity<Object> deleteUserByCpf(@PathVariable(value = "cpf") String cpf) {
+	public ResponseEntity<Object> deleteUserByCpf(@PathVariable(value = "cpf") String cpf,
+											 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+
+		return deleteUser(userService.deleteByCpf(cpf, strongETags(ifMatch)), ifMatch);
+	}
+
+	@Operation(summary = "Delete users in batch", description = "Delete every user matching any of the given ids, usernames " +
+			"or cpfs with a single statement, reporting the keys that matched no user")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Batch processed, see the count and the keys not found"),
+			@ApiResponse(responseCode = "422", description = "Unprocessable entity")
+	})
+	@DeleteMapping(value = "/batch",
+			consumes = MediaType.APPLICATION_JSON_VALUE,
+			produces = MediaType.APPLICATION_JSON_VALUE
+	)
+	public ResponseEntity<Object> deleteUsers(@RequestBody UserDeleteBatchRecord userDeleteBatchRecord) {
+
+		if (userDeleteBatchRecord.size() > Config.MAX_DELETE_BATCH_SIZE) {
+			return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(LEGEND_DELETE_BATCH_TOO_LARGE);
+		}
 
-		return deleteUser(userService.findByCpf(cpf));
+		return ResponseEntity.status(HttpStatus.OK).body(userService.deleteAll(userDeleteBatchRecord));
 	}
 
 	@Operation(summary = "Modify a user record given its id", description = "Modify a user record given its id")
 	@ApiResponses(value = {
 			@ApiResponse(responseCode = "200", description = "User has been modify"),
 			@ApiResponse(responseCode = "404", description = "User not found"),
+			@ApiResponse(responseCode = "412", description = "If-Match does not match the current ETag, or the user is not found"),
 			@ApiResponse(responseCode = "422", description = "Unprocessable Entity")
 	})
 	@PutMapping("/{id}")
 	public ResponseEntity<Object> updateUserById(@PathVariable(value = "id") long id,
+												 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
 												 @RequestBody @Valid UserSaveRecord userSaveRecord) {
 
-		return UpdateUser(userService.findById(id), userSaveRecord);
+		return UpdateUser(userService.findById(id), ifMatch, userSaveRecord);
 	}
 
 	@Operation(summary = "Modify a user given their username", description = "Modify a user given their username")
 	@ApiResponses(value = {
 			@ApiResponse(responseCode = "200", description = "User has been modify"),
 			@ApiResponse(responseCode = "404", description = "User not found"),
+			@ApiResponse(responseCode = "412", description = "If-Match does not match the current ETag, or the user is not found"),
 			@ApiResponse(responseCode = "422", description = "Unprocessable Entity")
 	})
 	@PutMapping("/username/{username}")
 	public ResponseEntity<Object> updateUserByUserName(@PathVariable(value = "username") String userName,
+													   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
 													   @RequestBody @Valid UserSaveRecord userSaveRecord) {
 
-		return UpdateUser(userService.findByUserName(userName), userSaveRecord);
+		return UpdateUser(userService.findByUserName(userName), ifMatch, userSaveRecord);
 	}
 
 	@Operation(summary = "Modify a user given their cpf", description = "Modify a user given their cpf")
 	@ApiResponses(value = {
 			@ApiResponse(responseCode = "200", description = "User has been modify"),
 			@ApiResponse(responseCode = "404", description = "User not found"),
+			@ApiResponse(responseCode = "412", description = "If-Match does not match the current ETag, or the user is not found"),
 			@ApiResponse(responseCode = "422", description = "Unprocessable Entity")
 	})
 	@PutMapping("/cpf/{cpf}")
 	public ResponseEntity<Object> updateUserByCpf(@PathVariable(value = "cpf") String cpf,
+												  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
 												  @RequestBody @Valid UserSaveRecord userSaveRecord) {
 
-		return UpdateUser(userService.findByCpf(cpf), userSaveRecord);
+		return UpdateUser(userService.findByCpf(cpf), ifMatch, userSaveRecord);
 	}
 
-	private ResponseEntity<Object> deleteUser(Optional<UserEntity> userEntityOptional) {
+	@Operation(summary = "Partially modify a user given its id", description = "Modify only the fields present in the document, a field sent as null is cleared")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "User has been modify"),
+			@ApiResponse(responseCode = "400", description = "The patched user is not valid"),
+			@ApiResponse(responseCode = "404", description = "User not found"),
+			@ApiResponse(responseCode = "412", description = "If-Match does not match the current ETag, or the user is not found"),
+			@ApiResponse(responseCode = "422", description = "Unprocessable Entity")
+	})
+	@PatchMapping(value = "/{id}", consumes = {MediaType.APPLICATION_JSON_VALUE, MEDIA_TYPE_MERGE_PATCH_JSON})
+	public ResponseEntity<Object> patchUserById(@PathVariable(value = "id") long id,
+												@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+												@RequestBody UserPatchRecord userPatchRecord) {
 
-		if (userEntityOptional.isEmpty()) {
-			return ResponseEntity.status(HttpStatus.NOT_FOUND).body(LEGEND_USER_NOT_FOUND);
+		return patchUser(userService.findById(id), ifMatch, userPatchRecord);
+	}
+
+	@Operation(summary = "Partially modify a user given their username", description = "Modify only the fields present in the document, a field sent as null is cleared")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "User has been modify"),
+			@ApiResponse(responseCode = "400", description = "The patched user is not valid"),
+			@ApiResponse(responseCode = "404", description = "User not found"),
+			@ApiResponse(responseCode = "412", description = "If-Match does not match the current ETag, or the user is not found"),
+			@ApiResponse(responseCode = "422", description = "Unprocessable Entity")
+	})
+	@PatchMapping(value = "/username/{username}", consumes = {MediaType.APPLICATION_JSON_VALUE, MEDIA_TYPE_MERGE_PATCH_JSON})
+	public ResponseEntity<Object> patchUserByUserName(@PathVariable(value = "username") String userName,
+													  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+													  @RequestBody UserPatchRecord userPatchRecord) {
+
+		return patchUser(userService.findByUserName(userName), ifMatch, userPatchRecord);
+	}
+
+	@Operation(summary = "Partially modify a user given their cpf", description = "Modify only the fields present in the document, a field sent as null is cleared")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "User has been modify"),
+			@ApiResponse(responseCode = "400", description = "The patched user is not valid"),
+			@ApiResponse(responseCode = "404", description = "User not found"),
+			@ApiResponse(responseCode = "412", description = "If-Match does not match the current ETag, or the user is not found"),
+			@ApiResponse(responseCode = "422", description = "Unprocessable Entity")
+	})
+	@PatchMapping(value = "/cpf/{cpf}", consumes = {MediaType.APPLICATION_JSON_VALUE, MEDIA_TYPE_MERGE_PATCH_JSON})
+	public ResponseEntity<Object> patchUserByCpf(@PathVariable(value = "cpf") String cpf,
+												 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+												 @RequestBody UserPatchRecord userPatchRecord) {
+
+		return patchUser(userService.findByCpf(cpf), ifMatch, userPatchRecord);
+	}
+
+	@ExceptionHandler(UserConflictException.class)
+	public ResponseEntity<Object> handleUserConflict(UserConflictException userConflictException) {
+		return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(userConflictException.getMessage());
+	}
+
+	@ExceptionHandler(IdempotencyKeyReusedException.class)
+	public ResponseEntity<Object> handleIdempotencyKeyReused(IdempotencyKeyReusedException idempotencyKeyReusedException) {
+		return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(idempotencyKeyReusedException.getMessage());
+	}
+
+	@ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+	public ResponseEntity<Object> handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException optimisticLockingFailureException) {
+		return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(LEGEND_USER_MODIFIED);
+	}
+
+	private ResponseEntity<Object> createUser(UserSaveRecord userSaveRecord) {
+		UserEntity userEntity = toUserEntity(userSaveRecord);
+
+		String validateNewUserLegend = userService.validateUserData(userEntity, true);
+
+		if (!validateNewUserLegend.isEmpty()) {
+			return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(validateNewUserLegend);
+		} else {
+
+			return ResponseEntity.status(HttpStatus.CREATED).body(userService.save(userEntity));
+		}
+	}
+
+	private UserChangeCursorRecord changeCursor(String since) {
+
+		if (Objects.isNull(since)) {
+			return UserChangeCursorRecord.START;
+		}
+
+		UserChangeCursorRecord cursor = UserChangeCursorRecord.decode(since)
+				.orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, LEGEND_INVALID_CURSOR));
+		if (userChangeService.isExpired(cursor)) {
+			throw new ResponseStatusException(HttpStatus.GONE, LEGEND_CURSOR_EXPIRED);
+		}
+
+		return cursor;
+	}
+
+	// Offset pages follow the primary key, so every page is stable and read through its index
+	private PageRequest offsetPage(int page, int size) {
+		return PageRequest.of(page, size, Sort.by(UserCursorRecord.ORDER_ID));
+	}
+
+	private PageRequest searchPage(int page, int size) {
+		validatePage(page, size);
+		return PageRequest.of(page, Math.min(size, Config.MAX_SEARCH_SIZE));
+	}
+
+	private void validatePage(int page, int size) {
+		if (page < 0 || size < 1) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, LEGEND_INVALID_PAGE);
+		}
+	}
+
+	private String searchTerm(String term) {
+
+		String trimmedTerm = term.trim();
+		if (trimmedTerm.length() < Config.MIN_SEARCH_LENGTH) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, LEGEND_SEARCH_TERM_TOO_SHORT);
+		}
+
+		return trimmedTerm;
+	}
+
+	private ResponseEntity<Object> userResponse(UserEntity userEntity, String ifNoneMatch, Set<String> fields) {
+
+		String eTag = eTagOf(userEntity, fields);
+		if (matchesETag(ifNoneMatch, eTag, false)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+		}
+
+		return ResponseEntity.status(HttpStatus.OK).eTag(eTag).body(withFields(userEntity, fields));
+	}
+
+	private void validateFields(Set<String> fields) {
+		if (Objects.nonNull(fields) && (fields.isEmpty() || !USER_FIELDS.containsAll(fields))) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, LEGEND_INVALID_FIELDS);
+		}
+	}
+
+	// Only a fieldset within the summary columns can be answered by the projection queries
+	private boolean isSummary(Set<String> fields) {
+		validateFields(fields);
+		return Objects.nonNull(fields) && UserSummaryRecord.covers(fields);
+	}
+
+	private Object withFields(Object body, Set<String> fields) {
+
+		if (Objects.isNull(fields)) {
+			return body;
+		}
+
+		MappingJacksonValue mappingJacksonValue = new MappingJacksonValue(body);
+		mappingJacksonValue.setFilters(new SimpleFilterProvider()
+				.addFilter(Config.USER_FIELDS_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(fields)));
+		return mappingJacksonValue;
+	}
+
+	// If-Match, even *, asks for a current version, and a missing user has none, so the precondition fails
+	private ResponseEntity<Object> userNotFound(String ifMatch) {
+
+		if (Objects.nonNull(ifMatch)) {
+			return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(LEGEND_USER_NOT_FOUND);
+		}
+
+		return ResponseEntity.status(HttpStatus.NOT_FOUND).body(LEGEND_USER_NOT_FOUND);
+	}
+
+	private boolean isPreconditionMet(UserEntity userEntity, String ifMatch) {
+		return Objects.isNull(ifMatch) || matchesETag(ifMatch, eTagOf(userEntity), true);
+	}
+
+	// Null lets any version through (no If-Match, or *); weak tags can never satisfy If-Match so they are dropped
+	private static List<String> strongETags(String ifMatch) {
+
+		if (Objects.isNull(ifMatch)) {
+			return null;
 		}
 
-		userService.delete(userEntityOptional.get());
+		List<String> eTags = new ArrayList<>();
+		for (String candidate : ifMatch.split(",")) {
+			candidate = candidate.trim();
+			if (candidate.equals("*")) {
+				return null;
+			}
+			if (!candidate.startsWith("W/")) {
+				eTags.add(candidate);
+			}
+		}
+
+		return eTags;
+	}
+
+	private static String eTagOf(UserEntity userEntity) {
+		return eTagOf(userEntity, null);
+	}
+
+	// A sparse fieldset is a different representation, so it gets its own tag
+	private static String eTagOf(UserEntity userEntity, Set<String> fields) {
+		String fieldsSuffix = Objects.isNull(fields) ? "" : "-" + fields.stream().sorted().collect(Collectors.joining("+"));
+		return "\"" + userEntity.getId() + "-" + userEntity.getVersion() + fieldsSuffix + "\"";
+	}
+
+	// If-None-Match compares weakly and If-Match strongly, so a W/ tag can only satisfy the former
+	private static boolean matchesETag(String header, String eTag, boolean strong) {
+
+		if (Objects.isNull(header)) {
+			return false;
+		}
+
+		for (String candidate : header.split(",")) {
+			candidate = candidate.trim();
+			if (candidate.equals("*")) {
+				return true;
+			}
+			if (candidate.startsWith("W/")) {
+				if (strong) {
+					continue;
+				}
+				candidate = candidate.substring(2);
+			}
+			if (candidate.equals(eTag)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private UserEntity toUserEntity(UserSaveRecord userSaveRecord) {
+		UserEntity userEntity = new UserEntity();
+		userEntity.setUserName(userSaveRecord.userName());
+		userEntity.setCpf(userSaveRecord.cpf());
+		userEntity.setFirstName(userSaveRecord.firstName());
+		userEntity.setLastName(userSaveRecord.lastName());
+		userEntity.setDateOfBirth(userSaveRecord.dateOfBirth());
+		userEntity.setEmail(userSaveRecord.email());
+
+		return userEntity;
+	}
+
+	private String validateUserSaveRecord(UserSaveRecord userSaveRecord) {
+
+		if (Objects.isNull(userSaveRecord)) {
+			return LEGEND_USER_DATA_MISSING;
+		}
+
+		Set<ConstraintViolation<UserSaveRecord>> constraintViolations = validator.validate(userSaveRecord);
+
+		return constraintViolations.stream()
+				.map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+				.sorted()
+				.collect(Collectors.joining(", "));
+	}
+
+	private ResponseEntity<Object> deleteUser(Optional<UserEntity> deletedOptional, String ifMatch) {
+
+		if (deletedOptional.isEmpty()) {
+			return userNotFound(ifMatch);
+		}
 
 		return ResponseEntity.status(HttpStatus.OK).body(LEGEND_USER_DELETED);
 	}
 
-	private ResponseEntity<Object> UpdateUser(Optional<UserEntity> userEntityOptional, UserSaveRecord userSaveRecord) {
+	private ResponseEntity<Object> UpdateUser(Optional<UserEntity> userEntityOptional, String ifMatch, UserSaveRecord userSaveRecord) {
 
 		if (userEntityOptional.isEmpty()) {
-			return ResponseEntity.status(HttpStatus.NOT_FOUND).body(LEGEND_USER_NOT_FOUND);
+			return userNotFound(ifMatch);
 		}
 
 		UserEntity userEntity = userEntityOptional.get();
+		if (!isPreconditionMet(userEntity, ifMatch)) {
+			return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(LEGEND_USER_MODIFIED);
+		}
+
 		userEntity.setCpf(userSaveRecord.cpf());
 		userEntity.setUserName(userSaveRecord.userName());
 		userEntity.setFirstName(userSaveRecord.firstName());
@@ -231,7 +835,45 @@ public class UserController {
 		if (!validateUserLegend.isEmpty()) {
 			return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(validateUserLegend);
 		} else {
-			return ResponseEntity.status(HttpStatus.OK).body(userService.save(userEntity));
+			return userResponse(userService.save(userEntity), null, null);
+		}
+	}
+
+	private ResponseEntity<Object> patchUser(Optional<UserEntity> userEntityOptional, String ifMatch, UserPatchRecord userPatchRecord) {
+
+		if (userEntityOptional.isEmpty()) {
+			return userNotFound(ifMatch);
+		}
+
+		UserEntity userEntity = userEntityOptional.get();
+		if (!isPreconditionMet(userEntity, ifMatch)) {
+			return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(LEGEND_USER_MODIFIED);
+		}
+
+		Set<String> changedFields = userPatchRecord.changedFields(userEntity);
+		if (changedFields.isEmpty()) {
+			return userResponse(userEntity, null, null);
+		}
+
+		UserSaveRecord userSaveRecord = userPatchRecord.applyTo(userEntity);
+		String constraintsLegend = validateUserSaveRecord(userSaveRecord);
+		if (!constraintsLegend.isEmpty()) {
+			return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(constraintsLegend);
+		}
+
+		userEntity.setUserName(userSaveRecord.userName());
+		userEntity.setCpf(userSaveRecord.cpf());
+		userEntity.setFirstName(userSaveRecord.firstName());
+		userEntity.setLastName(userSaveRecord.lastName());
+		userEntity.setDateOfBirth(userSaveRecord.dateOfBirth());
+		userEntity.setEmail(userSaveRecord.email());
+
+		String validateUserLegend = userService.validateChangedUserData(userEntity, changedFields);
+
+		if (!validateUserLegend.isEmpty()) {
+			return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(validateUserLegend);
+		} else {
+			return userResponse(userService.save(userEntity), null, null);
 		}
 	}
 }
@@ -0,0 +1,79 @@
+package com.portfolio.userapi.datasource;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Keeps a client on the primary for a short window after its own write, so it reads what it has just written while
+ * the replicas catch up. The window travels in a cookie, which works across instances behind a load balancer.
+ */
+public class ReadYourWritesInterceptor implements AsyncHandlerInterceptor {
+
+	public static final String COOKIE_NAME = "user-api-primary-until";
+
+	private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+	private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+	private final Duration stickyWindow;
+
+	public ReadYourWritesInterceptor(Duration stickyWindow) {
+		this.stickyWindow = stickyWindow;
+	}
+
+	public static boolean isPinnedToPrimary() {
+		return Boolean.TRUE.equals(PINNED_TO_PRIMARY.get());
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		long now = System.currentTimeMillis();
+
+		if (!SAFE_METHODS.contains(request.getMethod())) {
+			Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(now + stickyWindow.toMillis()));
+			cookie.setPath("/");
+			cookie.setHttpOnly(true);
+			cookie.setMaxAge((int) Math.max(1, stickyWindow.toSeconds()));
+			response.addCookie(cookie);
+			PINNED_TO_PRIMARY.set(true);
+		} else if (primaryUntil(request) > now) {
+			PINNED_TO_PRIMARY.set(true);
+		}
+
+		return true;
+	}
+
+	@Override
+	public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		PINNED_TO_PRIMARY.remove();
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+		PINNED_TO_PRIMARY.remove();
+	}
+
+	private static long primaryUntil(HttpServletRequest request) {
+
+		if (Objects.isNull(request.getCookies())) {
+			return 0L;
+		}
+
+		for (Cookie cookie : request.getCookies()) {
+			if (COOKIE_NAME.equals(cookie.getName())) {
+				try {
+					return Long.parseLong(cookie.getValue());
+				} catch (NumberFormatException e) {
+					return 0L;
+				}
+			}
+		}
+
+		return 0L;
+	}
+}
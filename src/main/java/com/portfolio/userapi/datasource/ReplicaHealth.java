@@ -0,0 +1,154 @@
+package com.portfolio.userapi.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks every replica on a fixed delay and keeps the ones that answer with a replay lag under the limit. When none
+ * qualifies reads stay on the primary. It schedules itself because the datasource needs it before any scheduler.
+ * The replica pools are created for it rather than as beans, so closing it closes them too.
+ */
+public class ReplicaHealth implements HealthIndicator, MeterBinder, AutoCloseable {
+	private static final Logger log = LoggerFactory.getLogger(ReplicaHealth.class);
+
+	// A standby that replayed everything it received is current even if the primary has been idle for a while
+	private static final String LAG_QUERY = "select case when not pg_is_in_recovery() " +
+			"or pg_last_wal_receive_lsn() <= pg_last_wal_replay_lsn() then 0 " +
+			"else extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000 end";
+	private static final long UNREACHABLE = -1L;
+
+	private final Map<String, DataSource> replicas;
+	private final Duration maxLag;
+	private final Map<String, Long> lagMillis = new ConcurrentHashMap<>();
+	private final AtomicInteger next = new AtomicInteger();
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+			Thread.ofPlatform().name("replica-health").daemon().factory());
+	private volatile List<String> healthyReplicas = List.of();
+
+	public ReplicaHealth(Map<String, DataSource> replicas, Duration maxLag, Duration interval) {
+		this.replicas = new LinkedHashMap<>(replicas);
+		this.maxLag = maxLag;
+		replicas.keySet().forEach(name -> lagMillis.put(name, UNREACHABLE));
+		check();
+		scheduler.scheduleWithFixedDelay(this::check, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	public Map<String, DataSource> dataSources() {
+		return replicas;
+	}
+
+	public Optional<String> nextHealthyReplica() {
+		List<String> candidates = healthyReplicas;
+
+		if (candidates.isEmpty()) {
+			return Optional.empty();
+		}
+
+		return Optional.of(candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size())));
+	}
+
+	public void check() {
+		for (Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+			lagMillis.put(replica.getKey(), lagOf(replica.getKey(), replica.getValue()));
+		}
+
+		updateHealthyReplicas();
+	}
+
+	// Called by reads that failed to get a connection, so the replica leaves rotation before the next check
+	public void markUnreachable(String name, SQLException e) {
+		log.warn("Replica unreachable, reading from the primary -> replica:{} error:{}", name, e.getMessage());
+		lagMillis.put(name, UNREACHABLE);
+		updateHealthyReplicas();
+	}
+
+	@Override
+	public void close() {
+		scheduler.shutdownNow();
+		for (Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+			if (replica.getValue() instanceof AutoCloseable closeable) {
+				try {
+					closeable.close();
+				} catch (Exception e) {
+					log.warn("Replica pool did not close -> replica:{} error:{}", replica.getKey(), e.getMessage());
+				}
+			}
+		}
+	}
+
+	@Override
+	public Health health() {
+		Health.Builder builder = Health.up().withDetail("maxLagMillis", maxLag.toMillis());
+		replicas.keySet().forEach(name -> builder.withDetail(name, Map.of(
+				"status", statusOf(lagMillis.get(name)),
+				"lagMillis", lagMillis.get(name))));
+
+		return builder.build();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry meterRegistry) {
+		for (String name : replicas.keySet()) {
+			Gauge.builder("user.datasource.replica.lag", lagMillis, lags -> lags.get(name) == UNREACHABLE ? -1 : lags.get(name) / 1000.0)
+					.description("Replay lag of the replica, -1 when it cannot be reached")
+					.baseUnit("seconds")
+					.tag("replica", name)
+					.register(meterRegistry);
+			Gauge.builder("user.datasource.replica.healthy", this, health -> health.healthyReplicas.contains(name) ? 1 : 0)
+					.description("Whether the replica currently receives reads")
+					.tag("replica", name)
+					.register(meterRegistry);
+		}
+	}
+
+	private long lagOf(String name, DataSource dataSource) {
+		try (Connection connection = dataSource.getConnection();
+			 Statement statement = connection.createStatement();
+			 ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+			resultSet.next();
+			return Math.round(resultSet.getDouble(1));
+		} catch (SQLException e) {
+			log.warn("Replica unreachable -> replica:{} error:{}", name, e.getMessage());
+			return UNREACHABLE;
+		}
+	}
+
+	private synchronized void updateHealthyReplicas() {
+		healthyReplicas = replicas.keySet().stream()
+				.filter(name -> isHealthy(lagMillis.get(name)))
+				.toList();
+	}
+
+	private boolean isHealthy(long lag) {
+		return lag != UNREACHABLE && lag <= maxLag.toMillis();
+	}
+
+	private String statusOf(long lag) {
+		if (lag == UNREACHABLE) {
+			return "DOWN";
+		}
+
+		return isHealthy(lag) ? "UP" : "LAGGING";
+	}
+}
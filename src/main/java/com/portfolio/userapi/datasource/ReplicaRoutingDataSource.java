@@ -0,0 +1,59 @@
+package com.portfolio.userapi.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to a healthy replica and everything else to the primary. It has to sit behind a
+ * LazyConnectionDataSourceProxy, since the read-only flag is only known after the transaction asked for a connection.
+ * A replica that cannot hand out a connection is taken out of rotation and the read falls back to the primary.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+	public static final String PRIMARY = "primary";
+
+	private final DataSource primaryDataSource;
+	private final ReplicaHealth replicaHealth;
+
+	public ReplicaRoutingDataSource(DataSource primaryDataSource, ReplicaHealth replicaHealth) {
+		this.primaryDataSource = primaryDataSource;
+		this.replicaHealth = replicaHealth;
+
+		Map<Object, Object> targetDataSources = new HashMap<>(replicaHealth.dataSources());
+		targetDataSources.put(PRIMARY, primaryDataSource);
+		setTargetDataSources(targetDataSources);
+		setDefaultTargetDataSource(primaryDataSource);
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		Object lookupKey = determineCurrentLookupKey();
+
+		if (PRIMARY.equals(lookupKey)) {
+			return primaryDataSource.getConnection();
+		}
+
+		try {
+			return replicaHealth.dataSources().get(lookupKey).getConnection();
+		} catch (SQLException e) {
+			replicaHealth.markUnreachable((String) lookupKey, e);
+			return primaryDataSource.getConnection();
+		}
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReadYourWritesInterceptor.isPinnedToPrimary()) {
+			return PRIMARY;
+		}
+
+		return replicaHealth.nextHealthyReplica().orElse(PRIMARY);
+	}
+}
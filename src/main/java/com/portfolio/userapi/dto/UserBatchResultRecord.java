@@ -0,0 +1,7 @@
+package com.portfolio.userapi.dto;
+
+public record UserBatchResultRecord(int position,
+									int status,
+									String legend,
+									Long id) {
+}
@@ -0,0 +1,7 @@
+package com.portfolio.userapi.dto;
+
+public record UserCacheStatsRecord(long hits,
+								   long misses,
+								   long evictions,
+								   long size) {
+}
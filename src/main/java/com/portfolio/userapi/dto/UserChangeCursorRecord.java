@@ -0,0 +1,42 @@
+package com.portfolio.userapi.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Optional;
+
+public record UserChangeCursorRecord(LocalDateTime changedAt,
+									 long id) implements Comparable<UserChangeCursorRecord> {
+
+	public static final UserChangeCursorRecord START = new UserChangeCursorRecord(LocalDateTime.of(1970, 1, 1, 0, 0), 0L);
+
+	private static final String SEPARATOR = "|";
+	private static final Comparator<UserChangeCursorRecord> ORDER =
+			Comparator.comparing(UserChangeCursorRecord::changedAt).thenComparingLong(UserChangeCursorRecord::id);
+
+	public static Optional<UserChangeCursorRecord> decode(String token) {
+		try {
+			String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\" + SEPARATOR);
+			if (parts.length == 2) {
+				return Optional.of(new UserChangeCursorRecord(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1])));
+			}
+		} catch (IllegalArgumentException | DateTimeParseException e) {
+			return Optional.empty();
+		}
+
+		return Optional.empty();
+	}
+
+	public String encode() {
+		String value = changedAt + SEPARATOR + id;
+
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Override
+	public int compareTo(UserChangeCursorRecord other) {
+		return ORDER.compare(this, other);
+	}
+}
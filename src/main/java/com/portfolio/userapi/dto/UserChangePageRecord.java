@@ -0,0 +1,7 @@
+package com.portfolio.userapi.dto;
+
+import java.util.List;
+
+public record UserChangePageRecord(List<UserChangeRecord> changes,
+								   String nextCursor) {
+}
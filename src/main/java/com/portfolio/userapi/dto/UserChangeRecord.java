@@ -0,0 +1,35 @@
+package com.portfolio.userapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.portfolio.userapi.entity.UserEntity;
+import com.portfolio.userapi.entity.UserTombstoneEntity;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the change feed: the current state of a created or updated user, or a tombstone once it is deleted.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserChangeRecord(long id,
+							   boolean deleted,
+							   LocalDateTime changedAt,
+							   UserEntity user) {
+
+	public static UserChangeRecord of(UserEntity userEntity) {
+		return new UserChangeRecord(userEntity.getId(), false, userEntity.getUpdateDate(), userEntity);
+	}
+
+	public static UserChangeRecord of(UserTombstoneEntity userTombstoneEntity) {
+		return new UserChangeRecord(userTombstoneEntity.getUserId(), true, userTombstoneEntity.getDeletedAt(), null);
+	}
+
+	public static UserChangeRecord tombstone(long id, LocalDateTime deletedAt) {
+		return new UserChangeRecord(id, true, deletedAt, null);
+	}
+
+	@JsonIgnore
+	public UserChangeCursorRecord cursor() {
+		return new UserChangeCursorRecord(changedAt, id);
+	}
+}
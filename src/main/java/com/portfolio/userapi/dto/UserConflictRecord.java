@@ -0,0 +1,22 @@
+package com.portfolio.userapi.dto;
+
+public record UserConflictRecord(long userNameConflicts,
+								 long cpfConflicts,
+								 long emailConflicts) {
+
+	public static UserConflictRecord of(boolean userNameTaken, boolean cpfTaken, boolean emailTaken) {
+		return new UserConflictRecord(userNameTaken ? 1 : 0, cpfTaken ? 1 : 0, emailTaken ? 1 : 0);
+	}
+
+	public boolean userNameTaken() {
+		return userNameConflicts > 0;
+	}
+
+	public boolean cpfTaken() {
+		return cpfConflicts > 0;
+	}
+
+	public boolean emailTaken() {
+		return emailConflicts > 0;
+	}
+}
@@ -0,0 +1,55 @@
+package com.portfolio.userapi.dto;
+
+import com.portfolio.userapi.entity.UserEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Optional;
+
+public record UserCursorRecord(String order,
+							   LocalDateTime creationDate,
+							   long id) {
+
+	public static final String ORDER_ID = "id";
+	public static final String ORDER_CREATION_DATE = "creationDate";
+
+	private static final String SEPARATOR = "|";
+
+	public static boolean isValidOrder(String order) {
+		return ORDER_ID.equals(order) || ORDER_CREATION_DATE.equals(order);
+	}
+
+	public static UserCursorRecord of(UserEntity userEntity, String order) {
+		return new UserCursorRecord(order, ORDER_ID.equals(order) ? null : userEntity.getCreationDate(), userEntity.getId());
+	}
+
+	public static UserCursorRecord of(UserSummaryRecord userSummaryRecord) {
+		return new UserCursorRecord(ORDER_ID, null, userSummaryRecord.id());
+	}
+
+	public static Optional<UserCursorRecord> decode(String token) {
+		try {
+			String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\" + SEPARATOR);
+			if (parts.length == 2 && ORDER_ID.equals(parts[0])) {
+				return Optional.of(new UserCursorRecord(ORDER_ID, null, Long.parseLong(parts[1])));
+			}
+			if (parts.length == 3 && ORDER_CREATION_DATE.equals(parts[0])) {
+				return Optional.of(new UserCursorRecord(ORDER_CREATION_DATE, LocalDateTime.parse(parts[1]), Long.parseLong(parts[2])));
+			}
+		} catch (IllegalArgumentException | DateTimeParseException e) {
+			return Optional.empty();
+		}
+
+		return Optional.empty();
+	}
+
+	public String encode() {
+		String value = ORDER_ID.equals(order)
+				? order + SEPARATOR + id
+				: order + SEPARATOR + creationDate + SEPARATOR + id;
+
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+	}
+}
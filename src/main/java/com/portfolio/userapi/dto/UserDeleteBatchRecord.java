@@ -0,0 +1,19 @@
+package com.portfolio.userapi.dto;
+
+import java.util.List;
+import java.util.Objects;
+
+public record UserDeleteBatchRecord(List<Long> ids,
+									List<String> userNames,
+									List<String> cpfs) {
+
+	public UserDeleteBatchRecord {
+		ids = Objects.isNull(ids) ? List.of() : ids;
+		userNames = Objects.isNull(userNames) ? List.of() : userNames;
+		cpfs = Objects.isNull(cpfs) ? List.of() : cpfs;
+	}
+
+	public int size() {
+		return ids.size() + userNames.size() + cpfs.size();
+	}
+}
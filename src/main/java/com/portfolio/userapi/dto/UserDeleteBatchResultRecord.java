@@ -0,0 +1,9 @@
+package com.portfolio.userapi.dto;
+
+import java.util.List;
+
+public record UserDeleteBatchResultRecord(int deleted,
+										  List<Long> notFoundIds,
+										  List<String> notFoundUserNames,
+										  List<String> notFoundCpfs) {
+}
@@ -0,0 +1,19 @@
+package com.portfolio.userapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.portfolio.userapi.entity.UserEntity;
+
+import java.util.Objects;
+
+/**
+ * The answer for one requested key of a lookup: the user when found, or only the key with found false.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserLookupItemRecord<K>(K key,
+									  boolean found,
+									  UserEntity user) {
+
+	public static <K> UserLookupItemRecord<K> of(K key, UserEntity userEntity) {
+		return new UserLookupItemRecord<>(key, Objects.nonNull(userEntity), userEntity);
+	}
+}
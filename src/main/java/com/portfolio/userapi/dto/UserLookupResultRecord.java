@@ -0,0 +1,11 @@
+package com.portfolio.userapi.dto;
+
+import java.util.List;
+
+/**
+ * Lookup answers per key type, each list in the same order as the keys were requested.
+ */
+public record UserLookupResultRecord(List<UserLookupItemRecord<Long>> ids,
+									 List<UserLookupItemRecord<String>> userNames,
+									 List<UserLookupItemRecord<String>> cpfs) {
+}
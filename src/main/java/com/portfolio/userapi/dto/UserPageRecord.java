@@ -1,11 +1,13 @@
 package com.portfolio.userapi.dto;
 
-import com.portfolio.userapi.entity.UserEntity;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import java.util.List;
 
-public record UserPageRecord(int actualPage,
-							 long totalRecords,
-							 int totalPages,
-							 List<UserEntity> userList) {
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserPageRecord(Integer actualPage,
+							 Long totalRecords,
+							 Integer totalPages,
+							 String nextCursor,
+							 List<?> userList) {
 }
@@ -0,0 +1,76 @@
+package com.portfolio.userapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.portfolio.userapi.config.Config;
+import com.portfolio.userapi.entity.UserEntity;
+import org.openapitools.jackson.nullable.JsonNullable;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A partial user document: a field left out of the JSON stays {@link JsonNullable#undefined()} and is not touched,
+ * a field sent as {@code null} is cleared.
+ */
+public record UserPatchRecord(JsonNullable<String> userName,
+							  JsonNullable<String> cpf,
+							  JsonNullable<String> firstName,
+							  JsonNullable<String> lastName,
+							  @JsonFormat(shape = JsonFormat.Shape.STRING,
+									  pattern = Config.DATE_FORMAT,
+									  locale = Config.LOCALIZATION,
+									  timezone = Config.TIME_ZONE)
+							  JsonNullable<LocalDate> dateOfBirth,
+							  JsonNullable<String> email) {
+
+	public static final String FIELD_USER_NAME = "userName";
+	public static final String FIELD_CPF = "cpf";
+	public static final String FIELD_FIRST_NAME = "firstName";
+	public static final String FIELD_LAST_NAME = "lastName";
+	public static final String FIELD_DATE_OF_BIRTH = "dateOfBirth";
+	public static final String FIELD_EMAIL = "email";
+
+	public UserPatchRecord {
+		userName = Objects.requireNonNullElse(userName, JsonNullable.undefined());
+		cpf = Objects.requireNonNullElse(cpf, JsonNullable.undefined());
+		firstName = Objects.requireNonNullElse(firstName, JsonNullable.undefined());
+		lastName = Objects.requireNonNullElse(lastName, JsonNullable.undefined());
+		dateOfBirth = Objects.requireNonNullElse(dateOfBirth, JsonNullable.undefined());
+		email = Objects.requireNonNullElse(email, JsonNullable.undefined());
+	}
+
+	/**
+	 * The full document that results from applying this patch to {@code userEntity}, so it can be checked with the
+	 * same constraints as a PUT.
+	 */
+	public UserSaveRecord applyTo(UserEntity userEntity) {
+		return new UserSaveRecord(userName.orElse(userEntity.getUserName()),
+				cpf.orElse(userEntity.getCpf()),
+				firstName.orElse(userEntity.getFirstName()),
+				lastName.orElse(userEntity.getLastName()),
+				dateOfBirth.orElse(userEntity.getDateOfBirth()),
+				email.orElse(userEntity.getEmail()));
+	}
+
+	/**
+	 * Names of the fields that are present in this patch and hold a value different from {@code userEntity}'s.
+	 */
+	public Set<String> changedFields(UserEntity userEntity) {
+		Set<String> changedFields = new HashSet<>();
+		addIfChanged(changedFields, FIELD_USER_NAME, userName, userEntity.getUserName());
+		addIfChanged(changedFields, FIELD_CPF, cpf, userEntity.getCpf());
+		addIfChanged(changedFields, FIELD_FIRST_NAME, firstName, userEntity.getFirstName());
+		addIfChanged(changedFields, FIELD_LAST_NAME, lastName, userEntity.getLastName());
+		addIfChanged(changedFields, FIELD_DATE_OF_BIRTH, dateOfBirth, userEntity.getDateOfBirth());
+		addIfChanged(changedFields, FIELD_EMAIL, email, userEntity.getEmail());
+		return changedFields;
+	}
+
+	private static <T> void addIfChanged(Set<String> changedFields, String field, JsonNullable<T> value, T currentValue) {
+		if (value.isPresent() && !Objects.equals(value.get(), currentValue)) {
+			changedFields.add(field);
+		}
+	}
+}
@@ -2,12 +2,12 @@ package com.portfolio.userapi.dto;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.portfolio.userapi.config.Config;
+import com.portfolio.userapi.validation.ValidEmail;
 import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import org.springframework.lang.Nullable;
 
@@ -33,6 +33,7 @@ public record UserSaveRecord(@NotBlank
 									 timezone = Config.TIME_ZONE)
 							 LocalDate dateOfBirth,
 							 @Nullable
-							 @Email(regexp = Config.EMAIL_REGEXP_FORMAT, flags = Pattern.Flag.CASE_INSENSITIVE)
+							 @Email
+							 @ValidEmail(ignoreCase = true)
 							 String email) {
 }
@@ -0,0 +1,23 @@
+package com.portfolio.userapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.portfolio.userapi.config.Config;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * The columns most callers need from a user, selected without loading a managed {@code UserEntity}.
+ */
+@JsonFilter(Config.USER_FIELDS_FILTER)
+public record UserSummaryRecord(Long id,
+								String userName,
+								String firstName,
+								String lastName) {
+
+	public static final Set<String> FIELDS = Set.of("id", "userName", "firstName", "lastName");
+
+	public static boolean covers(Collection<String> fields) {
+		return FIELDS.containsAll(fields);
+	}
+}
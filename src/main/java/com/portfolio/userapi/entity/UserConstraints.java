@@ -0,0 +1,12 @@
+package com.portfolio.userapi.entity;
+
+/**
+ * Names of the unique constraints on tb_user. V1 created the user_name and cpf ones with the names Hibernate
+ * generated while it still owned the schema, and V5 added the case-insensitive email index. They are kept here so
+ * the mapping and every duplicate-key translation refer to the same ones.
+ */
+public class UserConstraints {
+	public static final String USER_NAME = "ukdx61ph83p21e9y80scx92i39p";
+	public static final String CPF = "uk869sa3rebuf3nm0d4jwxdtouk";
+	public static final String EMAIL = "uk_tb_user_email_lower";
+}
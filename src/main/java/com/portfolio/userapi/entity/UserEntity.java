@@ -1,6 +1,7 @@
 package com.portfolio.userapi.entity;
 
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.portfolio.userapi.config.Config;
 import jakarta.persistence.Column;
@@ -8,9 +9,13 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import lombok.Data;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.io.Serial;
@@ -20,20 +25,26 @@ import java.time.LocalDateTime;
 
 @Entity
 @Data
-@Table(name = "tb_user")
+@DynamicUpdate
+@JsonFilter(Config.USER_FIELDS_FILTER)
+@Table(name = "tb_user", uniqueConstraints = {
+		@UniqueConstraint(name = UserConstraints.USER_NAME, columnNames = "user_name"),
+		@UniqueConstraint(name = UserConstraints.CPF, columnNames = "cpf")
+})
 public class UserEntity implements Serializable {
 
 	@Serial
 	private static final long serialVersionUID = 1L;
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.SEQUENCE)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tb_user_seq")
+	@SequenceGenerator(name = "tb_user_seq", sequenceName = "tb_user_seq", allocationSize = 50)
 	private Long id;
 
-	@Column(nullable = false, unique = true, length = 20)
+	@Column(nullable = false, length = 20)
 	private String userName;
 
-	@Column(nullable = false, unique = true, length = 11)
+	@Column(nullable = false, length = 11)
 	private String cpf;
 
 	@Column(nullable = false, length = 100)
@@ -49,17 +60,22 @@ public class UserEntity implements Serializable {
 			timezone = Config.TIME_ZONE)
 	private LocalDate dateOfBirth;
 
+	// Unique by lower(email) through the V5 index, which a column-level constraint cannot express
 	@Column(length = 50)
 	private String email;
 
-	@Column
+	@Column(nullable = false)
 	@CreationTimestamp
 	private LocalDateTime creationDate;
 
-	@Column
+	@Column(nullable = false)
 	@UpdateTimestamp
 	private LocalDateTime updateDate;
 
+	@Version
+	@Column(nullable = false, columnDefinition = "bigint default 0")
+	private Long version;
+
 	public UserEntity() {
 	}
 
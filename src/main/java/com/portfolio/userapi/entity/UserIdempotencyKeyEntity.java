@@ -0,0 +1,39 @@
+package com.portfolio.userapi.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@Table(name = "tb_user_idempotency_key")
+public class UserIdempotencyKeyEntity implements Serializable {
+
+	@Serial
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	private String idempotencyKey;
+
+	@Column(nullable = false, length = 64)
+	private String requestHash;
+
+	@Column(nullable = false)
+	private int responseStatus;
+
+	@Column(nullable = false, columnDefinition = "text")
+	private String responseBody;
+
+	@Column(nullable = false)
+	private LocalDateTime createdAt;
+
+	public UserIdempotencyKeyEntity() {
+	}
+
+}
@@ -0,0 +1,30 @@
+package com.portfolio.userapi.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@Table(name = "tb_user_tombstone")
+public class UserTombstoneEntity implements Serializable {
+
+	@Serial
+	private static final long serialVersionUID = 1L;
+
+	@Id
+	private Long userId;
+
+	@Column(nullable = false)
+	private LocalDateTime deletedAt;
+
+	public UserTombstoneEntity() {
+	}
+
+}
@@ -0,0 +1,13 @@
+package com.portfolio.userapi.exception;
+
+import java.io.Serial;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+	@Serial
+	private static final long serialVersionUID = 1L;
+
+	public IdempotencyKeyReusedException(String legend) {
+		super(legend);
+	}
+}
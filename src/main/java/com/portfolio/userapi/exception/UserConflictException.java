@@ -0,0 +1,13 @@
+package com.portfolio.userapi.exception;
+
+import java.io.Serial;
+
+public class UserConflictException extends RuntimeException {
+
+	@Serial
+	private static final long serialVersionUID = 1L;
+
+	public UserConflictException(String legend, Throwable cause) {
+		super(legend, cause);
+	}
+}
@@ -0,0 +1,39 @@
+package com.portfolio.userapi.logging;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.util.Objects;
+
+/**
+ * Remembers which repository method the current thread is running, so a slow statement can name its caller.
+ */
+public class RepositoryCallTracker implements MethodInterceptor {
+
+	private static final ThreadLocal<String> currentCall = new ThreadLocal<>();
+
+	private final String repositoryName;
+
+	public RepositoryCallTracker(Class<?> repositoryInterface) {
+		this.repositoryName = repositoryInterface.getSimpleName();
+	}
+
+	public static String currentCall() {
+		return currentCall.get();
+	}
+
+	@Override
+	public Object invoke(MethodInvocation invocation) throws Throwable {
+		String outerCall = currentCall.get();
+		currentCall.set(repositoryName + "." + invocation.getMethod().getName());
+		try {
+			return invocation.proceed();
+		} finally {
+			if (Objects.isNull(outerCall)) {
+				currentCall.remove();
+			} else {
+				currentCall.set(outerCall);
+			}
+		}
+	}
+}
@@ -0,0 +1,44 @@
+package com.portfolio.userapi.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Puts the request id in the MDC so every log line of the request, slow queries included, carries it. The id
+ * comes from the caller's {@code X-Request-Id} when it looks like an id, otherwise a new one is generated, and it
+ * is echoed back in the response.
+ */
+public class RequestIdFilter extends OncePerRequestFilter {
+
+	public static final String HEADER = "X-Request-Id";
+	public static final String MDC_KEY = "requestId";
+
+	private static final Pattern VALID_REQUEST_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+
+		String requestId = request.getHeader(HEADER);
+		if (Objects.isNull(requestId) || !VALID_REQUEST_ID.matcher(requestId).matches()) {
+			requestId = UUID.randomUUID().toString();
+		}
+
+		MDC.put(MDC_KEY, requestId);
+		response.setHeader(HEADER, requestId);
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			MDC.remove(MDC_KEY);
+		}
+	}
+}
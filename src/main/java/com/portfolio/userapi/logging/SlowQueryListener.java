@@ -0,0 +1,185 @@
+package com.portfolio.userapi.logging;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Logs the statements that run longer than the threshold, with their duration, row count, bind values, the
+ * repository method that ran them and the request id. Faster statements only cost a comparison. A slow query is
+ * logged when its result set is closed, so the row count is the number of rows that were actually read.
+ */
+public class SlowQueryListener implements QueryExecutionListener, MethodExecutionListener {
+	private static final Logger log = LoggerFactory.getLogger(SlowQueryListener.class);
+
+	private static final String UNKNOWN = "?";
+
+	private final long thresholdMillis;
+	private final double sampleRate;
+	private final boolean logParameters;
+
+	private final ThreadLocal<Map<ResultSet, SlowQuery>> openResultSets = new ThreadLocal<>();
+
+	public SlowQueryListener(Duration threshold, double sampleRate, boolean logParameters) {
+		this.thresholdMillis = threshold.toMillis();
+		this.sampleRate = sampleRate;
+		this.logParameters = logParameters;
+	}
+
+	@Override
+	public void beforeQuery(ExecutionInfo executionInfo, List<QueryInfo> queryInfoList) {
+	}
+
+	@Override
+	public void afterQuery(ExecutionInfo executionInfo, List<QueryInfo> queryInfoList) {
+
+		if (executionInfo.getElapsedTime() < thresholdMillis || !sampled()) {
+			return;
+		}
+
+		SlowQuery slowQuery = new SlowQuery(executionInfo.getElapsedTime(), RepositoryCallTracker.currentCall(),
+				MDC.get(RequestIdFilter.MDC_KEY), sql(queryInfoList), parameters(queryInfoList));
+
+		// The statement returns the result set proxy, while its method calls report the result set behind it
+		if (executionInfo.getResult() instanceof ProxyJdbcObject proxy && proxy.getTarget() instanceof ResultSet resultSet) {
+			Map<ResultSet, SlowQuery> slowQueries = openResultSets.get();
+			if (Objects.isNull(slowQueries)) {
+				slowQueries = new IdentityHashMap<>();
+				openResultSets.set(slowQueries);
+			}
+			slowQueries.put(resultSet, slowQuery);
+			return;
+		}
+
+		log(slowQuery, rowsOf(executionInfo.getResult()));
+	}
+
+	@Override
+	public void beforeMethod(MethodExecutionContext executionContext) {
+	}
+
+	@Override
+	public void afterMethod(MethodExecutionContext executionContext) {
+
+		Map<ResultSet, SlowQuery> slowQueries = openResultSets.get();
+		if (Objects.isNull(slowQueries) || !(executionContext.getTarget() instanceof ResultSet resultSet)) {
+			return;
+		}
+
+		SlowQuery slowQuery = slowQueries.get(resultSet);
+		if (Objects.isNull(slowQuery)) {
+			return;
+		}
+
+		switch (executionContext.getMethod().getName()) {
+			case "next" -> {
+				if (Boolean.TRUE.equals(executionContext.getResult())) {
+					slowQuery.rows++;
+				}
+			}
+			case "close" -> {
+				slowQueries.remove(resultSet);
+				if (slowQueries.isEmpty()) {
+					openResultSets.remove();
+				}
+				log(slowQuery, String.valueOf(slowQuery.rows));
+			}
+			default -> {
+			}
+		}
+	}
+
+	private boolean sampled() {
+		return sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+	}
+
+	private void log(SlowQuery slowQuery, String rows) {
+		log.warn("Slow query -> duration:{}ms rows:{} repository:{} requestId:{} sql:{} parameters:{}",
+				slowQuery.elapsedMillis, rows, slowQuery.repositoryCall, slowQuery.requestId, slowQuery.sql, slowQuery.parameters);
+	}
+
+	private static String sql(List<QueryInfo> queryInfoList) {
+		return queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+	}
+
+	private String parameters(List<QueryInfo> queryInfoList) {
+
+		if (!logParameters) {
+			return "hidden";
+		}
+
+		// A batch logs the values of its first statement and how many more it ran
+		for (QueryInfo queryInfo : queryInfoList) {
+			List<List<ParameterSetOperation>> parametersList = queryInfo.getParametersList();
+			if (!parametersList.isEmpty()) {
+				String values = parametersList.get(0).stream()
+						.sorted(Comparator.comparingInt(parameter -> parameter.getArgs()[0] instanceof Integer index ? index : 0))
+						.map(SlowQueryListener::valueOf)
+						.collect(Collectors.joining(", ", "[", "]"));
+				return parametersList.size() == 1 ? values : values + " and " + (parametersList.size() - 1) + " more";
+			}
+		}
+
+		return "[]";
+	}
+
+	private static String valueOf(ParameterSetOperation parameter) {
+
+		if (ParameterSetOperation.isSetNullParameterOperation(parameter) || parameter.getArgs().length < 2) {
+			return "null";
+		}
+
+		Object value = parameter.getArgs()[1];
+		return value instanceof Object[] values ? Arrays.toString(values) : String.valueOf(value);
+	}
+
+	private static String rowsOf(Object result) {
+
+		if (result instanceof Number count) {
+			return String.valueOf(count.longValue());
+		}
+		if (result instanceof int[] counts) {
+			return String.valueOf(Arrays.stream(counts).asLongStream().sum());
+		}
+		if (result instanceof long[] counts) {
+			return String.valueOf(Arrays.stream(counts).sum());
+		}
+
+		return UNKNOWN;
+	}
+
+	private static final class SlowQuery {
+		private final long elapsedMillis;
+		private final String repositoryCall;
+		private final String requestId;
+		private final String sql;
+		private final String parameters;
+		private long rows;
+
+		private SlowQuery(long elapsedMillis, String repositoryCall, String requestId, String sql, String parameters) {
+			this.elapsedMillis = elapsedMillis;
+			this.repositoryCall = repositoryCall;
+			this.requestId = requestId;
+			this.sql = sql;
+			this.parameters = parameters;
+		}
+	}
+}
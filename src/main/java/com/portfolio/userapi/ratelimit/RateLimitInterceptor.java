@@ -0,0 +1,141 @@
+package com.portfolio.userapi.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rejects a call with 429 when its client is over the endpoint's rate, and with 503 when the API already has
+ * {@code maxConcurrentRequests} calls in progress, so a burst is refused at the door instead of queueing for
+ * database connections. Streaming responses give their slot back once the response is handed to the async thread.
+ * Clients are told apart by API key only when the key is one of {@code apiKeys}, and by address otherwise.
+ */
+public class RateLimitInterceptor implements AsyncHandlerInterceptor {
+
+	public static final String DECISIONS_COUNTER = "user.rate_limit.decisions";
+	public static final String IN_FLIGHT_GAUGE = "user.rate_limit.in_flight";
+	public static final String DECISION_ALLOWED = "allowed";
+	public static final String DECISION_LIMITED = "limited";
+	public static final String DECISION_SHED = "shed";
+
+	private final static String LEGEND_TOO_MANY_REQUESTS = "Too many requests, retry later";
+	private final static String LEGEND_OVERLOADED = "The service is overloaded, retry later";
+	private final static long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+	private final static String IN_FLIGHT_ATTRIBUTE = RateLimitInterceptor.class.getName() + ".inFlight";
+
+	private final RateLimiter rateLimiter;
+	private final String clientHeader;
+	private final Set<String> apiKeys;
+	private final Semaphore inFlight;
+	private final MeterRegistry meterRegistry;
+	private final Map<String, Decisions> decisionsByEndpoint = new ConcurrentHashMap<>();
+
+	public RateLimitInterceptor(RateLimiter rateLimiter, String clientHeader, Set<String> apiKeys, int maxConcurrentRequests,
+								MeterRegistry meterRegistry) {
+		this.rateLimiter = rateLimiter;
+		this.clientHeader = clientHeader;
+		this.apiKeys = apiKeys;
+		this.inFlight = new Semaphore(maxConcurrentRequests);
+		this.meterRegistry = meterRegistry;
+		Gauge.builder(IN_FLIGHT_GAUGE, () -> maxConcurrentRequests - inFlight.availablePermits())
+				.description("UserController calls in progress")
+				.register(meterRegistry);
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+
+		// The async dispatch of a streaming response was already let in by the original request
+		if (request.getDispatcherType() == DispatcherType.ASYNC || !(handler instanceof HandlerMethod handlerMethod)) {
+			return true;
+		}
+
+		String endpoint = handlerMethod.getMethod().getName();
+		Decisions decisions = decisionsByEndpoint.computeIfAbsent(endpoint, this::decisions);
+
+		long wait = rateLimiter.tryAcquire(endpoint, clientOf(request), System.nanoTime());
+		if (wait > 0) {
+			decisions.limited().increment();
+			// Retry-After is in whole seconds, rounded up so a retry at that time finds a token
+			reject(response, HttpStatus.TOO_MANY_REQUESTS, (wait + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND, LEGEND_TOO_MANY_REQUESTS);
+			return false;
+		}
+
+		if (!inFlight.tryAcquire()) {
+			decisions.shed().increment();
+			reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1L, LEGEND_OVERLOADED);
+			return false;
+		}
+
+		request.setAttribute(IN_FLIGHT_ATTRIBUTE, Boolean.TRUE);
+		decisions.allowed().increment();
+		return true;
+	}
+
+	@Override
+	public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		release(request);
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+		release(request);
+	}
+
+	private void release(HttpServletRequest request) {
+		if (Objects.nonNull(request.getAttribute(IN_FLIGHT_ATTRIBUTE))) {
+			request.removeAttribute(IN_FLIGHT_ATTRIBUTE);
+			inFlight.release();
+		}
+	}
+
+	// Callers that send a known API key are limited per key, anyone else per address: trusting any key would hand a
+	// full bucket to every made-up one
+	private String clientOf(HttpServletRequest request) {
+		String apiKey = request.getHeader(clientHeader);
+		return Objects.nonNull(apiKey) && apiKeys.contains(apiKey) ? "key:" + apiKey : "ip:" + request.getRemoteAddr();
+	}
+
+	private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds, String legend)
+			throws IOException {
+		response.setStatus(status.value());
+		response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+		response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+		response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+		response.getWriter().write(legend);
+	}
+
+	private Decisions decisions(String endpoint) {
+		return new Decisions(decisionCounter(endpoint, DECISION_ALLOWED),
+				decisionCounter(endpoint, DECISION_LIMITED),
+				decisionCounter(endpoint, DECISION_SHED));
+	}
+
+	private Counter decisionCounter(String endpoint, String decision) {
+		return Counter.builder(DECISIONS_COUNTER)
+				.description("Calls let in, rate limited or shed, per UserController endpoint")
+				.tag("endpoint", endpoint)
+				.tag("decision", decision)
+				.register(meterRegistry);
+	}
+
+	private record Decisions(Counter allowed, Counter limited, Counter shed) {
+	}
+}
@@ -0,0 +1,49 @@
+package com.portfolio.userapi.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.portfolio.userapi.config.RateLimitProperties;
+
+import java.util.Objects;
+
+/**
+ * One token bucket per client and endpoint, with the limits of {@link RateLimitProperties}. The buckets live in a
+ * bounded Caffeine cache, whose striped buffers keep the lookups from contending. An idle bucket refills completely,
+ * so dropping it after a while of inactivity loses nothing.
+ */
+public class RateLimiter {
+
+	private final RateLimitProperties rateLimitProperties;
+	private final Cache<BucketKey, TokenBucket> buckets;
+
+	public RateLimiter(RateLimitProperties rateLimitProperties) {
+		this.rateLimitProperties = rateLimitProperties;
+		this.buckets = Caffeine.newBuilder()
+				.maximumSize(rateLimitProperties.maxClients())
+				.expireAfterAccess(rateLimitProperties.idleTimeout())
+				.build();
+	}
+
+	/**
+	 * Returns 0 when the client may call the endpoint now, otherwise how many nanoseconds it has to wait.
+	 */
+	public long tryAcquire(String endpoint, String client, long nowNanos) {
+
+		RateLimitProperties.Limit limit = limitOf(endpoint);
+		if (limit.capacity() <= 0) {
+			return 0L;
+		}
+
+		TokenBucket tokenBucket = buckets.get(new BucketKey(endpoint, client),
+				key -> new TokenBucket(limit.capacity(), limit.refillPerSecond(), nowNanos));
+		return tokenBucket.tryAcquire(nowNanos);
+	}
+
+	private RateLimitProperties.Limit limitOf(String endpoint) {
+		RateLimitProperties.Limit limit = rateLimitProperties.endpoints().get(endpoint);
+		return Objects.nonNull(limit) ? limit : rateLimitProperties.defaultLimit();
+	}
+
+	private record BucketKey(String endpoint, String client) {
+	}
+}
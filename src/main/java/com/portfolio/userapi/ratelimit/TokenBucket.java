@@ -0,0 +1,39 @@
+package com.portfolio.userapi.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket kept as a single timestamp: the time at which the bucket would be full again. Taking a token moves
+ * that time forward by one refill interval, and the take is refused when it would land further ahead than the
+ * capacity allows. One compare-and-set per request, with no lock and no background refill.
+ */
+public class TokenBucket {
+
+	private final long refillIntervalNanos;
+	private final long capacityNanos;
+	private final AtomicLong fullAt;
+
+	public TokenBucket(long capacity, double refillPerSecond, long nowNanos) {
+		this.refillIntervalNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond));
+		this.capacityNanos = capacity * refillIntervalNanos;
+		this.fullAt = new AtomicLong(nowNanos);
+	}
+
+	/**
+	 * Takes a token and returns 0, or returns how many nanoseconds to wait for the next one without taking it.
+	 */
+	public long tryAcquire(long nowNanos) {
+		while (true) {
+			long current = fullAt.get();
+			long next = Math.max(current, nowNanos) + refillIntervalNanos;
+			long wait = next - nowNanos - capacityNanos;
+			if (wait > 0) {
+				return wait;
+			}
+			if (fullAt.compareAndSet(current, next)) {
+				return 0L;
+			}
+		}
+	}
+}
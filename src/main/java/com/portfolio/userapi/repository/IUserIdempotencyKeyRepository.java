@@ -0,0 +1,24 @@
+package com.portfolio.userapi.repository;
+
+import com.portfolio.userapi.entity.UserIdempotencyKeyEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IUserIdempotencyKeyRepository extends JpaRepository<UserIdempotencyKeyEntity, String> {
+
+	// Not read-only, so it reads the primary: a replica may not have the response another instance has just stored
+	@Transactional
+	@Query("select k from UserIdempotencyKeyEntity k where k.idempotencyKey = :idempotencyKey and k.createdAt >= :since")
+	Optional<UserIdempotencyKeyEntity> findStoredSince(String idempotencyKey, LocalDateTime since);
+
+	@Modifying
+	@Query("delete from UserIdempotencyKeyEntity k where k.createdAt < :before")
+	int deleteCreatedBefore(LocalDateTime before);
+}
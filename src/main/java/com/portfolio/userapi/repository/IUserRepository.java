@@ -1,33 +1,144 @@
 package com.portfolio.userapi.repository;
 
+import com.portfolio.userapi.dto.UserConflictRecord;
+import com.portfolio.userapi.dto.UserSummaryRecord;
 import com.portfolio.userapi.entity.UserEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface IUserRepository extends JpaRepository<UserEntity, Long> {
 
+	String TOMBSTONES = "tombstones as (insert into tb_user_tombstone (user_id, deleted_at) select id, :deletedAt from deleted) ";
+
 	boolean existsByUserName(String userName);
 
 	boolean existsByCpf(String cpf);
 
+	@Query("select count(u) > 0 from UserEntity u where lower(u.email) = lower(:email)")
 	boolean existsByEmail(String email);
 
 	Optional<UserEntity> findByUserName(String userName);
 
-	List<UserEntity> findAllByUserName(String username);
-
 	Optional<UserEntity> findByCpf(String cpf);
 
-	List<UserEntity> findAllByCpf(String cpf);
+	@Query(value = "select * from tb_user u where u.id = any(:ids)", nativeQuery = true)
+	List<UserEntity> findAllByIdIn(Long[] ids);
+
+	@Query(value = "select * from tb_user u where u.user_name = any(:userNames)", nativeQuery = true)
+	List<UserEntity> findAllByUserNameIn(String[] userNames);
+
+	@Query(value = "select * from tb_user u where u.cpf = any(:cpfs)", nativeQuery = true)
+	List<UserEntity> findAllByCpfIn(String[] cpfs);
+
+	@Query(value = "select * from tb_user u where u.first_name ilike :pattern order by u.id", nativeQuery = true)
+	Slice<UserEntity> findByFirstNameLike(String pattern, Pageable pageable);
+
+	@Query(value = "select * from tb_user u where u.last_name ilike :pattern order by u.id", nativeQuery = true)
+	Slice<UserEntity> findByLastNameLike(String pattern, Pageable pageable);
+
+	@Query(value = "select * from tb_user u where u.first_name ilike :firstNamePattern and u.last_name ilike :lastNamePattern order by u.id", nativeQuery = true)
+	Slice<UserEntity> findByFirstNameLikeAndLastNameLike(String firstNamePattern, String lastNamePattern, Pageable pageable);
+
+	@Query(value = "select * from tb_user u where (u.first_name || ' ' || u.last_name) ilike :pattern order by u.id", nativeQuery = true)
+	Slice<UserEntity> findByFullNameLike(String pattern, Pageable pageable);
+
+	@Query("select new com.portfolio.userapi.dto.UserSummaryRecord(u.id, u.userName, u.firstName, u.lastName) " +
+			"from UserEntity u where u.firstName ilike :pattern order by u.id")
+	Slice<UserSummaryRecord> findSummariesByFirstNameLike(String pattern, Pageable pageable);
+
+	@Query("select new com.portfolio.userapi.dto.UserSummaryRecord(u.id, u.userName, u.firstName, u.lastName) " +
+			"from UserEntity u where u.lastName ilike :pattern order by u.id")
+	Slice<UserSummaryRecord> findSummariesByLastNameLike(String pattern, Pageable pageable);
+
+	@Query("select new com.portfolio.userapi.dto.UserSummaryRecord(u.id, u.userName, u.firstName, u.lastName) " +
+			"from UserEntity u where u.firstName ilike :firstNamePattern and u.lastName ilike :lastNamePattern order by u.id")
+	Slice<UserSummaryRecord> findSummariesByFirstNameLikeAndLastNameLike(String firstNamePattern, String lastNamePattern, Pageable pageable);
+
+	@Query("select new com.portfolio.userapi.dto.UserSummaryRecord(u.id, u.userName, u.firstName, u.lastName) " +
+			"from UserEntity u where (u.firstName || ' ' || u.lastName) ilike :pattern order by u.id")
+	Slice<UserSummaryRecord> findSummariesByFullNameLike(String pattern, Pageable pageable);
+
+	// If-Match is checked in the same statement: with anyVersion false only a row whose "<id>-<version>" tag is listed goes.
+	// Every delete leaves a tombstone in the same statement so the change feed can report it
+	@Query(value = "with deleted as (delete from tb_user u where u.id = :id " +
+			"and (:anyVersion or ('\"' || u.id || '-' || u.version || '\"') = any(:eTags)) returning *), " +
+			TOMBSTONES + "select * from deleted", nativeQuery = true)
+	Optional<UserEntity> deleteReturningById(long id, boolean anyVersion, String[] eTags, LocalDateTime deletedAt);
+
+	@Query(value = "with deleted as (delete from tb_user u where u.user_name = :userName " +
+			"and (:anyVersion or ('\"' || u.id || '-' || u.version || '\"') = any(:eTags)) returning *), " +
+			TOMBSTONES + "select * from deleted", nativeQuery = true)
+	Optional<UserEntity> deleteReturningByUserName(String userName, boolean anyVersion, String[] eTags, LocalDateTime deletedAt);
+
+	@Query(value = "with deleted as (delete from tb_user u where u.cpf = :cpf " +
+			"and (:anyVersion or ('\"' || u.id || '-' || u.version || '\"') = any(:eTags)) returning *), " +
+			TOMBSTONES + "select * from deleted", nativeQuery = true)
+	Optional<UserEntity> deleteReturningByCpf(String cpf, boolean anyVersion, String[] eTags, LocalDateTime deletedAt);
+
+	@Query(value = "with deleted as (delete from tb_user u where u.id = any(:ids) or u.user_name = any(:userNames) or u.cpf = any(:cpfs) " +
+			"returning *), " + TOMBSTONES + "select * from deleted", nativeQuery = true)
+	List<UserEntity> deleteReturningByIdsOrUserNamesOrCpfs(Long[] ids, String[] userNames, String[] cpfs, LocalDateTime deletedAt);
+
+	@Query("select u from UserEntity u where (u.updateDate, u.id) > (:updateDate, :id) and u.updateDate < :until " +
+			"order by u.updateDate, u.id")
+	Slice<UserEntity> findChangedAfter(LocalDateTime updateDate, long id, LocalDateTime until, Pageable pageable);
+
+	Slice<UserEntity> findAllBy(Pageable pageable);
+
+	@Query(value = "select new com.portfolio.userapi.dto.UserSummaryRecord(u.id, u.userName, u.firstName, u.lastName) from UserEntity u",
+			countQuery = "select count(u) from UserEntity u")
+	Page<UserSummaryRecord> findAllSummaries(Pageable pageable);
+
+	@Query("select new com.portfolio.userapi.dto.UserSummaryRecord(u.id, u.userName, u.firstName, u.lastName) from UserEntity u")
+	Slice<UserSummaryRecord> findAllSummariesBy(Pageable pageable);
+
+	@Query("select u from UserEntity u where u.id > :id order by u.id")
+	Slice<UserEntity> findAllAfterId(long id, Pageable pageable);
+
+	@Query("select new com.portfolio.userapi.dto.UserSummaryRecord(u.id, u.userName, u.firstName, u.lastName) " +
+			"from UserEntity u where u.id > :id order by u.id")
+	Slice<UserSummaryRecord> findAllSummariesAfterId(long id, Pageable pageable);
+
+	@Query("select u from UserEntity u where (u.creationDate, u.id) > (:creationDate, :id) order by u.creationDate, u.id")
+	Slice<UserEntity> findAllAfterCreationDate(LocalDateTime creationDate, long id, Pageable pageable);
+
+	@QueryHints({
+			@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+	})
+	@Query("select u from UserEntity u order by u.id")
+	Stream<UserEntity> streamAll();
+
+	@Query("select new com.portfolio.userapi.dto.UserConflictRecord(" +
+			"count(case when u.userName = :userName then 1 end), " +
+			"count(case when u.cpf = :cpf then 1 end), " +
+			"count(case when lower(u.email) = lower(:email) then 1 end)) " +
+			"from UserEntity u " +
+			"where (u.userName = :userName or u.cpf = :cpf or lower(u.email) = lower(:email)) and u.id <> :excludedId")
+	UserConflictRecord findConflicts(long excludedId, String userName, String cpf, String email);
 
-	List<UserEntity> findUserByEmail(String email);
+	@Query("select u.userName from UserEntity u where u.userName in :userNames")
+	List<String> findUserNamesIn(Collection<String> userNames);
 
-	List<UserEntity> findByFirstNameContainsIgnoreCase(String firstName);
+	@Query("select u.cpf from UserEntity u where u.cpf in :cpfs")
+	List<String> findCpfsIn(Collection<String> cpfs);
 
-	List<UserEntity> findByLastNameContainsIgnoreCase(String lastName);
+	// Takes and returns lower-case emails
+	@Query("select lower(u.email) from UserEntity u where lower(u.email) in :emails")
+	List<String> findEmailsIn(Collection<String> emails);
 
 }
@@ -0,0 +1,23 @@
+package com.portfolio.userapi.repository;
+
+import com.portfolio.userapi.entity.UserTombstoneEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IUserTombstoneRepository extends JpaRepository<UserTombstoneEntity, Long> {
+
+	@Query("select t from UserTombstoneEntity t where (t.deletedAt, t.userId) > (:deletedAt, :userId) and t.deletedAt < :until " +
+			"order by t.deletedAt, t.userId")
+	Slice<UserTombstoneEntity> findDeletedAfter(LocalDateTime deletedAt, long userId, LocalDateTime until, Pageable pageable);
+
+	@Modifying
+	@Query("delete from UserTombstoneEntity t where t.deletedAt < :before")
+	int deleteDeletedBefore(LocalDateTime before);
+}
@@ -0,0 +1,213 @@
+package com.portfolio.userapi.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.portfolio.userapi.dto.UserCacheStatsRecord;
+import com.portfolio.userapi.entity.UserEntity;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+@Component
+public class UserCache implements MeterBinder {
+
+	private final Cache<Long, UserEntity> usersById;
+	private final Cache<String, Long> idsByUserName;
+	private final Cache<String, Long> idsByCpf;
+
+	private final AtomicLong invalidations = new AtomicLong();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	public UserCache(@Value("${user-api.cache.maximum-size:10000}") long maximumSize,
+					 @Value("${user-api.cache.time-to-live:5m}") Duration timeToLive) {
+		this.usersById = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(timeToLive)
+				.recordStats()
+				.build();
+		this.idsByUserName = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(timeToLive)
+				.build();
+		this.idsByCpf = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(timeToLive)
+				.build();
+	}
+
+	public Optional<UserEntity> findById(long id, Supplier<Optional<UserEntity>> loader) {
+		return find(usersById.getIfPresent(id), loader);
+	}
+
+	public Optional<UserEntity> findByUserName(String userName, Supplier<Optional<UserEntity>> loader) {
+		return find(cachedBy(idsByUserName, userName, UserEntity::getUserName), loader);
+	}
+
+	public Optional<UserEntity> findByCpf(String cpf, Supplier<Optional<UserEntity>> loader) {
+		return find(cachedBy(idsByCpf, cpf, UserEntity::getCpf), loader);
+	}
+
+	// Bulk variants answer what they can from the cache and hand every miss to the loader at once
+	public Map<Long, UserEntity> findAllByIds(Collection<Long> ids, Function<List<Long>, List<UserEntity>> loader) {
+		return findAll(ids, usersById::getIfPresent, UserEntity::getId, loader);
+	}
+
+	public Map<String, UserEntity> findAllByUserNames(Collection<String> userNames, Function<List<String>, List<UserEntity>> loader) {
+		return findAll(userNames, userName -> cachedBy(idsByUserName, userName, UserEntity::getUserName), UserEntity::getUserName, loader);
+	}
+
+	public Map<String, UserEntity> findAllByCpfs(Collection<String> cpfs, Function<List<String>, List<UserEntity>> loader) {
+		return findAll(cpfs, cpf -> cachedBy(idsByCpf, cpf, UserEntity::getCpf), UserEntity::getCpf, loader);
+	}
+
+	public void evict(UserEntity userEntity) {
+		evictNow(userEntity);
+
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					evictNow(userEntity);
+				}
+			});
+		}
+	}
+
+	@Override
+	public void bindTo(MeterRegistry meterRegistry) {
+		CaffeineCacheMetrics.monitor(meterRegistry, usersById, "users");
+		FunctionCounter.builder("user.cache.lookups", hits, LongAdder::sum)
+				.description("Lookups by id, username or cpf answered by the cache")
+				.tag("result", "hit")
+				.register(meterRegistry);
+		FunctionCounter.builder("user.cache.lookups", misses, LongAdder::sum)
+				.description("Lookups by id, username or cpf answered by the cache")
+				.tag("result", "miss")
+				.register(meterRegistry);
+	}
+
+	public UserCacheStatsRecord stats() {
+		return new UserCacheStatsRecord(hits.sum(), misses.sum(), usersById.stats().evictionCount(), usersById.estimatedSize());
+	}
+
+	private Optional<UserEntity> find(UserEntity cachedUserEntity, Supplier<Optional<UserEntity>> loader) {
+
+		if (Objects.nonNull(cachedUserEntity)) {
+			hits.increment();
+			return Optional.of(copyOf(cachedUserEntity));
+		}
+
+		misses.increment();
+		long invalidationsBeforeLoad = invalidations.get();
+		Optional<UserEntity> userEntityOptional = loader.get();
+		userEntityOptional.ifPresent(userEntity -> {
+			if (invalidations.get() == invalidationsBeforeLoad) {
+				put(userEntity);
+			}
+		});
+
+		return userEntityOptional;
+	}
+
+	private <K> Map<K, UserEntity> findAll(Collection<K> keys, Function<K, UserEntity> cached, Function<UserEntity, K> keyOf,
+											Function<List<K>, List<UserEntity>> loader) {
+
+		Map<K, UserEntity> userEntityMap = new HashMap<>(keys.size());
+		List<K> missingKeys = new ArrayList<>();
+		for (K key : new LinkedHashSet<>(keys)) {
+			UserEntity cachedUserEntity = cached.apply(key);
+			if (Objects.nonNull(cachedUserEntity)) {
+				hits.increment();
+				userEntityMap.put(key, copyOf(cachedUserEntity));
+			} else {
+				misses.increment();
+				missingKeys.add(key);
+			}
+		}
+
+		if (missingKeys.isEmpty()) {
+			return userEntityMap;
+		}
+
+		long invalidationsBeforeLoad = invalidations.get();
+		for (UserEntity userEntity : loader.apply(missingKeys)) {
+			userEntityMap.put(keyOf.apply(userEntity), userEntity);
+			if (invalidations.get() == invalidationsBeforeLoad) {
+				put(userEntity);
+			}
+		}
+
+		return userEntityMap;
+	}
+
+	private UserEntity cachedBy(Cache<String, Long> ids, String key, Function<UserEntity, String> keyOf) {
+
+		Long id = ids.getIfPresent(key);
+		if (Objects.isNull(id)) {
+			return null;
+		}
+
+		UserEntity userEntity = usersById.getIfPresent(id);
+		return Objects.nonNull(userEntity) && key.equals(keyOf.apply(userEntity)) ? userEntity : null;
+	}
+
+	private void put(UserEntity userEntity) {
+		usersById.put(userEntity.getId(), copyOf(userEntity));
+		idsByUserName.put(userEntity.getUserName(), userEntity.getId());
+		idsByCpf.put(userEntity.getCpf(), userEntity.getId());
+	}
+
+	private void evictNow(UserEntity userEntity) {
+		invalidations.incrementAndGet();
+
+		if (Objects.nonNull(userEntity.getId())) {
+			UserEntity cachedUserEntity = usersById.getIfPresent(userEntity.getId());
+			if (Objects.nonNull(cachedUserEntity)) {
+				idsByUserName.invalidate(cachedUserEntity.getUserName());
+				idsByCpf.invalidate(cachedUserEntity.getCpf());
+			}
+			usersById.invalidate(userEntity.getId());
+		}
+		if (Objects.nonNull(userEntity.getUserName())) {
+			idsByUserName.invalidate(userEntity.getUserName());
+		}
+		if (Objects.nonNull(userEntity.getCpf())) {
+			idsByCpf.invalidate(userEntity.getCpf());
+		}
+	}
+
+	static UserEntity copyOf(UserEntity userEntity) {
+		UserEntity copy = new UserEntity();
+		copy.setId(userEntity.getId());
+		copy.setUserName(userEntity.getUserName());
+		copy.setCpf(userEntity.getCpf());
+		copy.setFirstName(userEntity.getFirstName());
+		copy.setLastName(userEntity.getLastName());
+		copy.setDateOfBirth(userEntity.getDateOfBirth());
+		copy.setEmail(userEntity.getEmail());
+		copy.setCreationDate(userEntity.getCreationDate());
+		copy.setUpdateDate(userEntity.getUpdateDate());
+		copy.setVersion(userEntity.getVersion());
+		return copy;
+	}
+}
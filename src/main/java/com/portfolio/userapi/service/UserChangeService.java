@@ -0,0 +1,93 @@
+package com.portfolio.userapi.service;
+
+import com.portfolio.userapi.dto.UserChangeCursorRecord;
+import com.portfolio.userapi.dto.UserChangePageRecord;
+import com.portfolio.userapi.dto.UserChangeRecord;
+import com.portfolio.userapi.entity.UserEntity;
+import com.portfolio.userapi.entity.UserTombstoneEntity;
+import com.portfolio.userapi.repository.IUserRepository;
+import com.portfolio.userapi.repository.IUserTombstoneRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+@Service
+public class UserChangeService {
+	private static final Logger log = LoggerFactory.getLogger(UserChangeService.class);
+
+	@Autowired
+	private IUserRepository iUserRepository;
+
+	@Autowired
+	private IUserTombstoneRepository iUserTombstoneRepository;
+
+	// Changes stamped within the settle time may still be in uncommitted transactions, so they are served on the next read.
+	// Rows are stamped when the transaction prepares them, so one that runs longer than this, like a large batch, can
+	// commit rows a reader already moved past; the settle time has to stay above the longest write transaction
+	@Value("${user-api.changes.settle-time:2s}")
+	private Duration settleTime;
+
+	@Value("${user-api.changes.tombstone-retention:30d}")
+	private Duration tombstoneRetention;
+
+	/**
+	 * Reads the next changes after the cursor with one keyset query on users and one on tombstones, so the cost
+	 * follows the number of changes instead of the table size. It reads from the primary: on a lagging replica the
+	 * cursor could move past changes that have not been replayed there yet.
+	 */
+	@Transactional
+	public UserChangePageRecord changesAfter(UserChangeCursorRecord since, int size) {
+		LocalDateTime until = settledUntil();
+		PageRequest pageRequest = PageRequest.ofSize(size);
+
+		List<UserEntity> changedList = iUserRepository.findChangedAfter(since.changedAt(), since.id(), until, pageRequest).getContent();
+		List<UserTombstoneEntity> deletedList = iUserTombstoneRepository.findDeletedAfter(since.changedAt(), since.id(), until, pageRequest).getContent();
+
+		List<UserChangeRecord> changes = new ArrayList<>(Math.min(size, changedList.size() + deletedList.size()));
+		int changed = 0;
+		int deleted = 0;
+		while (changes.size() < size && (changed < changedList.size() || deleted < deletedList.size())) {
+			UserChangeRecord nextChanged = changed < changedList.size() ? UserChangeRecord.of(changedList.get(changed)) : null;
+			UserChangeRecord nextDeleted = deleted < deletedList.size() ? UserChangeRecord.of(deletedList.get(deleted)) : null;
+			if (Objects.isNull(nextDeleted) || (Objects.nonNull(nextChanged) && nextChanged.cursor().compareTo(nextDeleted.cursor()) < 0)) {
+				changes.add(nextChanged);
+				changed++;
+			} else {
+				changes.add(nextDeleted);
+				deleted++;
+			}
+		}
+
+		UserChangeCursorRecord next = changes.isEmpty() ? since : changes.get(changes.size() - 1).cursor();
+
+		return new UserChangePageRecord(changes, next.encode());
+	}
+
+	// Everything stamped up to this moment has either committed or been rolled back
+	public LocalDateTime settledUntil() {
+		return LocalDateTime.now().minus(settleTime);
+	}
+
+	// Deletes older than the retention are forgotten, so a consumer that far behind has to sync again from the start
+	public boolean isExpired(UserChangeCursorRecord since) {
+		return !UserChangeCursorRecord.START.equals(since) && since.changedAt().isBefore(LocalDateTime.now().minus(tombstoneRetention));
+	}
+
+	@Transactional
+	@Scheduled(initialDelayString = "${user-api.changes.purge-interval:PT1H}", fixedDelayString = "${user-api.changes.purge-interval:PT1H}")
+	public void purgeTombstones() {
+		int purged = iUserTombstoneRepository.deleteDeletedBefore(LocalDateTime.now().minus(tombstoneRetention));
+		log.info("Tombstones purged -> count:{}", purged);
+	}
+}
@@ -0,0 +1,150 @@
+package com.portfolio.userapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.portfolio.userapi.config.Config;
+import com.portfolio.userapi.dto.UserChangeCursorRecord;
+import com.portfolio.userapi.dto.UserChangePageRecord;
+import com.portfolio.userapi.dto.UserChangeRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes user changes to Server-Sent Events subscribers as their transactions commit. Each subscriber first replays
+ * the feed from its cursor and then waits on its own queue; a subscriber that falls too far behind is disconnected
+ * and resumes from its Last-Event-ID, so delivery is at least once. Live changes carry the id of the last replayed
+ * change rather than their own: a change stamped before them may still be committing, here or on another instance,
+ * and resuming past it would lose it.
+ */
+@Component
+public class UserChangeStream {
+	private static final Logger log = LoggerFactory.getLogger(UserChangeStream.class);
+
+	private static final String EVENT_NAME = "user-change";
+
+	private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+	@Autowired
+	private UserChangeService userChangeService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Value("${user-api.changes.stream.heartbeat:15s}")
+	private Duration heartbeat;
+
+	@Value("${user-api.changes.stream.queue-size:10000}")
+	private int queueSize;
+
+	public void publishAfterCommit(List<UserChangeRecord> changes) {
+
+		if (changes.isEmpty() || subscribers.isEmpty()) {
+			return;
+		}
+
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					publish(changes);
+				}
+			});
+		} else {
+			publish(changes);
+		}
+	}
+
+	public void stream(UserChangeCursorRecord since, OutputStream outputStream) throws IOException {
+		Subscriber subscriber = new Subscriber(new LinkedBlockingQueue<>(queueSize));
+		subscribers.add(subscriber);
+		LocalDateTime subscribedAt = LocalDateTime.now();
+		Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+		try {
+			UserChangeCursorRecord settledCursor = replay(since, subscribedAt, writer);
+
+			while (!subscriber.overflowed) {
+				UserChangeRecord change = subscriber.queue.poll(heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+				if (Objects.isNull(change)) {
+					writer.write(": keep-alive\n\n");
+				} else {
+					writeEvent(writer, settledCursor, change);
+				}
+				writer.flush();
+			}
+			log.info("Change stream subscriber fell behind and was disconnected");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			subscribers.remove(subscriber);
+		}
+	}
+
+	// Changes that committed before the subscriber was registered only reach it through the replay, and the feed holds
+	// back the settle time, so the replay goes on until the settled part of the feed covers the subscribe time
+	private UserChangeCursorRecord replay(UserChangeCursorRecord since, LocalDateTime subscribedAt, Writer writer) throws IOException, InterruptedException {
+		UserChangeCursorRecord cursor = since;
+		while (true) {
+			LocalDateTime settledUntil = userChangeService.settledUntil();
+			UserChangePageRecord userChangePageRecord = userChangeService.changesAfter(cursor, Config.MAX_PAGE_SIZE);
+			for (UserChangeRecord change : userChangePageRecord.changes()) {
+				writeEvent(writer, change.cursor(), change);
+			}
+			cursor = UserChangeCursorRecord.decode(userChangePageRecord.nextCursor()).orElseThrow();
+			writer.flush();
+
+			if (userChangePageRecord.changes().isEmpty()) {
+				if (!settledUntil.isBefore(subscribedAt)) {
+					return cursor;
+				}
+				Thread.sleep(Duration.between(settledUntil, subscribedAt));
+			}
+		}
+	}
+
+	private void publish(List<UserChangeRecord> changes) {
+		for (Subscriber subscriber : subscribers) {
+			for (UserChangeRecord change : changes) {
+				if (!subscriber.queue.offer(change)) {
+					subscriber.overflowed = true;
+					subscriber.queue.clear();
+					break;
+				}
+			}
+		}
+	}
+
+	private void writeEvent(Writer writer, UserChangeCursorRecord cursor, UserChangeRecord change) throws IOException {
+		writer.write("id: " + cursor.encode() + "\n");
+		writer.write("event: " + EVENT_NAME + "\n");
+		writer.write("data: " + objectMapper.writeValueAsString(change) + "\n\n");
+	}
+
+	private static final class Subscriber {
+		private final BlockingQueue<UserChangeRecord> queue;
+		private volatile boolean overflowed;
+
+		private Subscriber(BlockingQueue<UserChangeRecord> queue) {
+			this.queue = queue;
+		}
+	}
+}
@@ -0,0 +1,148 @@
+package com.portfolio.userapi.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.portfolio.userapi.entity.UserEntity;
+import com.portfolio.userapi.repository.IUserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+@Service
+public class UserExportService {
+	private static final Logger log = LoggerFactory.getLogger(UserExportService.class);
+
+	public static final String FORMAT_NDJSON = "ndjson";
+	public static final String FORMAT_CSV = "csv";
+	public static final String FORMAT_CBOR = "cbor";
+
+	private static final String CSV_HEADER = "id,userName,cpf,firstName,lastName,dateOfBirth,email,creationDate,updateDate";
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	@Autowired
+	private IUserRepository iUserRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private MappingJackson2CborHttpMessageConverter cborHttpMessageConverter;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	public static boolean isValidFormat(String format) {
+		return FORMAT_NDJSON.equals(format) || FORMAT_CSV.equals(format) || FORMAT_CBOR.equals(format);
+	}
+
+	@Transactional(readOnly = true)
+	public void export(OutputStream outputStream, String format) throws IOException {
+		long exported = 0;
+		try (Stream<UserEntity> userEntityStream = iUserRepository.streamAll()) {
+			Iterator<UserEntity> userEntityIterator = userEntityStream.iterator();
+			if (FORMAT_CSV.equals(format)) {
+				exported = writeCsv(userEntityIterator, outputStream);
+			} else if (FORMAT_CBOR.equals(format)) {
+				exported = writeCbor(userEntityIterator, outputStream);
+			} else {
+				exported = writeNdjson(userEntityIterator, outputStream);
+			}
+		} finally {
+			log.info("Users exported -> format:{} count:{}", format, exported);
+		}
+	}
+
+	// One JSON document per line, flushed by the buffer rather than per user
+	private long writeNdjson(Iterator<UserEntity> userEntityIterator, OutputStream outputStream) throws IOException {
+		long exported = 0;
+		ObjectWriter jsonWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		try (JsonGenerator jsonGenerator = jsonWriter.createGenerator(
+				new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE))) {
+			jsonGenerator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			while (userEntityIterator.hasNext()) {
+				UserEntity userEntity = userEntityIterator.next();
+				jsonWriter.writeValue(jsonGenerator, userEntity);
+				jsonGenerator.writeRaw('\n');
+				entityManager.detach(userEntity);
+				exported++;
+			}
+		}
+		return exported;
+	}
+
+	// A CBOR sequence (RFC 8742): one CBOR item per user, back to back, flushed by the buffer rather than per user
+	private long writeCbor(Iterator<UserEntity> userEntityIterator, OutputStream outputStream) throws IOException {
+		long exported = 0;
+		ObjectWriter cborWriter = cborHttpMessageConverter.getObjectMapper().writer()
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		try (JsonGenerator cborGenerator = cborWriter.createGenerator(new BufferedOutputStream(outputStream, BUFFER_SIZE))) {
+			cborGenerator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			while (userEntityIterator.hasNext()) {
+				UserEntity userEntity = userEntityIterator.next();
+				cborWriter.writeValue(cborGenerator, userEntity);
+				entityManager.detach(userEntity);
+				exported++;
+			}
+		}
+		return exported;
+	}
+
+	private long writeCsv(Iterator<UserEntity> userEntityIterator, OutputStream outputStream) throws IOException {
+		long exported = 0;
+		Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+		writer.write(CSV_HEADER);
+		writer.write('\n');
+		while (userEntityIterator.hasNext()) {
+			UserEntity userEntity = userEntityIterator.next();
+			writer.write(String.valueOf(userEntity.getId()));
+			writeCsvField(writer, userEntity.getUserName());
+			writeCsvField(writer, userEntity.getCpf());
+			writeCsvField(writer, userEntity.getFirstName());
+			writeCsvField(writer, userEntity.getLastName());
+			writeCsvField(writer, userEntity.getDateOfBirth());
+			writeCsvField(writer, userEntity.getEmail());
+			writeCsvField(writer, userEntity.getCreationDate());
+			writeCsvField(writer, userEntity.getUpdateDate());
+			writer.write('\n');
+			entityManager.detach(userEntity);
+			exported++;
+		}
+		writer.flush();
+		return exported;
+	}
+
+	private void writeCsvField(Writer writer, Object value) throws IOException {
+		writer.write(',');
+		if (Objects.isNull(value)) {
+			return;
+		}
+
+		String text = value.toString();
+		if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+			writer.write(text);
+			return;
+		}
+
+		writer.write('"');
+		writer.write(text.replace("\"", "\"\""));
+		writer.write('"');
+	}
+}
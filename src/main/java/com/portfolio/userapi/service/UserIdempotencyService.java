@@ -0,0 +1,213 @@
+package com.portfolio.userapi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.portfolio.userapi.dto.UserSaveRecord;
+import com.portfolio.userapi.entity.UserEntity;
+import com.portfolio.userapi.entity.UserIdempotencyKeyEntity;
+import com.portfolio.userapi.exception.IdempotencyKeyReusedException;
+import com.portfolio.userapi.repository.IUserIdempotencyKeyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Replays the response of a {@code POST /user/add} that carried the same {@code Idempotency-Key}, so a client retrying
+ * after a timeout gets its 201 back instead of running validation again and reading its own user as a conflict.
+ * Created responses are kept for the TTL in memory and, when the database store is on, in
+ * {@code tb_user_idempotency_key} so they survive restarts and are shared between instances. Requests with a key
+ * that is still being processed wait for the first one and get its response.
+ */
+@Service
+public class UserIdempotencyService {
+	private static final Logger log = LoggerFactory.getLogger(UserIdempotencyService.class);
+
+	public static final String HEADER = "Idempotency-Key";
+	public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+	private static final String LEGEND_KEY_REUSED = "Idempotency-Key has already been used with a different request";
+	private static final Pattern VALID_KEY = Pattern.compile("[\\x21-\\x7E]{1,255}");
+
+	private final Duration timeToLive;
+	private final boolean databaseStore;
+	private final Cache<String, StoredResponse> storedResponses;
+	private final ConcurrentMap<String, InFlightRequest> inFlightRequests = new ConcurrentHashMap<>();
+
+	@Autowired
+	private IUserIdempotencyKeyRepository iUserIdempotencyKeyRepository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	public UserIdempotencyService(@Value("${user-api.idempotency.time-to-live:24h}") Duration timeToLive,
+								  @Value("${user-api.idempotency.maximum-size:100000}") long maximumSize,
+								  @Value("${user-api.idempotency.database-store:false}") boolean databaseStore) {
+		this.timeToLive = timeToLive;
+		this.databaseStore = databaseStore;
+		this.storedResponses = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(timeToLive)
+				.build();
+	}
+
+	public static boolean isValidKey(String idempotencyKey) {
+		return VALID_KEY.matcher(idempotencyKey).matches();
+	}
+
+	public ResponseEntity<Object> execute(String idempotencyKey, UserSaveRecord userSaveRecord, Supplier<ResponseEntity<Object>> request) {
+		String requestHash = hash(userSaveRecord);
+
+		Optional<ResponseEntity<Object>> replayed = replay(idempotencyKey, requestHash);
+		if (replayed.isPresent()) {
+			return replayed.get();
+		}
+
+		InFlightRequest inFlightRequest = new InFlightRequest(requestHash, new CompletableFuture<>());
+		InFlightRequest firstRequest = inFlightRequests.putIfAbsent(idempotencyKey, inFlightRequest);
+		if (Objects.nonNull(firstRequest)) {
+			return awaitFirst(firstRequest, requestHash);
+		}
+
+		try {
+			// The first request may have finished between the lookup and taking the key
+			replayed = replay(idempotencyKey, requestHash);
+			ResponseEntity<Object> response = replayed.isPresent() ? replayed.get() : request.get();
+			if (replayed.isEmpty() && response.getStatusCode() == HttpStatus.CREATED) {
+				store(idempotencyKey, new StoredResponse(requestHash, response.getStatusCode().value(), response.getBody()));
+			}
+			inFlightRequest.response().complete(response);
+			return response;
+		} catch (RuntimeException e) {
+			inFlightRequest.response().completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlightRequests.remove(idempotencyKey, inFlightRequest);
+		}
+	}
+
+	@Transactional
+	@Scheduled(initialDelayString = "${user-api.idempotency.purge-interval:PT1H}", fixedDelayString = "${user-api.idempotency.purge-interval:PT1H}")
+	public void purgeExpiredKeys() {
+		if (databaseStore) {
+			int purged = iUserIdempotencyKeyRepository.deleteCreatedBefore(LocalDateTime.now().minus(timeToLive));
+			log.info("Idempotency keys purged -> count:{}", purged);
+		}
+	}
+
+	private Optional<ResponseEntity<Object>> replay(String idempotencyKey, String requestHash) {
+		StoredResponse storedResponse = storedResponses.getIfPresent(idempotencyKey);
+		if (Objects.isNull(storedResponse) && databaseStore) {
+			storedResponse = iUserIdempotencyKeyRepository.findStoredSince(idempotencyKey, LocalDateTime.now().minus(timeToLive))
+					.map(this::toStoredResponse)
+					.orElse(null);
+			if (Objects.nonNull(storedResponse)) {
+				storedResponses.put(idempotencyKey, storedResponse);
+			}
+		}
+
+		if (Objects.isNull(storedResponse)) {
+			return Optional.empty();
+		}
+		if (!storedResponse.requestHash().equals(requestHash)) {
+			throw new IdempotencyKeyReusedException(LEGEND_KEY_REUSED);
+		}
+
+		log.info("Idempotent response replayed -> key:{}", idempotencyKey);
+		return Optional.of(replayed(storedResponse.status(), storedResponse.body()));
+	}
+
+	private ResponseEntity<Object> awaitFirst(InFlightRequest firstRequest, String requestHash) {
+		if (!firstRequest.requestHash().equals(requestHash)) {
+			throw new IdempotencyKeyReusedException(LEGEND_KEY_REUSED);
+		}
+
+		try {
+			ResponseEntity<Object> response = firstRequest.response().join();
+			return replayed(response.getStatusCode().value(), response.getBody());
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw e;
+		}
+	}
+
+	private void store(String idempotencyKey, StoredResponse storedResponse) {
+		storedResponses.put(idempotencyKey, storedResponse);
+		if (databaseStore) {
+			UserIdempotencyKeyEntity userIdempotencyKeyEntity = new UserIdempotencyKeyEntity();
+			userIdempotencyKeyEntity.setIdempotencyKey(idempotencyKey);
+			userIdempotencyKeyEntity.setRequestHash(storedResponse.requestHash());
+			userIdempotencyKeyEntity.setResponseStatus(storedResponse.status());
+			userIdempotencyKeyEntity.setResponseBody(toJson(storedResponse.body()));
+			userIdempotencyKeyEntity.setCreatedAt(LocalDateTime.now());
+			// The user is already created, so a failure here only costs the replay on other instances
+			try {
+				iUserIdempotencyKeyRepository.save(userIdempotencyKeyEntity);
+			} catch (RuntimeException e) {
+				log.warn("Idempotency key not stored -> key:{}", idempotencyKey, e);
+			}
+		}
+	}
+
+	private StoredResponse toStoredResponse(UserIdempotencyKeyEntity userIdempotencyKeyEntity) {
+		try {
+			return new StoredResponse(userIdempotencyKeyEntity.getRequestHash(), userIdempotencyKeyEntity.getResponseStatus(),
+					objectMapper.readValue(userIdempotencyKeyEntity.getResponseBody(), UserEntity.class));
+		} catch (JsonProcessingException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private String toJson(Object body) {
+		try {
+			return objectMapper.writeValueAsString(body);
+		} catch (JsonProcessingException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	// The same key with another body is a client bug, so the request is fingerprinted by its canonical JSON
+	private String hash(UserSaveRecord userSaveRecord) {
+		try {
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(userSaveRecord)));
+		} catch (JsonProcessingException e) {
+			throw new UncheckedIOException(e);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static ResponseEntity<Object> replayed(int status, Object body) {
+		return ResponseEntity.status(status).header(REPLAYED_HEADER, "true").body(body);
+	}
+
+	private record StoredResponse(String requestHash, int status, Object body) {
+	}
+
+	private record InFlightRequest(String requestHash, CompletableFuture<ResponseEntity<Object>> response) {
+	}
+}
@@ -0,0 +1,44 @@
+package com.portfolio.userapi.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+@Component
+public class UserMetrics {
+
+	public static final String VALIDATION_TIMER = "user.validation";
+	public static final String STEP_AGE = "age";
+	public static final String STEP_CONFLICTS = "conflicts";
+	public static final String STEP_CPF = "cpf";
+	public static final String STEP_EMAIL = "email";
+
+	private final Map<String, Timer> validationTimers;
+
+	public UserMetrics(MeterRegistry meterRegistry) {
+		this.validationTimers = Map.of(
+				STEP_AGE, validationTimer(meterRegistry, STEP_AGE),
+				STEP_CONFLICTS, validationTimer(meterRegistry, STEP_CONFLICTS),
+				STEP_CPF, validationTimer(meterRegistry, STEP_CPF),
+				STEP_EMAIL, validationTimer(meterRegistry, STEP_EMAIL));
+	}
+
+	public boolean recordValidation(String step, BooleanSupplier check) {
+		return validationTimers.get(step).record(check);
+	}
+
+	public <T> T recordValidation(String step, Supplier<T> query) {
+		return validationTimers.get(step).record(query);
+	}
+
+	private static Timer validationTimer(MeterRegistry meterRegistry, String step) {
+		return Timer.builder(VALIDATION_TIMER)
+				.description("Time spent in each step of validateUserData")
+				.tag("step", step)
+				.register(meterRegistry);
+	}
+}
@@ -1,23 +1,52 @@
 package com.portfolio.userapi.service;
 
 import com.portfolio.userapi.config.Config;
+import com.portfolio.userapi.dto.UserCacheStatsRecord;
+import com.portfolio.userapi.dto.UserChangeRecord;
+import com.portfolio.userapi.dto.UserConflictRecord;
+import com.portfolio.userapi.dto.UserCursorRecord;
+import com.portfolio.userapi.dto.UserDeleteBatchRecord;
+import com.portfolio.userapi.dto.UserDeleteBatchResultRecord;
+import com.portfolio.userapi.dto.UserLookupItemRecord;
+import com.portfolio.userapi.dto.UserLookupRecord;
+import com.portfolio.userapi.dto.UserLookupResultRecord;
+import com.portfolio.userapi.dto.UserPatchRecord;
+import com.portfolio.userapi.dto.UserSummaryRecord;
+import com.portfolio.userapi.entity.UserConstraints;
 import com.portfolio.userapi.entity.UserEntity;
+import com.portfolio.userapi.exception.UserConflictException;
 import com.portfolio.userapi.repository.IUserRepository;
 import com.portfolio.userapi.util.Tools;
-import jakarta.transaction.Transactional;
+import com.portfolio.userapi.validation.AgeValidator;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.LocalDate;
-import java.time.Period;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
 
 @Service
 public class UserService {
@@ -29,164 +58,430 @@ public class UserService {
 	private static final String USER_LEGEND_AGE_NOT_ADMITED = "Only users over 18 years of age must be registered!";
 	private static final String USER_LEGEND_EMAIL_IS_INVALID = "This email is invalid!";
 	private static final String USER_LEGEND_EMAIL_ALREADY_ASSIGNED = "This email has been assigned another user!";
+	private static final long NEW_USER_ID = 0L;
+	private static final Set<String> VALIDATED_FIELDS = Set.of(UserPatchRecord.FIELD_DATE_OF_BIRTH, UserPatchRecord.FIELD_USER_NAME,
+			UserPatchRecord.FIELD_CPF, UserPatchRecord.FIELD_EMAIL);
 
 	@Autowired
 	private IUserRepository iUserRepository;
 
+	@Autowired
+	private UserCache userCache;
+
+	@Autowired
+	private UserMetrics userMetrics;
+
+	@Autowired
+	private UserChangeStream userChangeStream;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
 	@Transactional
 	public UserEntity save(UserEntity userEntity) {
 		try {
-			return iUserRepository.save(userEntity);
+			userCache.evict(userEntity);
+			UserEntity savedUserEntity = iUserRepository.saveAndFlush(userEntity);
+			userChangeStream.publishAfterCommit(List.of(changeOf(savedUserEntity)));
+			return savedUserEntity;
+		} catch (DataIntegrityViolationException e) {
+			throw new UserConflictException(conflictLegend(e), e);
 		} finally {
 			log.info("User saved -> cpf:{}", userEntity.getCpf());
 		}
 	}
 
 	@Transactional
-	public void delete(UserEntity userEntity) {
+	public List<UserEntity> saveAll(List<UserEntity> userEntityList) {
+		List<UserEntity> savedList = new ArrayList<>(userEntityList.size());
 		try {
-			iUserRepository.delete(userEntity);
+			for (int from = 0; from < userEntityList.size(); from += Config.BATCH_FLUSH_SIZE) {
+				int to = Math.min(from + Config.BATCH_FLUSH_SIZE, userEntityList.size());
+				savedList.addAll(iUserRepository.saveAll(userEntityList.subList(from, to)));
+				iUserRepository.flush();
+				userChangeStream.publishAfterCommit(savedList.subList(from, to).stream().map(UserService::changeOf).toList());
+				entityManager.clear();
+			}
+			return savedList;
+		} catch (DataIntegrityViolationException e) {
+			throw new UserConflictException(conflictLegend(e), e);
 		} finally {
-			log.info("User deleted -> cpf:{}", userEntity.getCpf());
+			log.info("Users saved -> count:{}", savedList.size());
 		}
 	}
 
+	// Null eTags delete any version; otherwise a user kept at an unlisted version fails the optimistic lock
+	@Transactional
+	public Optional<UserEntity> deleteById(long id, List<String> eTags) {
+		LocalDateTime deletedAt = deletionTime();
+		return deleted(iUserRepository.deleteReturningById(id, Objects.isNull(eTags), toArray(eTags), deletedAt),
+				deletedAt, eTags, id, () -> iUserRepository.existsById(id));
+	}
+
+	@Transactional
+	public Optional<UserEntity> deleteByUserName(String userName, List<String> eTags) {
+		LocalDateTime deletedAt = deletionTime();
+		return deleted(iUserRepository.deleteReturningByUserName(userName, Objects.isNull(eTags), toArray(eTags), deletedAt),
+				deletedAt, eTags, userName, () -> iUserRepository.existsByUserName(userName));
+	}
+
+	@Transactional
+	public Optional<UserEntity> deleteByCpf(String cpf, List<String> eTags) {
+		LocalDateTime deletedAt = deletionTime();
+		return deleted(iUserRepository.deleteReturningByCpf(cpf, Objects.isNull(eTags), toArray(eTags), deletedAt),
+				deletedAt, eTags, cpf, () -> iUserRepository.existsByCpf(cpf));
+	}
+
+	@Transactional
+	public UserDeleteBatchResultRecord deleteAll(UserDeleteBatchRecord userDeleteBatchRecord) {
+		LocalDateTime deletedAt = deletionTime();
+		List<UserEntity> deletedList = iUserRepository.deleteReturningByIdsOrUserNamesOrCpfs(
+				userDeleteBatchRecord.ids().toArray(Long[]::new),
+				userDeleteBatchRecord.userNames().toArray(String[]::new),
+				userDeleteBatchRecord.cpfs().toArray(String[]::new),
+				deletedAt);
+		entityManager.clear();
+
+		Set<Long> deletedIds = new HashSet<>(deletedList.size());
+		Set<String> deletedUserNames = new HashSet<>(deletedList.size());
+		Set<String> deletedCpfs = new HashSet<>(deletedList.size());
+		for (UserEntity userEntity : deletedList) {
+			userCache.evict(userEntity);
+			deletedIds.add(userEntity.getId());
+			deletedUserNames.add(userEntity.getUserName());
+			deletedCpfs.add(userEntity.getCpf());
+		}
+		userChangeStream.publishAfterCommit(deletedList.stream()
+				.map(userEntity -> UserChangeRecord.tombstone(userEntity.getId(), deletedAt))
+				.toList());
+		log.info("Users deleted -> count:{}", deletedList.size());
+
+		return new UserDeleteBatchResultRecord(deletedList.size(),
+				userDeleteBatchRecord.ids().stream().filter(id -> !deletedIds.contains(id)).toList(),
+				userDeleteBatchRecord.userNames().stream().filter(userName -> !deletedUserNames.contains(userName)).toList(),
+				userDeleteBatchRecord.cpfs().stream().filter(cpf -> !deletedCpfs.contains(cpf)).toList());
+	}
+
+	@Transactional(readOnly = true)
 	public boolean existsByUserName(String userName) {
 		return iUserRepository.existsByUserName(userName);
 	}
 
+	@Transactional(readOnly = true)
 	public boolean existsByCpf(String cpf) {
 		return iUserRepository.existsByCpf(cpf);
 	}
 
+	@Transactional(readOnly = true)
 	public boolean existsByEmail(String email) {
 		return iUserRepository.existsByEmail(email);
 	}
 
+	// Single-user lookups fill the cache, so they stay on the primary instead of caching what a lagging replica returns
 	public Optional<UserEntity> findById(long id) {
-		return iUserRepository.findById(id);
+		return userCache.findById(id, () -> onPrimary(() -> iUserRepository.findById(id)));
 	}
 
 	public Optional<UserEntity> findByUserName(String userName) {
-		return iUserRepository.findByUserName(userName);
+		return userCache.findByUserName(userName, () -> onPrimary(() -> iUserRepository.findByUserName(userName)));
+	}
+
+	public Optional<UserEntity> findByCpf(String cpf) {
+		return userCache.findByCpf(cpf, () -> onPrimary(() -> iUserRepository.findByCpf(cpf)));
 	}
 
-	public boolean existUsersExludingId(List<UserEntity> userEntityList, long id) {
+	// One query per key type for whatever the cache cannot answer, then the answers are laid out in request order.
+	// It fills the cache too, so like the single-user lookups it stays on the primary
+	public UserLookupResultRecord lookup(UserLookupRecord userLookupRecord) {
+		Map<Long, UserEntity> usersById = userLookupRecord.ids().isEmpty() ? Map.of() :
+				userCache.findAllByIds(userLookupRecord.ids(), ids -> onPrimary(() -> iUserRepository.findAllByIdIn(ids.toArray(Long[]::new))));
+		Map<String, UserEntity> usersByUserName = userLookupRecord.userNames().isEmpty() ? Map.of() :
+				userCache.findAllByUserNames(userLookupRecord.userNames(), userNames -> onPrimary(() -> iUserRepository.findAllByUserNameIn(userNames.toArray(String[]::new))));
+		Map<String, UserEntity> usersByCpf = userLookupRecord.cpfs().isEmpty() ? Map.of() :
+				userCache.findAllByCpfs(userLookupRecord.cpfs(), cpfs -> onPrimary(() -> iUserRepository.findAllByCpfIn(cpfs.toArray(String[]::new))));
+
+		return new UserLookupResultRecord(lookupItems(userLookupRecord.ids(), usersById),
+				lookupItems(userLookupRecord.userNames(), usersByUserName),
+				lookupItems(userLookupRecord.cpfs(), usersByCpf));
+	}
 
-		List<UserEntity> filteredList = userEntityList
-				.stream()
-				.filter(x -> x.getId() != id)
-				.toList();
+	// The repository methods run read-only on their own and would be routed to a replica, a read-write transaction
+	// around the cache miss keeps them on the primary. Cache hits never get here, so they do not take a connection
+	private <T> T onPrimary(Supplier<T> query) {
+		return transactionTemplate.execute(status -> query.get());
+	}
 
-		return !filteredList.isEmpty();
+	private static <K> List<UserLookupItemRecord<K>> lookupItems(List<K> keys, Map<K, UserEntity> userEntityMap) {
+		return keys.stream().map(key -> UserLookupItemRecord.of(key, userEntityMap.get(key))).toList();
 	}
 
-	public Optional<UserEntity> findByCpf(String cpf) {
-		return iUserRepository.findByCpf(cpf);
+	public UserCacheStatsRecord cacheStats() {
+		return userCache.stats();
 	}
 
-	public List<UserEntity> findByFirstNameContains(String firstName) {
-		return iUserRepository.findByFirstNameContainsIgnoreCase(firstName);
+	@Transactional(readOnly = true)
+	public List<UserEntity> findByFirstNameContains(String firstName, Pageable pageable) {
+		return iUserRepository.findByFirstNameLike(Tools.containsPattern(firstName), pageable).getContent();
 	}
 
-	public List<UserEntity> findByLastNameContains(String lastName) {
-		return iUserRepository.findByLastNameContainsIgnoreCase(lastName);
+	@Transactional(readOnly = true)
+	public List<UserEntity> findByLastNameContains(String lastName, Pageable pageable) {
+		return iUserRepository.findByLastNameLike(Tools.containsPattern(lastName), pageable).getContent();
 	}
 
-	public List<UserEntity> findUserByEmailAndCpfDiffersToGiven(String email, String cpf) {
-		List<UserEntity> userModelList = iUserRepository.findUserByEmail(email);
-		return userModelList.stream()
-				.filter(x -> !cpf.equals(x.getCpf()))
-				.collect(Collectors.toList());
+	@Transactional(readOnly = true)
+	public List<UserSummaryRecord> findSummariesByFirstNameContains(String firstName, Pageable pageable) {
+		return iUserRepository.findSummariesByFirstNameLike(Tools.containsPattern(firstName), pageable).getContent();
 	}
 
-	public Page<UserEntity> findAll(Pageable pageable) {
-		return iUserRepository.findAll(pageable);
+	@Transactional(readOnly = true)
+	public List<UserSummaryRecord> findSummariesByLastNameContains(String lastName, Pageable pageable) {
+		return iUserRepository.findSummariesByLastNameLike(Tools.containsPattern(lastName), pageable).getContent();
 	}
 
-	public String validateUserData(UserEntity userEntity, boolean isNewUser) {
+	@Transactional(readOnly = true)
+	public Slice<UserEntity> searchByName(String name, Pageable pageable) {
+		return iUserRepository.findByFullNameLike(Tools.containsPattern(name), pageable);
+	}
 
-		if (isUserAgeAllowed(userEntity.getDateOfBirth())) {
-			return USER_LEGEND_AGE_NOT_ADMITED;
+	@Transactional(readOnly = true)
+	public Slice<UserEntity> searchByFirstAndLastName(String firstName, String lastName, Pageable pageable) {
+
+		if (Objects.isNull(lastName)) {
+			return iUserRepository.findByFirstNameLike(Tools.containsPattern(firstName), pageable);
 		}
+		if (Objects.isNull(firstName)) {
+			return iUserRepository.findByLastNameLike(Tools.containsPattern(lastName), pageable);
+		}
+
+		return iUserRepository.findByFirstNameLikeAndLastNameLike(Tools.containsPattern(firstName),
+				Tools.containsPattern(lastName), pageable);
+	}
 
-		String legendValidateUserName = validateUserName(userEntity, isNewUser);
-		if (!legendValidateUserName.isEmpty()) {
-			return legendValidateUserName;
+	@Transactional(readOnly = true)
+	public Slice<UserSummaryRecord> searchSummariesByName(String name, Pageable pageable) {
+		return iUserRepository.findSummariesByFullNameLike(Tools.containsPattern(name), pageable);
+	}
+
+	@Transactional(readOnly = true)
+	public Slice<UserSummaryRecord> searchSummariesByFirstAndLastName(String firstName, String lastName, Pageable pageable) {
+
+		if (Objects.isNull(lastName)) {
+			return iUserRepository.findSummariesByFirstNameLike(Tools.containsPattern(firstName), pageable);
 		}
+		if (Objects.isNull(firstName)) {
+			return iUserRepository.findSummariesByLastNameLike(Tools.containsPattern(lastName), pageable);
+		}
+
+		return iUserRepository.findSummariesByFirstNameLikeAndLastNameLike(Tools.containsPattern(firstName),
+				Tools.containsPattern(lastName), pageable);
+	}
+
+	@Transactional(readOnly = true)
+	public Page<UserEntity> findAll(Pageable pageable) {
+		return iUserRepository.findAll(pageable);
+	}
+
+	@Transactional(readOnly = true)
+	public Slice<UserEntity> findAllWithoutCount(Pageable pageable) {
+		return iUserRepository.findAllBy(pageable);
+	}
 
-		String legendValidateCpf = validateCpf(userEntity, isNewUser);
-		if (!legendValidateCpf.isEmpty()) {
-			return legendValidateCpf;
+	@Transactional(readOnly = true)
+	public Page<UserSummaryRecord> findAllSummaries(Pageable pageable) {
+		return iUserRepository.findAllSummaries(pageable);
+	}
+
+	@Transactional(readOnly = true)
+	public Slice<UserSummaryRecord> findAllSummariesWithoutCount(Pageable pageable) {
+		return iUserRepository.findAllSummariesBy(pageable);
+	}
+
+	/**
+	 * Keyset page of summaries in id order; a summary has no creationDate to build a creationDate cursor from.
+	 */
+	@Transactional(readOnly = true)
+	public Slice<UserSummaryRecord> findAllSummariesAfter(UserCursorRecord userCursorRecord, int size) {
+
+		if (Objects.isNull(userCursorRecord)) {
+			return iUserRepository.findAllSummariesBy(PageRequest.of(0, size, Sort.by(UserCursorRecord.ORDER_ID)));
 		}
 
-		return validateEmail(isNewUser, userEntity);
+		return iUserRepository.findAllSummariesAfterId(userCursorRecord.id(), PageRequest.ofSize(size));
 	}
 
-	private String validateUserName(UserEntity userEntity, boolean isNewUser) {
+	@Transactional(readOnly = true)
+	public Slice<UserEntity> findAllAfter(String order, UserCursorRecord userCursorRecord, int size) {
 
-		String userName = userEntity.getUserName();
-		if (isNewUser) {
-			if (existsByUserName(userName)) {
-				return USER_LEGEND_USERNAME_EXISTS;
-			}
-		} else {
-			if (existUsersExludingId(iUserRepository.findAllByUserName(userName), userEntity.getId())) {
-				return USER_LEGEND_USERNAME_EXISTS;
-			}
+		boolean byId = UserCursorRecord.ORDER_ID.equals(order);
+		if (Objects.isNull(userCursorRecord)) {
+			Sort sort = byId ? Sort.by(UserCursorRecord.ORDER_ID) : Sort.by(UserCursorRecord.ORDER_CREATION_DATE, UserCursorRecord.ORDER_ID);
+			return iUserRepository.findAllBy(PageRequest.of(0, size, sort));
 		}
 
-		return "";
+		return byId
+				? iUserRepository.findAllAfterId(userCursorRecord.id(), PageRequest.ofSize(size))
+				: iUserRepository.findAllAfterCreationDate(userCursorRecord.creationDate(), userCursorRecord.id(), PageRequest.ofSize(size));
 	}
 
-	private String validateCpf(UserEntity userEntity, boolean isNewUser) {
+	public String validateUserData(UserEntity userEntity, boolean isNewUser) {
 
-		String cpf = userEntity.getCpf();
+		long excludedId = isNewUser ? NEW_USER_ID : userEntity.getId();
 
-		if (!Tools.isValidCpf(cpf)) {
-			return USER_LEGEND_INVALID_CPF;
+		return validationLegend(userEntity, VALIDATED_FIELDS, true, () -> userMetrics.recordValidation(UserMetrics.STEP_CONFLICTS,
+				() -> iUserRepository.findConflicts(excludedId, userEntity.getUserName(), userEntity.getCpf(), userEntity.getEmail())));
+	}
+
+	/**
+	 * Validates a patched user, running only the checks of the fields in {@code changedFields} and asking the
+	 * conflicts query only about the unique keys that changed.
+	 */
+	public String validateChangedUserData(UserEntity userEntity, Set<String> changedFields) {
+
+		String userName = changedFields.contains(UserPatchRecord.FIELD_USER_NAME) ? userEntity.getUserName() : null;
+		String cpf = changedFields.contains(UserPatchRecord.FIELD_CPF) ? userEntity.getCpf() : null;
+		String email = changedFields.contains(UserPatchRecord.FIELD_EMAIL) ? userEntity.getEmail() : null;
+
+		return validationLegend(userEntity, changedFields, true, () -> Objects.isNull(userName) && Objects.isNull(cpf) && Objects.isNull(email)
+				? new UserConflictRecord(0, 0, 0)
+				: userMetrics.recordValidation(UserMetrics.STEP_CONFLICTS,
+						() -> iUserRepository.findConflicts(userEntity.getId(), userName, cpf, email)));
+	}
+
+	public List<String> validateUsersData(List<UserEntity> userEntityList) {
+
+		if (userEntityList.isEmpty()) {
+			return new ArrayList<>();
 		}
 
-		if (isNewUser) {
-			if (existsByCpf(cpf)) {
-				return USER_LEGEND_CPF_EXISTS;
+		Set<String> userNames = new HashSet<>();
+		Set<String> cpfs = new HashSet<>();
+		Set<String> emails = new HashSet<>();
+		for (UserEntity userEntity : userEntityList) {
+			userNames.add(userEntity.getUserName());
+			cpfs.add(userEntity.getCpf());
+			if (Objects.nonNull(userEntity.getEmail())) {
+				emails.add(userEntity.getEmail().toLowerCase(Locale.ROOT));
 			}
-		} else {
-			if (existUsersExludingId(iUserRepository.findAllByCpf(cpf), userEntity.getId())) {
-				return USER_LEGEND_CPF_EXISTS;
+		}
+
+		Set<String> takenUserNames = new HashSet<>(iUserRepository.findUserNamesIn(userNames));
+		Set<String> takenCpfs = new HashSet<>(iUserRepository.findCpfsIn(cpfs));
+		Set<String> takenEmails = emails.isEmpty() ? new HashSet<>() : new HashSet<>(iUserRepository.findEmailsIn(emails));
+
+		List<String> legends = new ArrayList<>(userEntityList.size());
+		for (UserEntity userEntity : userEntityList) {
+			String email = Objects.isNull(userEntity.getEmail()) ? null : userEntity.getEmail().toLowerCase(Locale.ROOT);
+			String legend = validationLegend(userEntity, VALIDATED_FIELDS, false, () -> UserConflictRecord.of(
+					takenUserNames.contains(userEntity.getUserName()),
+					takenCpfs.contains(userEntity.getCpf()),
+					Objects.nonNull(email) && takenEmails.contains(email)));
+			if (legend.isEmpty()) {
+				takenUserNames.add(userEntity.getUserName());
+				takenCpfs.add(userEntity.getCpf());
+				if (Objects.nonNull(email)) {
+					takenEmails.add(email);
+				}
 			}
+			legends.add(legend);
 		}
 
-		return "";
+		return legends;
 	}
 
-	private String validateEmail(boolean isNewUser, UserEntity userEntity) {
+	/**
+	 * The checks every write goes through, in the order their legends are reported. Only the fields in
+	 * {@code checkedFields} are checked, and {@code conflicts} is asked once the age passed: one conflicts query for a
+	 * single user, or the keys already taken for a user of a batch. Timed checks feed the validation metrics.
+	 */
+	private String validationLegend(UserEntity userEntity, Set<String> checkedFields, boolean timed, Supplier<UserConflictRecord> conflicts) {
+
+		if (checkedFields.contains(UserPatchRecord.FIELD_DATE_OF_BIRTH)
+				&& check(timed, UserMetrics.STEP_AGE, () -> AgeValidator.isUnderAge(userEntity.getDateOfBirth()))) {
+			return USER_LEGEND_AGE_NOT_ADMITED;
+		}
+
+		UserConflictRecord userConflictRecord = conflicts.get();
+
+		if (userConflictRecord.userNameTaken()) {
+			return USER_LEGEND_USERNAME_EXISTS;
+		}
+
+		if (checkedFields.contains(UserPatchRecord.FIELD_CPF)
+				&& !check(timed, UserMetrics.STEP_CPF, () -> Tools.isValidCpf(userEntity.getCpf()))) {
+			return USER_LEGEND_INVALID_CPF;
+		}
+
+		if (userConflictRecord.cpfTaken()) {
+			return USER_LEGEND_CPF_EXISTS;
+		}
 
 		String email = userEntity.getEmail();
-		if (Objects.nonNull(email)) {
-			if (!Tools.isValidEmail(email)) {
+		if (checkedFields.contains(UserPatchRecord.FIELD_EMAIL) && Objects.nonNull(email)) {
+			if (!check(timed, UserMetrics.STEP_EMAIL, () -> Tools.isValidEmail(email))) {
 				return USER_LEGEND_EMAIL_IS_INVALID;
 			}
 
-			if (isNewUser) {
-				if (existsByEmail(email)) {
-					return USER_LEGEND_EMAIL_ALREADY_ASSIGNED;
-				}
-			} else {
-				if (!findUserByEmailAndCpfDiffersToGiven(email, userEntity.getCpf()).isEmpty()) {
-					return USER_LEGEND_EMAIL_ALREADY_ASSIGNED;
-				}
+			if (userConflictRecord.emailTaken()) {
+				return USER_LEGEND_EMAIL_ALREADY_ASSIGNED;
 			}
 		}
 
 		return "";
 	}
 
-	private boolean isUserAgeAllowed(LocalDate dateOfBirth) {
-		LocalDate currentDate = LocalDate.now();
-		var period = Period.between(dateOfBirth, currentDate);
+	private boolean check(boolean timed, String step, BooleanSupplier check) {
+		return timed ? userMetrics.recordValidation(step, check) : check.getAsBoolean();
+	}
+
+	// Hibernate names the constraint a write broke, which tells the conflicts apart without parsing driver messages
+	private String conflictLegend(DataIntegrityViolationException e) {
 
-		return period.getYears() < Config.ALLOWED_AGE_USERS_REGISTRATION;
+		String constraintName = e.getCause() instanceof ConstraintViolationException constraintViolationException
+				? constraintViolationException.getConstraintName()
+				: null;
+		if (UserConstraints.USER_NAME.equals(constraintName)) {
+			return USER_LEGEND_USERNAME_EXISTS;
+		}
+		if (UserConstraints.CPF.equals(constraintName)) {
+			return USER_LEGEND_CPF_EXISTS;
+		}
+		if (UserConstraints.EMAIL.equals(constraintName)) {
+			return USER_LEGEND_EMAIL_ALREADY_ASSIGNED;
+		}
+
+		throw e;
+	}
+
+	private Optional<UserEntity> deleted(Optional<UserEntity> deletedOptional, LocalDateTime deletedAt, List<String> eTags, Object key,
+										 BooleanSupplier exists) {
+
+		if (deletedOptional.isPresent()) {
+			userCache.evict(deletedOptional.get());
+			entityManager.detach(deletedOptional.get());
+			userChangeStream.publishAfterCommit(List.of(UserChangeRecord.tombstone(deletedOptional.get().getId(), deletedAt)));
+			log.info("User deleted -> cpf:{}", deletedOptional.get().getCpf());
+		} else if (Objects.nonNull(eTags) && exists.getAsBoolean()) {
+			throw new ObjectOptimisticLockingFailureException(UserEntity.class, key);
+		}
+
+		return deletedOptional;
+	}
+
+	// PostgreSQL keeps microseconds, so a streamed tombstone carries the same cursor the feed reads back
+	private static LocalDateTime deletionTime() {
+		return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
 	}
 
+	// Subscribers serialize the change after the commit, so they get a copy the caller cannot modify meanwhile
+	private static UserChangeRecord changeOf(UserEntity userEntity) {
+		return UserChangeRecord.of(UserCache.copyOf(userEntity));
+	}
+
+	private static String[] toArray(List<String> eTags) {
+		return Objects.isNull(eTags) ? new String[0] : eTags.toArray(String[]::new);
+	}
 }
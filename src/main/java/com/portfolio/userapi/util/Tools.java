@@ -1,91 +1,57 @@
 package com.portfolio.userapi.util;
 
-import com.portfolio.userapi.config.Config;
+import com.portfolio.userapi.validation.CpfValidator;
+import com.portfolio.userapi.validation.EmailValidator;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.util.InputMismatchException;
-import java.util.regex.Pattern;
 
 public class Tools {
 	public static boolean isValidCpf(String cpf) {
-		cpf = removeCaracteresEspeciais(cpf);
-
-		// considera-se error CPF's formados por uma sequencia de numeros iguais
-		if (cpf.equals("00000000000") || cpf.equals("11111111111") || cpf.equals("22222222222") || cpf.equals("33333333333") || cpf.equals("44444444444") || cpf.equals("55555555555") || cpf.equals("66666666666") || cpf.equals("77777777777") || cpf.equals("88888888888") || cpf.equals("99999999999") || (cpf.length() != 11))
-			return (false);
-
-		char dig10, dig11;
-		int sm, i, r, num, peso;
-
-		// "try" - protege o codigo para eventuais erros de conversao de tipo (int)
-		try {
-			// Calculo do 1o. Digito Verificador
-			sm = 0;
-			peso = 10;
-			for (i = 0; i < 9; i++) {
-				// converte o i-esimo caractere do CPF em um numero:
-				// por exemplo, transforma o caractere '0' no inteiro 0
-				// (48 eh a posicao de '0' na tabela ASCII)
-				num = (int) (cpf.charAt(i) - 48);
-				sm = sm + (num * peso);
-				peso = peso - 1;
-			}
-
-			r = 11 - (sm % 11);
-			if ((r == 10) || (r == 11))
-				dig10 = '0';
-			else
-				dig10 = (char) (r + 48); // converte no respectivo caractere numerico
-
-			// Calculo do 2o. Digito Verificador
-			sm = 0;
-			peso = 11;
-			for (i = 0; i < 10; i++) {
-				num = (int) (cpf.charAt(i) - 48);
-				sm = sm + (num * peso);
-				peso = peso - 1;
-			}
-
-			r = 11 - (sm % 11);
-			if ((r == 10) || (r == 11))
-				dig11 = '0';
-			else
-				dig11 = (char) (r + 48);
-
-			// Verifica se os digitos calculados conferem com os digitos informados.
-			if ((dig10 == cpf.charAt(9)) && (dig11 == cpf.charAt(10)))
-				return (true);
-			else
-				return (false);
-		} catch (InputMismatchException error) {
-			return (false);
-		}
+		return CpfValidator.isValid(cpf);
 	}
 
 	public static String removeCaracteresEspeciais(String doc) {
-		if (doc.contains(".")) {
-			doc = doc.replace(".", "");
+		int i = 0;
+		while (i < doc.length() && !isSeparator(doc.charAt(i))) {
+			i++;
 		}
-		if (doc.contains("-")) {
-			doc = doc.replace("-", "");
+		if (i == doc.length()) {
+			return doc;
 		}
-		if (doc.contains("/")) {
-			doc = doc.replace("/", "");
+
+		StringBuilder builder = new StringBuilder(doc.length()).append(doc, 0, i);
+		for (; i < doc.length(); i++) {
+			char c = doc.charAt(i);
+			if (!isSeparator(c)) {
+				builder.append(c);
+			}
 		}
-		return doc;
+		return builder.toString();
 	}
 
 	public static boolean isValidEmail(String emailAddress) {
-		String regexPattern = Config.EMAIL_REGEXP_FORMAT;
+		return EmailValidator.isValid(emailAddress);
+	}
 
-		return Pattern.compile(regexPattern)
-				.matcher(emailAddress)
-				.matches();
+	public static String containsPattern(String text) {
+		StringBuilder pattern = new StringBuilder(text.length() + 2).append('%');
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c == '\\' || c == '%' || c == '_') {
+				pattern.append('\\');
+			}
+			pattern.append(c);
+		}
+		return pattern.append('%').toString();
 	}
 
 	public static LocalDateTime getLocalDateTime() {
 		return LocalDateTime.now(ZoneId.of("UTC"));
 	}
 
+	private static boolean isSeparator(char c) {
+		return c == '.' || c == '-' || c == '/';
+	}
+
 }
\ No newline at end of file
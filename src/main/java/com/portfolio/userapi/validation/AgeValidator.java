@@ -0,0 +1,44 @@
+package com.portfolio.userapi.validation;
+
+import com.portfolio.userapi.config.Config;
+
+import java.time.LocalDate;
+
+public final class AgeValidator {
+
+	private static volatile Cutoff cutoff = new Cutoff(LocalDate.MIN, LocalDate.MIN);
+
+	private AgeValidator() {
+	}
+
+	/**
+	 * Tells whether someone born on {@code dateOfBirth} is younger than {@link Config#ALLOWED_AGE_USERS_REGISTRATION}
+	 * years today. The latest admitted date of birth only changes once a day, so it is cached instead of building a
+	 * {@code Period} on every call.
+	 */
+	public static boolean isUnderAge(LocalDate dateOfBirth) {
+		LocalDate today = LocalDate.now();
+		Cutoff current = cutoff;
+		if (!current.today().equals(today)) {
+			current = new Cutoff(today, cutoffFor(today));
+			cutoff = current;
+		}
+		return dateOfBirth.isAfter(current.latestDateOfBirth());
+	}
+
+	/**
+	 * Same as {@link #isUnderAge(LocalDate)} on a given day. Equivalent to
+	 * {@code Period.between(dateOfBirth, today).getYears() < Config.ALLOWED_AGE_USERS_REGISTRATION},
+	 * including people born on February 29.
+	 */
+	public static boolean isUnderAge(LocalDate dateOfBirth, LocalDate today) {
+		return dateOfBirth.isAfter(cutoffFor(today));
+	}
+
+	private static LocalDate cutoffFor(LocalDate today) {
+		return today.minusYears(Config.ALLOWED_AGE_USERS_REGISTRATION);
+	}
+
+	private record Cutoff(LocalDate today, LocalDate latestDateOfBirth) {
+	}
+}
@@ -0,0 +1,70 @@
+package com.portfolio.userapi.validation;
+
+public final class CpfValidator {
+
+	private static final int CPF_LENGTH = 11;
+
+	private CpfValidator() {
+	}
+
+	/**
+	 * Validates the check digits of a CPF in a single pass, without allocating.
+	 * The '.', '-' and '/' separators are skipped and the remaining characters weighted exactly like the
+	 * original {@code Tools.isValidCpf}, so a CPF formed by one repeated digit or with a length other than 11 is
+	 * rejected.
+	 */
+	public static boolean isValid(String cpf) {
+		if (cpf == null) {
+			return false;
+		}
+
+		int length = 0;
+		int firstSum = 0;
+		int secondSum = 0;
+		char first = 0;
+		char tenth = 0;
+		char eleventh = 0;
+		boolean repeated = true;
+
+		for (int i = 0; i < cpf.length(); i++) {
+			char c = cpf.charAt(i);
+			if (c == '.' || c == '-' || c == '/') {
+				continue;
+			}
+			if (length == CPF_LENGTH) {
+				return false;
+			}
+
+			int num = c - '0';
+			if (length < 9) {
+				firstSum += num * (10 - length);
+			}
+			if (length < 10) {
+				secondSum += num * (11 - length);
+			}
+
+			if (length == 0) {
+				first = c;
+			} else if (c != first) {
+				repeated = false;
+			}
+			if (length == 9) {
+				tenth = c;
+			} else if (length == 10) {
+				eleventh = c;
+			}
+			length++;
+		}
+
+		if (length != CPF_LENGTH || (repeated && first >= '0' && first <= '9')) {
+			return false;
+		}
+
+		return checkDigit(firstSum) == tenth && checkDigit(secondSum) == eleventh;
+	}
+
+	private static char checkDigit(int sum) {
+		int r = 11 - (sum % 11);
+		return (r == 10 || r == 11) ? '0' : (char) (r + '0');
+	}
+}
@@ -0,0 +1,95 @@
+package com.portfolio.userapi.validation;
+
+public final class EmailValidator {
+
+	private static final String[] TOP_LEVEL_DOMAINS = {"com", "org", "net", "edu", "gov", "mil", "biz", "info",
+			"mobi", "name", "aero", "asia", "jobs", "museum"};
+
+	private EmailValidator() {
+	}
+
+	/**
+	 * Accepts the same addresses as {@code Config.EMAIL_REGEXP_FORMAT}: an empty string, or a local part of
+	 * {@code [a-zA-Z0-9._%+-]}, one '@', a domain of {@code [a-zA-Z0-9.-]} and, after its last '.', a two letter
+	 * or one of the listed top level domains. The address is scanned once, so the time is linear in its length.
+	 */
+	public static boolean isValid(String email) {
+		return isValid(email, false);
+	}
+
+	/**
+	 * Same as {@link #isValid(String)}, matching the listed top level domains regardless of case when
+	 * {@code ignoreCase} is set, like the regular expression compiled with {@code CASE_INSENSITIVE}.
+	 */
+	public static boolean isValid(String email, boolean ignoreCase) {
+		if (email == null) {
+			return false;
+		}
+
+		int length = email.length();
+		if (length == 0) {
+			return true;
+		}
+
+		int at = -1;
+		int lastDot = -1;
+		for (int i = 0; i < length; i++) {
+			char c = email.charAt(i);
+			if (c == '@') {
+				if (at >= 0) {
+					return false;
+				}
+				at = i;
+			} else if (at < 0) {
+				if (!isAlphanumeric(c) && c != '.' && c != '_' && c != '%' && c != '+' && c != '-') {
+					return false;
+				}
+			} else if (c == '.') {
+				lastDot = i;
+			} else if (!isAlphanumeric(c) && c != '-') {
+				return false;
+			}
+		}
+
+		if (at <= 0 || lastDot <= at + 1) {
+			return false;
+		}
+
+		return isTopLevelDomain(email, lastDot + 1, ignoreCase);
+	}
+
+	private static boolean isTopLevelDomain(String email, int start, boolean ignoreCase) {
+		int length = email.length() - start;
+		if (length == 2) {
+			return isLetter(email.charAt(start)) && isLetter(email.charAt(start + 1));
+		}
+		for (String topLevelDomain : TOP_LEVEL_DOMAINS) {
+			if (topLevelDomain.length() == length && matches(email, start, topLevelDomain, ignoreCase)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// ASCII only, String.regionMatches would also fold characters such as 'ſ' that the regular expression does not
+	private static boolean matches(String email, int start, String topLevelDomain, boolean ignoreCase) {
+		for (int i = 0; i < topLevelDomain.length(); i++) {
+			char c = email.charAt(start + i);
+			if (ignoreCase && c >= 'A' && c <= 'Z') {
+				c = (char) (c + ('a' - 'A'));
+			}
+			if (c != topLevelDomain.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isLetter(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+	}
+
+	private static boolean isAlphanumeric(char c) {
+		return isLetter(c) || (c >= '0' && c <= '9');
+	}
+}
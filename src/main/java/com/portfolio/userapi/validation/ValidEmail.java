@@ -0,0 +1,28 @@
+package com.portfolio.userapi.validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The annotated string must be accepted by {@link EmailValidator}. {@code null} is considered valid.
+ */
+@Documented
+@Constraint(validatedBy = ValidEmailConstraintValidator.class)
+@Target({ElementType.FIELD, ElementType.METHOD, ElementType.PARAMETER, ElementType.ANNOTATION_TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ValidEmail {
+
+	String message() default "{jakarta.validation.constraints.Email.message}";
+
+	Class<?>[] groups() default {};
+
+	Class<? extends Payload>[] payload() default {};
+
+	boolean ignoreCase() default false;
+}
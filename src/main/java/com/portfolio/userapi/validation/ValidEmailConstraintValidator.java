@@ -0,0 +1,19 @@
+package com.portfolio.userapi.validation;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+public class ValidEmailConstraintValidator implements ConstraintValidator<ValidEmail, String> {
+
+	private boolean ignoreCase;
+
+	@Override
+	public void initialize(ValidEmail validEmail) {
+		ignoreCase = validEmail.ignoreCase();
+	}
+
+	@Override
+	public boolean isValid(String email, ConstraintValidatorContext context) {
+		return email == null || EmailValidator.isValid(email, ignoreCase);
+	}
+}
@@ -0,0 +1,30 @@
+-- The schema Hibernate generated for UserEntity and UserTombstoneEntity. The unique constraints keep the
+-- names Hibernate gave them, so databases created with ddl-auto=update are baselined at this version as they are.
+CREATE SEQUENCE IF NOT EXISTS tb_user_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS tb_user (
+	id BIGINT NOT NULL,
+	cpf VARCHAR(11) NOT NULL,
+	creation_date TIMESTAMP(6),
+	date_of_birth DATE NOT NULL,
+	email VARCHAR(50),
+	first_name VARCHAR(100) NOT NULL,
+	last_name VARCHAR(100) NOT NULL,
+	update_date TIMESTAMP(6),
+	user_name VARCHAR(20) NOT NULL,
+	version BIGINT DEFAULT 0 NOT NULL,
+	CONSTRAINT tb_user_pkey PRIMARY KEY (id),
+	CONSTRAINT uk869sa3rebuf3nm0d4jwxdtouk UNIQUE (cpf),
+	CONSTRAINT ukdx61ph83p21e9y80scx92i39p UNIQUE (user_name)
+);
+
+CREATE INDEX IF NOT EXISTS idx_tb_user_creation_date_id ON tb_user (creation_date, id);
+CREATE INDEX IF NOT EXISTS idx_tb_user_update_date_id ON tb_user (update_date, id);
+
+CREATE TABLE IF NOT EXISTS tb_user_tombstone (
+	user_id BIGINT NOT NULL,
+	deleted_at TIMESTAMP(6) NOT NULL,
+	CONSTRAINT tb_user_tombstone_pkey PRIMARY KEY (user_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_tb_user_tombstone_deleted_at_user_id ON tb_user_tombstone (deleted_at, user_id);
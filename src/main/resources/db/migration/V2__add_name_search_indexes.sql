@@ -0,0 +1,5 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_tb_user_first_name_trgm ON tb_user USING gin (first_name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_tb_user_last_name_trgm ON tb_user USING gin (last_name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_tb_user_full_name_trgm ON tb_user USING gin ((first_name || ' ' || last_name) gin_trgm_ops);
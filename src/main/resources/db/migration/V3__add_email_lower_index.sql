@@ -0,0 +1,3 @@
+-- Emails are compared case-insensitively, so existsByEmail, findConflicts and findEmailsIn all look up lower(email).
+-- It is not unique: emails were never unique in the schema and existing rows may differ only by case
+CREATE INDEX IF NOT EXISTS idx_tb_user_email_lower ON tb_user (lower(email));
@@ -0,0 +1,11 @@
+-- Responses of POST /user/add kept by Idempotency-Key, when user-api.idempotency.database-store is on
+CREATE TABLE IF NOT EXISTS tb_user_idempotency_key (
+	idempotency_key VARCHAR(255) NOT NULL,
+	request_hash VARCHAR(64) NOT NULL,
+	response_status INTEGER NOT NULL,
+	response_body TEXT NOT NULL,
+	created_at TIMESTAMP(6) NOT NULL,
+	CONSTRAINT tb_user_idempotency_key_pkey PRIMARY KEY (idempotency_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_tb_user_idempotency_key_created_at ON tb_user_idempotency_key (created_at);
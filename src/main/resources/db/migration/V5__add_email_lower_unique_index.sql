@@ -0,0 +1,21 @@
+-- Emails are unique regardless of case, enforced here so concurrent registrations cannot both take one.
+-- Rows that repeat an email already held by an older user, ignoring case, lose it and are reported first.
+DO $$
+DECLARE
+	duplicate RECORD;
+BEGIN
+	FOR duplicate IN
+		SELECT id, email FROM (
+			SELECT id, email, row_number() OVER (PARTITION BY lower(email) ORDER BY id) AS position
+			FROM tb_user
+			WHERE email IS NOT NULL
+		) ranked
+		WHERE position > 1
+	LOOP
+		RAISE NOTICE 'Clearing duplicate email % of user %', duplicate.email, duplicate.id;
+		UPDATE tb_user SET email = NULL WHERE id = duplicate.id;
+	END LOOP;
+END $$;
+
+DROP INDEX IF EXISTS idx_tb_user_email_lower;
+CREATE UNIQUE INDEX IF NOT EXISTS uk_tb_user_email_lower ON tb_user (lower(email));
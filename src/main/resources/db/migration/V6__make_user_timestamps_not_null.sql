@@ -0,0 +1,10 @@
+-- The creationDate pages and the change feed walk (creation_date, id) and (update_date, id) with row-value
+-- comparisons, which never return a row whose timestamp is null. Rows written before Hibernate stamped both get
+-- whichever of the two they have, or the epoch, so they sort first instead of being skipped.
+UPDATE tb_user
+SET creation_date = coalesce(creation_date, update_date, timestamp '1970-01-01'),
+	update_date = coalesce(update_date, creation_date, timestamp '1970-01-01')
+WHERE creation_date IS NULL OR update_date IS NULL;
+
+ALTER TABLE tb_user ALTER COLUMN creation_date SET NOT NULL;
+ALTER TABLE tb_user ALTER COLUMN update_date SET NOT NULL;
@@ -0,0 +1,233 @@
+package com.portfolio.userapi.benchmark;
+
+import com.portfolio.userapi.UserApiApplication;
+import com.portfolio.userapi.config.Config;
+import com.portfolio.userapi.dto.UserDeleteBatchRecord;
+import com.portfolio.userapi.entity.UserEntity;
+import com.portfolio.userapi.service.UserService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+
+/**
+ * Compares the UserController endpoints served by platform threads and by virtual threads under
+ * the same burst of concurrent clients. Run with {@code mvn test -Pbenchmark}; the burst is tuned
+ * with {@code -Dbenchmark.concurrency}, {@code -Dbenchmark.requests} and {@code -Dbenchmark.users}.
+ * The lookups and searches go to users seeded before the bursts and deleted after them, so they
+ * find what they ask for instead of measuring 404s.
+ */
+@Tag("benchmark")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ConcurrencyBenchmarkTest {
+	private static final Logger log = LoggerFactory.getLogger(ConcurrencyBenchmarkTest.class);
+
+	private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 2000);
+	private static final int REQUESTS = Integer.getInteger("benchmark.requests", 20000);
+	private static final int USERS = Integer.getInteger("benchmark.users", 2000);
+	private static final int NAME_GROUPS = 100;
+	private static final LocalDate FIRST_DATE_OF_BIRTH = LocalDate.of(1960, 1, 1);
+
+	// Base 36 seconds keep user names of different runs apart and within the 20 characters of userName
+	private final String runId = Long.toString(System.currentTimeMillis() / 1000 % 60_466_176, 36);
+	private final List<UserEntity> seededUsers = new ArrayList<>();
+	private ConfigurableApplicationContext seedContext;
+
+	@BeforeAll
+	void seed() {
+		seedContext = new SpringApplicationBuilder(UserApiApplication.class)
+				.web(WebApplicationType.NONE)
+				.run("--spring.jpa.properties.hibernate.show_sql=false");
+		UserService userService = seedContext.getBean(UserService.class);
+
+		for (int from = 0; from < USERS; from += Config.BATCH_FLUSH_SIZE) {
+			List<UserEntity> batch = new ArrayList<>(Config.BATCH_FLUSH_SIZE);
+			for (int i = from; i < Math.min(from + Config.BATCH_FLUSH_SIZE, USERS); i++) {
+				batch.add(newUser(i));
+			}
+
+			// A CPF can clash with one already stored; that user is simply not seeded
+			List<String> legends = userService.validateUsersData(batch);
+			List<UserEntity> accepted = new ArrayList<>(batch.size());
+			for (int i = 0; i < batch.size(); i++) {
+				if (legends.get(i).isEmpty()) {
+					accepted.add(batch.get(i));
+				}
+			}
+			seededUsers.addAll(userService.saveAll(accepted));
+		}
+
+		assertThat(seededUsers.size(), greaterThan(0));
+		log.info("Seeded {} users for run {}", seededUsers.size(), runId);
+	}
+
+	@AfterAll
+	void cleanUp() {
+		try (ConfigurableApplicationContext context = seedContext) {
+			UserService userService = context.getBean(UserService.class);
+			List<Long> ids = seededUsers.stream().map(UserEntity::getId).toList();
+			for (int from = 0; from < ids.size(); from += Config.MAX_DELETE_BATCH_SIZE) {
+				userService.deleteAll(new UserDeleteBatchRecord(ids.subList(from, Math.min(from + Config.MAX_DELETE_BATCH_SIZE, ids.size())), null, null));
+			}
+			log.info("Deleted the users of run {}", runId);
+		}
+	}
+
+	@Test
+	void compare_platform_and_virtual_threads() throws Exception {
+		BenchmarkResult platformThreads = run(false);
+		BenchmarkResult virtualThreads = run(true);
+
+		log.info("{}", platformThreads);
+		log.info("{}", virtualThreads);
+
+		assertThat(platformThreads.completed(), greaterThan(0L));
+		assertThat(virtualThreads.completed(), greaterThan(0L));
+	}
+
+	private BenchmarkResult run(boolean virtualThreadsEnabled) throws Exception {
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(UserApiApplication.class)
+				.run("--server.port=0",
+						"--spring.threads.virtual.enabled=" + virtualThreadsEnabled,
+						"--user-api.rate-limit.enabled=false",
+						"--spring.jpa.properties.hibernate.show_sql=false")) {
+			String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+			String mode = virtualThreadsEnabled ? "virtual threads" : "platform threads";
+
+			burst(baseUrl, mode, Math.min(REQUESTS, 2000));
+			return burst(baseUrl, mode, REQUESTS);
+		}
+	}
+
+	private BenchmarkResult burst(String baseUrl, String mode, int requests) throws Exception {
+		HttpClient httpClient = HttpClient.newBuilder()
+				.executor(Executors.newVirtualThreadPerTaskExecutor())
+				.connectTimeout(Duration.ofSeconds(30))
+				.build();
+		AtomicLong next = new AtomicLong();
+		AtomicLong failures = new AtomicLong();
+		long[] latencies = new long[requests];
+
+		long start = System.nanoTime();
+		try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+			List<Future<?>> futures = new ArrayList<>(CONCURRENCY);
+			for (int client = 0; client < CONCURRENCY; client++) {
+				futures.add(clients.submit(() -> {
+					for (long i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+						String path = path(i);
+						long requestStart = System.nanoTime();
+						try {
+							HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+									.timeout(Duration.ofSeconds(60)).build(), HttpResponse.BodyHandlers.discarding());
+							if (response.statusCode() / 100 != 2) {
+								failures.incrementAndGet();
+							}
+						} catch (Exception e) {
+							failures.incrementAndGet();
+						}
+						latencies[(int) i] = System.nanoTime() - requestStart;
+					}
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		long elapsed = System.nanoTime() - start;
+
+		Arrays.sort(latencies);
+		// Only successful requests count towards throughput, so a mode that sheds load does not look faster
+		long completed = requests - failures.get();
+		return new BenchmarkResult(mode, completed, failures.get(),
+				completed / (elapsed / 1_000_000_000.0),
+				percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999));
+	}
+
+	private String path(long i) {
+		UserEntity userEntity = seededUsers.get((int) (i / 4 % seededUsers.size()));
+
+		return switch ((int) (i % 4)) {
+			case 0 -> "/user/all?after=&size=20";
+			case 1 -> "/user/username/" + userEntity.getUserName();
+			case 2 -> "/user/cpf/" + userEntity.getCpf();
+			default -> "/user/search?name=" + userEntity.getFirstName() + "&size=20";
+		};
+	}
+
+	private UserEntity newUser(int index) {
+		UserEntity userEntity = new UserEntity();
+		userEntity.setUserName("bm" + runId + "-" + index);
+		userEntity.setCpf(cpf(index));
+		// Each first name is shared by about 1% of the users, so a search returns a full page
+		userEntity.setFirstName("Benchfn" + String.format("%02d", index % NAME_GROUPS));
+		userEntity.setLastName("Benchln" + String.format("%02d", index / NAME_GROUPS % NAME_GROUPS));
+		userEntity.setDateOfBirth(FIRST_DATE_OF_BIRTH.plusDays(index % 10_000));
+		userEntity.setEmail(userEntity.getUserName() + "@benchmark.com");
+		return userEntity;
+	}
+
+	// A valid CPF per index of the run, its nine base digits spread over the run id
+	private String cpf(int index) {
+		long base = (Long.parseLong(runId, 36) * 7919 + index) % 1_000_000_000L;
+		int[] digits = new int[11];
+		for (int i = 8; i >= 0; i--, base /= 10) {
+			digits[i] = (int) (base % 10);
+		}
+		digits[9] = checkDigit(digits, 9);
+		digits[10] = checkDigit(digits, 10);
+
+		StringBuilder cpf = new StringBuilder(11);
+		for (int digit : digits) {
+			cpf.append(digit);
+		}
+		return cpf.toString();
+	}
+
+	private static int checkDigit(int[] digits, int length) {
+		int sum = 0;
+		for (int i = 0; i < length; i++) {
+			sum += digits[i] * (length + 1 - i);
+		}
+		int remainder = sum % 11;
+		return remainder < 2 ? 0 : 11 - remainder;
+	}
+
+	private static double percentile(long[] sortedLatencies, double percentile) {
+		int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+		return sortedLatencies[Math.max(index, 0)] / 1_000_000.0;
+	}
+
+	private record BenchmarkResult(String mode, long completed, long failed, double requestsPerSecond,
+								   double p50Millis, double p99Millis, double p999Millis) {
+
+		@Override
+		public String toString() {
+			return String.format("%-16s completed=%d failed=%d throughput=%.0f req/s p50=%.1fms p99=%.1fms p99.9=%.1fms",
+					mode, completed, failed, requestsPerSecond, p50Millis, p99Millis, p999Millis);
+		}
+	}
+}
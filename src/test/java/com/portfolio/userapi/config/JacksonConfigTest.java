@@ -0,0 +1,81 @@
+package com.portfolio.userapi.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.portfolio.userapi.dto.UserPageRecord;
+import com.portfolio.userapi.entity.UserEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+class JacksonConfigTest {
+
+	private final JacksonConfig jacksonConfig = new JacksonConfig();
+
+	private UserPageRecord userPageRecord;
+
+	@BeforeEach
+	void setUp() {
+		UserEntity userEntity = new UserEntity();
+		userEntity.setId(1L);
+		userEntity.setUserName("userFake");
+		userEntity.setFirstName("First");
+		userEntity.setEmail("user@fake.com");
+		userEntity.setDateOfBirth(LocalDate.of(1990, 1, 31));
+		userPageRecord = new UserPageRecord(0, 1L, 1, null, List.of(userEntity));
+	}
+
+	@Test
+	void should_write_user_pages_as_cbor_smaller_than_json() throws IOException {
+		byte[] json = builder().build().writeValueAsBytes(userPageRecord);
+		AbstractJackson2HttpMessageConverter cborConverter = jacksonConfig.cborHttpMessageConverter(builder());
+
+		byte[] cbor = write(cborConverter, MediaType.APPLICATION_CBOR, userPageRecord);
+		JsonNode user = cborConverter.getObjectMapper().readTree(cbor).get("userList").get(0);
+
+		assertThat(user.get("userName").asText(), is("userFake"));
+		assertThat(user.get("dateOfBirth").asText(), is("1990-01-31"));
+		assertThat(cbor.length, lessThan(json.length));
+	}
+
+	@Test
+	void should_apply_sparse_fieldsets_to_smile() throws IOException {
+		AbstractJackson2HttpMessageConverter smileConverter = jacksonConfig.smileHttpMessageConverter(builder());
+		MappingJacksonValue mappingJacksonValue = new MappingJacksonValue(userPageRecord);
+		mappingJacksonValue.setFilters(new SimpleFilterProvider()
+				.addFilter(Config.USER_FIELDS_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(Set.of("id", "userName"))));
+
+		byte[] smile = write(smileConverter, new MediaType("application", "x-jackson-smile"), mappingJacksonValue);
+		JsonNode user = smileConverter.getObjectMapper().readTree(smile).get("userList").get(0);
+
+		assertThat(user.get("userName").asText(), is("userFake"));
+		assertThat(user.has("email"), is(false));
+	}
+
+	// The builder Boot hands out, with this application's customizations
+	private Jackson2ObjectMapperBuilder builder() {
+		Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder().modulesToInstall(jacksonConfig.jsonNullableModule());
+		jacksonConfig.userFieldsFilterCustomizer().customize(builder);
+		return builder;
+	}
+
+	private static byte[] write(AbstractJackson2HttpMessageConverter converter, MediaType mediaType, Object body) throws IOException {
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		converter.write(body, mediaType, outputMessage);
+		return outputMessage.getBodyAsBytes();
+	}
+}
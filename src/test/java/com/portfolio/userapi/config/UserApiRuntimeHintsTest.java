@@ -0,0 +1,41 @@
+package com.portfolio.userapi.config;
+
+import com.portfolio.userapi.dto.UserLookupResultRecord;
+import com.portfolio.userapi.entity.UserEntity;
+import com.portfolio.userapi.validation.ValidEmailConstraintValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class UserApiRuntimeHintsTest {
+
+	private final RuntimeHints hints = new RuntimeHints();
+
+	@BeforeEach
+	void setUp() {
+		new UserApiRuntimeHints().registerHints(hints, getClass().getClassLoader());
+	}
+
+	@Test
+	void should_let_jackson_bind_the_entities_and_records() {
+		assertThat(RuntimeHintsPredicates.reflection().onMethod(UserEntity.class, "getUserName").test(hints), is(true));
+		assertThat(RuntimeHintsPredicates.reflection().onMethod(UserLookupResultRecord.class, "ids").test(hints), is(true));
+	}
+
+	@Test
+	void should_let_hibernate_validator_create_the_email_constraint_validator() {
+		assertThat(RuntimeHintsPredicates.reflection().onType(ValidEmailConstraintValidator.class)
+				.withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints), is(true));
+	}
+
+	@Test
+	void should_allow_the_lazy_connection_proxy() {
+		assertThat(RuntimeHintsPredicates.proxies().forInterfaces(ConnectionProxy.class).test(hints), is(true));
+	}
+}
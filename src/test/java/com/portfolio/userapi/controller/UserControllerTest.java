@@ -1,8 +1,23 @@
 package com.portfolio.userapi.controller;
 
+import com.portfolio.userapi.config.Config;
+import com.portfolio.userapi.dto.UserBatchResultRecord;
+import com.portfolio.userapi.dto.UserChangeCursorRecord;
+import com.portfolio.userapi.dto.UserChangePageRecord;
+import com.portfolio.userapi.dto.UserCursorRecord;
+import com.portfolio.userapi.dto.UserDeleteBatchRecord;
+import com.portfolio.userapi.dto.UserDeleteBatchResultRecord;
+import com.portfolio.userapi.dto.UserLookupItemRecord;
+import com.portfolio.userapi.dto.UserLookupRecord;
+import com.portfolio.userapi.dto.UserLookupResultRecord;
 import com.portfolio.userapi.dto.UserPageRecord;
+import com.portfolio.userapi.dto.UserPatchRecord;
 import com.portfolio.userapi.dto.UserSaveRecord;
+import com.portfolio.userapi.dto.UserSummaryRecord;
 import com.portfolio.userapi.entity.UserEntity;
+import com.portfolio.userapi.service.UserChangeService;
+import com.portfolio.userapi.service.UserExportService;
+import com.portfolio.userapi.service.UserIdempotencyService;
 import com.portfolio.userapi.service.UserService;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validation;
@@ -17,17 +32,26 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.MockitoAnnotations;
+import org.openapitools.jackson.nullable.JsonNullable;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
@@ -37,11 +61,13 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -52,6 +78,15 @@ public class UserControllerTest {
 	@Mock
 	private UserService userServiceMock;
 
+	@Mock
+	private UserExportService userExportServiceMock;
+
+	@Mock
+	private UserChangeService userChangeServiceMock;
+
+	@Mock
+	private UserIdempotencyService userIdempotencyServiceMock;
+
 	@Mock
 	private ValidatorFactoryImpl validatorFactoryImpMock;
 
@@ -72,6 +107,9 @@ public class UserControllerTest {
 	@AfterEach
 	void tearDown() {
 		verifyNoMoreInteractions(userServiceMock);
+		verifyNoMoreInteractions(userExportServiceMock);
+		verifyNoMoreInteractions(userChangeServiceMock);
+		verifyNoMoreInteractions(userIdempotencyServiceMock);
 		verifyNoMoreInteractions(validatorFactoryImpMock);
 		verifyNoMoreInteractions(validatorImpMock);
 		validationMock.close();
@@ -100,7 +138,7 @@ public class UserControllerTest {
 		when(userServiceMock.validateUserData(any(UserEntity.class), eq(true))).thenReturn(StringUtils.EMPTY);
 		when(userServiceMock.save(any(UserEntity.class))).thenReturn(userEntity);
 
-		ResponseEntity<Object> responseEntity = userController.addUser(userSaveRecord);
+		ResponseEntity<Object> responseEntity = userController.addUser(userSaveRecord, null);
 
 		verify(userServiceMock).validateUserData((any(UserEntity.class)), eq(true));
 		verify(userServiceMock).save(any(UserEntity.class));
@@ -119,6 +157,38 @@ public class UserControllerTest {
 		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.CREATED.value()));
 	}
 
+	@Test
+	public void should_add_an_user_through_the_idempotency_service_when_a_key_is_sent() {
+		UserSaveRecord userSaveRecord = new UserSaveRecord("userFake",
+				"1234567890",
+				"firstNameFake",
+				"lastNameFake",
+				LocalDate.of(1999, 12, 31),
+				"updated@fake.com");
+		ResponseEntity<Object> replayed = ResponseEntity.status(HttpStatus.CREATED).body(new UserEntity());
+		when(userIdempotencyServiceMock.execute(eq("retry-1"), eq(userSaveRecord), any())).thenReturn(replayed);
+
+		ResponseEntity<Object> responseEntity = userController.addUser(userSaveRecord, "retry-1");
+
+		assertThat(responseEntity, is(replayed));
+		verify(userIdempotencyServiceMock).execute(eq("retry-1"), eq(userSaveRecord), any());
+	}
+
+	@Test
+	public void should_reject_an_invalid_idempotency_key() {
+		UserSaveRecord userSaveRecord = new UserSaveRecord("userFake",
+				"1234567890",
+				"firstNameFake",
+				"lastNameFake",
+				LocalDate.of(1999, 12, 31),
+				"updated@fake.com");
+
+		ResponseStatusException responseStatusException = assertThrows(ResponseStatusException.class,
+				() -> userController.addUser(userSaveRecord, "key with spaces"));
+
+		assertThat(responseStatusException.getStatusCode().value(), is(HttpStatus.BAD_REQUEST.value()));
+	}
+
 	@Test
 	public void should_not_add_an_user_when_exists_conflicts() {
 		UserSaveRecord userSaveRecord = new UserSaveRecord("userFake",
@@ -141,7 +211,7 @@ public class UserControllerTest {
 
 		when(userServiceMock.validateUserData(any(UserEntity.class), eq(true))).thenReturn("There are conflicts");
 
-		ResponseEntity<Object> responseEntity = userController.addUser(userSaveRecord);
+		ResponseEntity<Object> responseEntity = userController.addUser(userSaveRecord, null);
 
 		assertThat(responseEntity.getBody(), is("There are conflicts"));
 		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.UNPROCESSABLE_ENTITY.value()));
@@ -149,6 +219,52 @@ public class UserControllerTest {
 		verify(userServiceMock).validateUserData((any(UserEntity.class)), eq(true));
 	}
 
+	@Test
+	public void should_report_the_result_of_each_user_when_a_batch_is_added() {
+		UserSaveRecord validRecord = new UserSaveRecord("userFake",
+				"1234567890",
+				"firstNameFake",
+				"lastNameFake",
+				LocalDate.of(1999, 12, 31),
+				"fake@fake.com");
+		UserSaveRecord conflictingRecord = new UserSaveRecord("otherUserFake",
+				"0987654321",
+				"firstNameFake",
+				"lastNameFake",
+				LocalDate.of(1999, 12, 31),
+				null);
+
+		UserEntity userEntity = new UserEntity();
+		userEntity.setId(7L);
+
+		when(validatorImpMock.validate(any(UserSaveRecord.class))).thenReturn(new HashSet<>());
+		when(userServiceMock.validateUsersData(anyList())).thenReturn(Arrays.asList(StringUtils.EMPTY, "Invalid CPF!"));
+		when(userServiceMock.saveAll(anyList())).thenReturn(List.of(userEntity));
+
+		ResponseEntity<Object> responseEntity = userController.addUsers(Arrays.asList(validRecord, null, conflictingRecord));
+
+		verify(validatorImpMock, times(2)).validate(any(UserSaveRecord.class));
+		verify(userServiceMock).validateUsersData(anyList());
+		verify(userServiceMock).saveAll(anyList());
+
+		List<UserBatchResultRecord> results = (List<UserBatchResultRecord>) responseEntity.getBody();
+
+		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.OK.value()));
+		assertThat(results.size(), is(3));
+		assertThat(results.get(0), is(new UserBatchResultRecord(0, HttpStatus.CREATED.value(), "", 7L)));
+		assertThat(results.get(1), is(new UserBatchResultRecord(1, HttpStatus.UNPROCESSABLE_ENTITY.value(), "User data is missing", null)));
+		assertThat(results.get(2), is(new UserBatchResultRecord(2, HttpStatus.UNPROCESSABLE_ENTITY.value(), "Invalid CPF!", null)));
+	}
+
+	@Test
+	public void should_not_add_a_batch_when_it_exceeds_the_maximum_size() {
+		List<UserSaveRecord> userSaveRecordList = Collections.nCopies(Config.MAX_BATCH_SIZE + 1, null);
+
+		ResponseEntity<Object> responseEntity = userController.addUsers(userSaveRecordList);
+
+		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.UNPROCESSABLE_ENTITY.value()));
+	}
+
 	@Test
 	public void should_return_a_records_page_when_all_users_are_consulted() {
 		UserEntity userEntity = new UserEntity();
@@ -167,9 +283,9 @@ public class UserControllerTest {
 
 		when(userServiceMock.findAll(any(PageRequest.class))).thenReturn(pageUsers);
 
-		ResponseEntity<UserPageRecord> responseEntity = userController.getAllUsers(0, 10);
+		ResponseEntity<Object> responseEntity = userController.getAllUsers(0, 10, null, "id", true, null);
 
-		UserPageRecord userPageRecord = responseEntity.getBody();
+		UserPageRecord userPageRecord = (UserPageRecord) responseEntity.getBody();
 
 		assertThat(userPageRecord.actualPage(), is(0));
 		assertThat(userPageRecord.totalPages(), is(1));
@@ -182,11 +298,129 @@ public class UserControllerTest {
 		verify(userServiceMock).findAll(any(PageRequest.class));
 	}
 
+	@Test
+	public void should_return_a_records_page_without_totals_when_they_are_not_requested() {
+		UserEntity userEntity = new UserEntity();
+		userEntity.setId(1L);
+
+		when(userServiceMock.findAllWithoutCount(any(PageRequest.class)))
+				.thenReturn(new SliceImpl<>(List.of(userEntity), PageRequest.of(0, 10), false));
+
+		ResponseEntity<Object> responseEntity = userController.getAllUsers(0, 10, null, "id", false, null);
+
+		UserPageRecord userPageRecord = (UserPageRecord) responseEntity.getBody();
+
+		assertThat(userPageRecord.actualPage(), is(0));
+		assertNull(userPageRecord.totalRecords());
+		assertNull(userPageRecord.totalPages());
+		assertThat(userPageRecord.userList().size(), is(1));
+
+		verify(userServiceMock).findAllWithoutCount(any(PageRequest.class));
+	}
+
+	@Test
+	public void should_return_the_next_cursor_when_all_users_are_consulted_by_cursor() {
+		UserEntity userEntity = new UserEntity();
+		userEntity.setId(42L);
+		UserCursorRecord userCursorRecord = new UserCursorRecord("id", null, 41L);
+
+		when(userServiceMock.findAllAfter("id", userCursorRecord, 1))
+				.thenReturn(new SliceImpl<>(List.of(userEntity), PageRequest.ofSize(1), true));
+
+		ResponseEntity<Object> responseEntity = userController.getAllUsers(0, 1, userCursorRecord.encode(), "id", true, null);
+
+		UserPageRecord userPageRecord = (UserPageRecord) responseEntity.getBody();
+
+		assertNull(userPageRecord.actualPage());
+		assertNull(userPageRecord.totalRecords());
+		assertThat(UserCursorRecord.decode(userPageRecord.nextCursor()).orElseThrow().id(), is(42L));
+		assertThat(userPageRecord.userList().size(), is(1));
+
+		verify(userServiceMock).findAllAfter("id", userCursorRecord, 1);
+	}
+
+	@Test
+	public void should_read_only_the_summary_columns_when_the_fields_are_within_the_summary() {
+		UserSummaryRecord userSummaryRecord = new UserSummaryRecord(1L, "userFake", "First Name", "Last Name");
+
+		when(userServiceMock.findAllSummariesWithoutCount(any(PageRequest.class)))
+				.thenReturn(new SliceImpl<>(List.of(userSummaryRecord), PageRequest.of(0, 10), false));
+
+		ResponseEntity<Object> responseEntity = userController.getAllUsers(0, 10, null, "id", false, Set.of("id", "userName"));
+
+		MappingJacksonValue mappingJacksonValue = (MappingJacksonValue) responseEntity.getBody();
+		UserPageRecord userPageRecord = (UserPageRecord) mappingJacksonValue.getValue();
+
+		assertThat(userPageRecord.userList(), is(List.of(userSummaryRecord)));
+		assertNotNull(mappingJacksonValue.getFilters().findPropertyFilter(Config.USER_FIELDS_FILTER, null));
+
+		verify(userServiceMock).findAllSummariesWithoutCount(any(PageRequest.class));
+	}
+
+	@Test
+	public void should_read_the_full_user_when_the_fields_are_outside_the_summary() {
+		when(userServiceMock.searchByName("john smi", PageRequest.of(0, 20)))
+				.thenReturn(new SliceImpl<>(List.of(new UserEntity()), PageRequest.of(0, 20), false));
+
+		ResponseEntity<Object> responseEntity = userController.searchUsers("john smi", null, null, 0, 20, Set.of("id", "email"));
+
+		assertTrue(responseEntity.getBody() instanceof MappingJacksonValue);
+		verify(userServiceMock).searchByName("john smi", PageRequest.of(0, 20));
+	}
+
+	@Test
+	public void should_reject_unknown_fields() {
+		ResponseStatusException responseStatusException = assertThrows(ResponseStatusException.class,
+				() -> userController.getUserbyLastName("name", 0, 50, Set.of("id", "password")));
+
+		assertThat(responseStatusException.getStatusCode().value(), is(HttpStatus.BAD_REQUEST.value()));
+	}
+
+	@Test
+	public void should_reject_an_invalid_cursor() {
+		ResponseStatusException responseStatusException = assertThrows(ResponseStatusException.class,
+				() -> userController.getAllUsers(0, 10, "not-a-cursor", "id", true, null));
+
+		assertThat(responseStatusException.getStatusCode().value(), is(HttpStatus.BAD_REQUEST.value()));
+	}
+
+	@Test
+	public void should_stream_all_users_as_csv_when_exported() throws IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+		ResponseEntity<StreamingResponseBody> responseEntity = userController.exportUsers("csv");
+		responseEntity.getBody().writeTo(outputStream);
+
+		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.OK.value()));
+		assertThat(responseEntity.getHeaders().getContentType().isCompatibleWith(MediaType.parseMediaType("text/csv")), is(true));
+		verify(userExportServiceMock).export(outputStream, "csv");
+	}
+
+	@Test
+	public void should_stream_all_users_as_a_cbor_sequence_when_exported() throws IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+		ResponseEntity<StreamingResponseBody> responseEntity = userController.exportUsers("cbor");
+		responseEntity.getBody().writeTo(outputStream);
+
+		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.OK.value()));
+		assertThat(responseEntity.getHeaders().getContentType().isCompatibleWith(MediaType.parseMediaType("application/cbor-seq")), is(true));
+		verify(userExportServiceMock).export(outputStream, "cbor");
+	}
+
+	@Test
+	public void should_reject_an_unknown_export_format() {
+		ResponseStatusException responseStatusException = assertThrows(ResponseStatusException.class,
+				() -> userController.exportUsers("xml"));
+
+		assertThat(responseStatusException.getStatusCode().value(), is(HttpStatus.BAD_REQUEST.value()));
+	}
+
 	@Test
 	public void should_return_a_user_entity_when_searching_by_username() {
 		when(userServiceMock.findByUserName("userFake")).thenReturn(Optional.of(new UserEntity()));
 
-		ResponseEntity<Object> responseEntity = userController.getUserByUserName("userFake");
+		ResponseEntity<Object> responseEntity = userController.getUserByUserName("userFake", null, null);
 
 		assertNotNull(responseEntity);
 		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.OK.value()));
@@ -196,11 +430,59 @@ public class UserControllerTest {
 		verify(userServiceMock).findByUserName("userFake");
 	}
 
+	@Test
+	public void should_return_the_etag_of_the_user_version_when_searching_by_username() {
+		UserEntity userEntity = new UserEntity();
+		userEntity.setId(1L);
+		userEntity.setVersion(3L);
+		when(userServiceMock.findByUserName("userFake")).thenReturn(Optional.of(userEntity));
+
+		ResponseEntity<Object> responseEntity = userController.getUserByUserName("userFake", "\"1-2\"", null);
+
+		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.OK.value()));
+		assertThat(responseEntity.getHeaders().getETag(), is("\"1-3\""));
+		assertThat(responseEntity.getBody(), is(userEntity));
+
+		verify(userServiceMock).findByUserName("userFake");
+	}
+
+	@Test
+	public void should_tag_a_sparse_fieldset_as_its_own_representation() {
+		UserEntity userEntity = new UserEntity();
+		userEntity.setId(1L);
+		userEntity.setVersion(3L);
+		when(userServiceMock.findByUserName("userFake")).thenReturn(Optional.of(userEntity));
+
+		ResponseEntity<Object> responseEntity = userController.getUserByUserName("userFake", "\"1-3\"", Set.of("userName", "id"));
+
+		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.OK.value()));
+		assertThat(responseEntity.getHeaders().getETag(), is("\"1-3-id+userName\""));
+		assertThat(((MappingJacksonValue) responseEntity.getBody()).getValue(), is(userEntity));
+
+		verify(userServiceMock).findByUserName("userFake");
+	}
+
+	@Test
+	public void should_return_not_modified_without_body_when_the_etag_matches() {
+		UserEntity userEntity = new UserEntity();
+		userEntity.setId(1L);
+		userEntity.setVersion(3L);
+		when(userServiceMock.findByCpf("1234567890")).thenReturn(Optional.of(userEntity));
+
+		ResponseEntity<Object> responseEntity = userController.getUserByCpf("1234567890", "\"1-2\", W/\"1-3\"", null);
+
+		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.NOT_MODIFIED.value()));
+		assertThat(responseEntity.getHeaders().getETag(), is("\"1-3\""));
+		assertNull(responseEntity.getBody());
+
+		verify(userServiceMock).findByCpf("1234567890");
+	}
+
 	@Test
 	public void should_return_a_message_indicating_that_the_user_was_not_found_when_searching_by_username() {
 		when(userServiceMock.findByUserName("userFake")).thenReturn(Optional.empty());
 
-		ResponseEntity<Object> responseEntity = userController.getUserByUserName("userFake");
+		ResponseEntity<Object> responseEntity = userController.getUserByUserName("userFake", null, null);
 
 		assertNotNull(responseEntity);
 		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.NOT_FOUND.value()));
@@ -215,7 +497,7 @@ public class UserControllerTest {
 	public void should_return_a_user_entity_when_searching_by_cpf() {
 		when(userServiceMock.findByCpf("1234567890")).thenReturn(Optional.of(new UserEntity()));
 
-		ResponseEntity<Object> responseEntity = userController.getUserByCpf("1234567890");
+		ResponseEntity<Object> responseEntity = userController.getUserByCpf("1234567890", null, null);
 
 		assertNotNull(responseEntity);
 		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.OK.value()));
@@ -229,7 +511,7 @@ public class UserControllerTest {
 	public void should_return_a_message_indicating_that_the_user_was_not_found_when_searching_by_cpf() {
 		when(userServiceMock.findByCpf("1234567890")).thenReturn(Optional.empty());
 
-		ResponseEntity<Object> responseEntity = userController.getUserByCpf("1234567890");
+		ResponseEntity<Object> responseEntity = userController.getUserByCpf("1234567890", null, null);
 
 		assertNotNull(responseEntity);
 		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.NOT_FOUND.value()));
@@ -244,11 +526,11 @@ public class UserControllerTest {
 	void should_return_a_list_of_UserEntities_when_searching_for_the_users_first_name() {
 		List<UserEntity> userEntityList = new ArrayList<>();
 
-		when(userServiceMock.findByFirstNameContains("name")).thenReturn(userEntityList);
+		when(userServiceMock.findByFirstNameContains("name", PageRequest.of(0, 50))).thenReturn(userEntityList);
 
-		ResponseEntity<List<UserEntity>> responseEntity = userController.getUserbyFirstName("name");
+		ResponseEntity<Object> responseEntity = userController.getUserbyFirstName("name", 0, 50, null);
 
-		verify(userServiceMock).findByFirstNameContains("name");
+		verify(userServiceMock).findByFirstNameContains("name", PageRequest.of(0, 50));
 		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.OK.value()));
 	}
 
@@ -256,35 +538,98 @@ public class UserControllerTest {
 	public void should_return_a_list_of_UserEntities_when_searching_for_the_users_last_name() {
 		List<UserEntity> userEntityList = new ArrayList<>();
 
-		when(userServiceMock.findByLastNameContains("name")).thenReturn(userEntityList);
+		when(userServiceMock.findByLastNameContains("name", PageRequest.of(0, 50))).thenReturn(userEntityList);
+
+		ResponseEntity<Object> responseEntity = userController.getUserbyLastName("name", 0, 50, null);
+
+		verify(userServiceMock).findByLastNameContains("name", PageRequest.of(0, 50));
+		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.OK.value()));
+	}
+
+	@Test
+	public void should_cap_the_page_size_when_searching_for_the_users_first_name() {
+		when(userServiceMock.findByFirstNameContains("name", PageRequest.of(0, Config.MAX_SEARCH_SIZE))).thenReturn(new ArrayList<>());
+
+		userController.getUserbyFirstName("name", 0, 100000, null);
+
+		verify(userServiceMock).findByFirstNameContains("name", PageRequest.of(0, Config.MAX_SEARCH_SIZE));
+	}
+
+	@Test
+	public void should_return_a_page_of_users_when_searching_by_full_name() {
+		when(userServiceMock.searchByName("john smi", PageRequest.of(0, 20)))
+				.thenReturn(new SliceImpl<>(List.of(new UserEntity()), PageRequest.of(0, 20), false));
 
-		ResponseEntity<List<UserEntity>> responseEntity = userController.getUserbyLastName("name");
+		ResponseEntity<Object> responseEntity = userController.searchUsers(" john smi ", null, null, 0, 20, null);
 
-		verify(userServiceMock).findByLastNameContains("name");
 		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.OK.value()));
+		assertThat(((UserPageRecord) responseEntity.getBody()).userList().size(), is(1));
+		verify(userServiceMock).searchByName("john smi", PageRequest.of(0, 20));
+	}
+
+	@Test
+	public void should_search_by_first_and_last_name_together() {
+		when(userServiceMock.searchByFirstAndLastName("john", "smith", PageRequest.of(1, 20)))
+				.thenReturn(new SliceImpl<>(new ArrayList<>(), PageRequest.of(1, 20), false));
+
+		ResponseEntity<Object> responseEntity = userController.searchUsers(null, "john", "smith", 1, 20, null);
+
+		assertThat(((UserPageRecord) responseEntity.getBody()).actualPage(), is(1));
+		verify(userServiceMock).searchByFirstAndLastName("john", "smith", PageRequest.of(1, 20));
+	}
+
+	@Test
+	public void should_reject_a_search_term_that_is_too_short() {
+		ResponseStatusException responseStatusException = assertThrows(ResponseStatusException.class,
+				() -> userController.searchUsers("a", null, null, 0, 20, null));
+
+		assertThat(responseStatusException.getStatusCode().value(), is(HttpStatus.BAD_REQUEST.value()));
+	}
+
+	@Test
+	public void should_reject_a_first_or_last_name_filter_that_is_too_short() {
+		ResponseStatusException firstNameException = assertThrows(ResponseStatusException.class,
+				() -> userController.getUserbyFirstName(" a ", 0, 50, null));
+		ResponseStatusException lastNameException = assertThrows(ResponseStatusException.class,
+				() -> userController.getUserbyLastName("ab", 0, 50, null));
+
+		assertThat(firstNameException.getStatusCode().value(), is(HttpStatus.BAD_REQUEST.value()));
+		assertThat(lastNameException.getStatusCode().value(), is(HttpStatus.BAD_REQUEST.value()));
+	}
+
+	@Test
+	public void should_reject_a_negative_page_or_an_empty_size() {
+		ResponseStatusException negativePageException = assertThrows(ResponseStatusException.class,
+				() -> userController.getUserbyFirstName("name", -1, 50, null));
+		ResponseStatusException emptySizeException = assertThrows(ResponseStatusException.class,
+				() -> userController.searchUsers("name", null, null, 0, 0, null));
+		ResponseStatusException negativeSizeException = assertThrows(ResponseStatusException.class,
+				() -> userController.getAllUsers(0, -5, null, UserCursorRecord.ORDER_ID, true, null));
+
+		assertThat(negativePageException.getStatusCode().value(), is(HttpStatus.BAD_REQUEST.value()));
+		assertThat(emptySizeException.getStatusCode().value(), is(HttpStatus.BAD_REQUEST.value()));
+		assertThat(negativeSizeException.getStatusCode().value(), is(HttpStatus.BAD_REQUEST.value()));
 	}
 
 	@Test
 	public void should_delete_a_user_when_you_search_by_id_and_find_it() {
 		UserEntity userEntity = new UserEntity();
-		when(userServiceMock.findById(1L)).thenReturn(Optional.of(userEntity));
-		doNothing().when(userServiceMock).delete(userEntity);
+		when(userServiceMock.deleteById(1L, null)).thenReturn(Optional.of(userEntity));
 
-		ResponseEntity<Object> responseEntity = userController.deleteUserById(1L);
+		ResponseEntity<Object> responseEntity = userController.deleteUserById(1L, null);
 
-		verify(userServiceMock).findById(1L);
-		verify(userServiceMock).delete(userEntity);
+		verify(userServiceMock).deleteById(1L, null);
 		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.OK.value()));
 		assertThat(responseEntity.getBody(), is("User has been deleted"));
 	}
 
 	@Test
 	public void should_not_delete_a_user_when_you_search_by_id_and_not_find_it() {
-		when(userServiceMock.findById(1L)).thenReturn(Optional.empty());
+		when(userServiceMock.deleteById(1L, null)).thenReturn(Optional.empty());
 
-		ResponseEntity<Object> responseEntity = userController.deleteUserById(1L);
+		ResponseEntity<Object> responseEntity = userController.deleteUserById(1L, null);
 
-		verify(userServiceMock).findById(1L);
+		verify(userServiceMock).deleteById(1L, null);
 		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.NOT_FOUND.value()));
 		assertThat(responseEntity.getBody(), is("User not found"));
 	}
@@ -292,13 +637,11 @@ public class UserControllerTest {
 	@Test
 	public void should_delete_a_user_when_you_search_by_username_and_find_it() {
 		UserEntity userEntity = new UserEntity();
-		when(userServiceMock.findByUserName("fakeUsername")).thenReturn(Optional.of(userEntity));
-		doNothing().when(userServiceMock).delete(userEntity);
+		when(userServiceMock.deleteByUserName("fakeUsername", null)).thenReturn(Optional.of(userEntity));
 
-		ResponseEntity<Object> responseEntity = userController.deleteUserByUserName("fakeUsername");
+		ResponseEntity<Object> responseEntity = userController.deleteUserByUserName("fakeUsername", null);
 
-		verify(userServiceMock).findByUserName("fakeUsername");
-		verify(userServiceMock).delete(userEntity);
+		verify(userServiceMock).deleteByUserName("fakeUsername", null);
 		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.OK.value()));
 		assertThat(responseEntity.getBody(), is("User has been deleted"));
 	}
@@ -306,11 +649,11 @@ public class UserControllerTest {
 	@Test
 	public void should_not_delete_a_user_when_you_search_by_username_and_not_find_it() {
 		UserEntity userEntity = new UserEntity();
-		when(userServiceMock.findByUserName("fakeUsername")).thenReturn(Optional.empty());
+		when(userServiceMock.deleteByUserName("fakeUsername", null)).thenReturn(Optional.empty());
 
-		ResponseEntity<Object> responseEntity = userController.deleteUserByUserName("fakeUsername");
+		ResponseEntity<Object> responseEntity = userController.deleteUserByUserName("fakeUsername", null);
 
-		verify(userServiceMock).findByUserName("fakeUsername");
+		verify(userServiceMock).deleteByUserName("fakeUsername", null);
 		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.NOT_FOUND.value()));
 		assertThat(responseEntity.getBody(), is("User not found"));
 	}
@@ -318,13 +661,11 @@ public class UserControllerTest {
 	@Test
 	public void should_delete_a_user_when_you_search_by_cpf_and_find_it() {
 		UserEntity userEntity = new UserEntity();
-		when(userServiceMock.findByCpf("1234567890")).thenReturn(Optional.of(userEntity));
-		doNothing().when(userServiceMock).delete(userEntity);
+		when(userServiceMock.deleteByCpf("1234567890", null)).thenReturn(Optional.of(userEntity));
 
-		ResponseEntity<Object> responseEntity = userController.deleteUserByCpf("1234567890");
+		ResponseEntity<Object> responseEntity = userController.deleteUserByCpf("1234567890", null);
 
-		verify(userServiceMock).findByCpf("1234567890");
-		verify(userServiceMock).delete(userEntity);
+		verify(userServiceMock).deleteByCpf("1234567890", null);
 		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.OK.value()));
 		assertThat(responseEntity.getBody(), is("User has been deleted"));
 	}
@@ -332,11 +673,11 @@ public class UserControllerTest {
 	@Test
 	public void should_not_delete_a_user_when_you_search_by_cpf_and_not_find_it() {
 		UserEntity userEntity = new UserEntity();
-		when(userServiceMock.findByCpf("1234567890")).thenReturn(Optional.empty());
+		when(userServiceMock.deleteByCpf("1234567890", null)).thenReturn(Optional.empty());
 
-		ResponseEntity<Object> responseEntity = userController.deleteUserByCpf("1234567890");
+		ResponseEntity<Object> responseEntity = userController.deleteUserByCpf("1234567890", null);
 
-		verify(userServiceMock).findByCpf("1234567890");
+		verify(userServiceMock).deleteByCpf("1234567890", null);
 		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.NOT_FOUND.value()));
 		assertThat(responseEntity.getBody(), is("User not found"));
 	}
@@ -370,9 +711,9 @@ public class UserControllerTest {
 		when(validatorFactoryImpMock.getValidator()).thenReturn(validatorImpMock);
 		when(validatorImpMock.validate(any(UserSaveRecord.class))).thenReturn(constraintViolations);
 		when(userServiceMock.validateUserData(any(UserEntity.class), eq(false))).thenReturn(StringUtils.EMPTY);
-		when(userServiceMock.save(any(UserEntity.class))).thenReturn(any(UserEntity.class));
+		when(userServiceMock.save(any(UserEntity.class))).thenReturn(userEntity);
 
-		ResponseEntity<Object> responseEntity = userController.updateUserById(1L, userSaveRecord);
+		ResponseEntity<Object> responseEntity = userController.updateUserById(1L, null, userSaveRecord);
 
 		verify(userServiceMock).findById(1L);
 		verify(userServiceMock).validateUserData(userModelArgumentCaptor.capture(), eq(false));
@@ -390,6 +731,208 @@ public class UserControllerTest {
 		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.OK.value()));
 	}
 
+	@Test
+	public void should_only_revalidate_the_changed_fields_when_a_user_is_patched_by_id() {
+		UserEntity userEntity = new UserEntity();
+		userEntity.setId(1L);
+		userEntity.setUserName("userFake");
+		userEntity.setCpf("1234567890");
+		userEntity.setFirstName("First Name");
+		userEntity.setLastName("Last Name");
+		userEntity.setDateOfBirth(LocalDate.of(1999, 12, 31));
+		userEntity.setEmail("old@fake.com");
+
+		UserPatchRecord userPatchRecord = new UserPatchRecord(JsonNullable.undefined(), JsonNullable.of("1234567890"),
+				JsonNullable.undefined(), JsonNullable.undefined(), JsonNullable.undefined(), JsonNullable.of("new@fake.com"));
+
+		ArgumentCaptor<UserEntity> userModelArgumentCaptor = ArgumentCaptor.forClass(UserEntity.class);
+
+		when(userServiceMock.findById(1L)).thenReturn(Optional.of(userEntity));
+		when(validatorImpMock.validate(any(UserSaveRecord.class))).thenReturn(new HashSet<>());
+		when(userServiceMock.validateChangedUserData(any(UserEntity.class), eq(Set.of(UserPatchRecord.FIELD_EMAIL)))).thenReturn(StringUtils.EMPTY);
+		when(userServiceMock.save(any(UserEntity.class))).thenReturn(userEntity);
+
+		ResponseEntity<Object> responseEntity = userController.patchUserById(1L, null, userPatchRecord);
+
+		verify(userServiceMock).findById(1L);
+		verify(validatorImpMock).validate(any(UserSaveRecord.class));
+		verify(userServiceMock).validateChangedUserData(userModelArgumentCaptor.capture(), eq(Set.of(UserPatchRecord.FIELD_EMAIL)));
+		verify(userServiceMock).save(any(UserEntity.class));
+
+		UserEntity userEntitySaved = userModelArgumentCaptor.getValue();
+
+		assertThat(userEntitySaved.getUserName(), is("userFake"));
+		assertThat(userEntitySaved.getFirstName(), is("First Name"));
+		assertThat(userEntitySaved.getEmail(), is("new@fake.com"));
+		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.OK.value()));
+	}
+
+	@Test
+	public void should_not_save_a_patch_that_changes_nothing() {
+		UserEntity userEntity = new UserEntity();
+		userEntity.setId(1L);
+		userEntity.setUserName("userFake");
+
+		UserPatchRecord userPatchRecord = new UserPatchRecord(JsonNullable.of("userFake"), null, null, null, null, null);
+
+		when(userServiceMock.findByUserName("userFake")).thenReturn(Optional.of(userEntity));
+
+		ResponseEntity<Object> responseEntity = userController.patchUserByUserName("userFake", null, userPatchRecord);
+
+		verify(userServiceMock).findByUserName("userFake");
+		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.OK.value()));
+		assertThat(responseEntity.getBody(), is(userEntity));
+	}
+
+	@Test
+	public void should_not_patch_a_user_when_cpf_not_exists() {
+		UserPatchRecord userPatchRecord = new UserPatchRecord(null, null, JsonNullable.of("New First Name"), null, null, null);
+
+		when(userServiceMock.findByCpf("1234567890")).thenReturn(Optional.empty());
+
+		ResponseEntity<Object> responseEntity = userController.patchUserByCpf("1234567890", null, userPatchRecord);
+
+		verify(userServiceMock).findByCpf("1234567890");
+		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.NOT_FOUND.value()));
+		assertThat(responseEntity.getBody(), is("User not found"));
+	}
+
+	@Test
+	public void should_not_update_a_user_when_if_match_is_not_the_current_etag() {
+		UserSaveRecord userSaveRecord = new UserSaveRecord("newUserName",
+				"1234567890",
+				"New First Name",
+				"New Last Name",
+				LocalDate.of(1999, 12, 31),
+				"new_email@fake.com");
+
+		UserEntity userEntity = new UserEntity();
+		userEntity.setId(1L);
+		userEntity.setVersion(4L);
+
+		when(userServiceMock.findById(1L)).thenReturn(Optional.of(userEntity));
+
+		ResponseEntity<Object> responseEntity = userController.updateUserById(1L, "\"1-3\"", userSaveRecord);
+
+		verify(userServiceMock).findById(1L);
+		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.PRECONDITION_FAILED.value()));
+		assertThat(responseEntity.getBody(), is("User has been modified by another request"));
+	}
+
+	@Test
+	public void should_fail_the_precondition_when_updating_a_missing_user_with_if_match() {
+		UserSaveRecord userSaveRecord = new UserSaveRecord("newUserName",
+				"1234567890",
+				"New First Name",
+				"New Last Name",
+				LocalDate.of(1999, 12, 31),
+				"new_email@fake.com");
+
+		when(userServiceMock.findById(1L)).thenReturn(Optional.empty());
+
+		ResponseEntity<Object> responseEntity = userController.updateUserById(1L, "\"1-3\"", userSaveRecord);
+
+		verify(userServiceMock).findById(1L);
+		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.PRECONDITION_FAILED.value()));
+		assertThat(responseEntity.getBody(), is("User not found"));
+	}
+
+	@Test
+	public void should_fail_the_precondition_when_patching_a_missing_user_with_if_match() {
+		UserPatchRecord userPatchRecord = new UserPatchRecord(JsonNullable.undefined(), JsonNullable.undefined(),
+				JsonNullable.undefined(), JsonNullable.undefined(), JsonNullable.undefined(), JsonNullable.of("new@fake.com"));
+
+		when(userServiceMock.findById(1L)).thenReturn(Optional.empty());
+
+		ResponseEntity<Object> responseEntity = userController.patchUserById(1L, "\"1-3\"", userPatchRecord);
+
+		verify(userServiceMock).findById(1L);
+		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.PRECONDITION_FAILED.value()));
+		assertThat(responseEntity.getBody(), is("User not found"));
+	}
+
+	@Test
+	public void should_fail_the_precondition_when_deleting_a_missing_user_with_if_match() {
+		when(userServiceMock.deleteById(1L, List.of("\"1-3\""))).thenReturn(Optional.empty());
+
+		ResponseEntity<Object> responseEntity = userController.deleteUserById(1L, "\"1-3\"");
+
+		verify(userServiceMock).deleteById(1L, List.of("\"1-3\""));
+		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.PRECONDITION_FAILED.value()));
+		assertThat(responseEntity.getBody(), is("User not found"));
+	}
+
+	@Test
+	public void should_delete_a_user_when_if_match_is_the_current_etag() {
+		UserEntity userEntity = new UserEntity();
+		userEntity.setId(1L);
+		userEntity.setVersion(4L);
+
+		when(userServiceMock.deleteById(1L, List.of("\"1-4\""))).thenReturn(Optional.of(userEntity));
+
+		ResponseEntity<Object> responseEntity = userController.deleteUserById(1L, "W/\"1-3\", \"1-4\"");
+
+		verify(userServiceMock).deleteById(1L, List.of("\"1-4\""));
+		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.OK.value()));
+	}
+
+	@Test
+	public void should_delete_any_version_of_a_user_when_if_match_is_a_wildcard() {
+		when(userServiceMock.deleteByCpf("1234567890", null)).thenReturn(Optional.of(new UserEntity()));
+
+		ResponseEntity<Object> responseEntity = userController.deleteUserByCpf("1234567890", "*");
+
+		verify(userServiceMock).deleteByCpf("1234567890", null);
+		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.OK.value()));
+	}
+
+	@Test
+	public void should_delete_users_in_batch_and_report_the_keys_not_found() {
+		UserDeleteBatchRecord userDeleteBatchRecord = new UserDeleteBatchRecord(List.of(1L, 2L), List.of("fakeUsername"), null);
+		UserDeleteBatchResultRecord userDeleteBatchResultRecord = new UserDeleteBatchResultRecord(2, List.of(2L), List.of(), List.of());
+		when(userServiceMock.deleteAll(userDeleteBatchRecord)).thenReturn(userDeleteBatchResultRecord);
+
+		ResponseEntity<Object> responseEntity = userController.deleteUsers(userDeleteBatchRecord);
+
+		verify(userServiceMock).deleteAll(userDeleteBatchRecord);
+		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.OK.value()));
+		assertThat(responseEntity.getBody(), is(userDeleteBatchResultRecord));
+	}
+
+	@Test
+	public void should_not_delete_users_in_batch_when_there_are_too_many_keys() {
+		List<String> cpfs = Collections.nCopies(Config.MAX_DELETE_BATCH_SIZE + 1, "1234567890");
+
+		ResponseEntity<Object> responseEntity = userController.deleteUsers(new UserDeleteBatchRecord(null, null, cpfs));
+
+		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.UNPROCESSABLE_ENTITY.value()));
+		assertThat(responseEntity.getBody(), is("A batch cannot delete more than " + Config.MAX_DELETE_BATCH_SIZE + " keys"));
+	}
+
+	@Test
+	public void should_look_up_users_by_many_keys() {
+		UserLookupRecord userLookupRecord = new UserLookupRecord(List.of(1L), null, List.of("1234567890"));
+		UserLookupResultRecord userLookupResultRecord = new UserLookupResultRecord(
+				List.of(UserLookupItemRecord.of(1L, new UserEntity())), List.of(), List.of(UserLookupItemRecord.of("1234567890", null)));
+		when(userServiceMock.lookup(userLookupRecord)).thenReturn(userLookupResultRecord);
+
+		ResponseEntity<Object> responseEntity = userController.lookupUsers(userLookupRecord, null);
+
+		verify(userServiceMock).lookup(userLookupRecord);
+		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.OK.value()));
+		assertThat(responseEntity.getBody(), is(userLookupResultRecord));
+	}
+
+	@Test
+	public void should_not_look_up_users_when_there_are_too_many_keys() {
+		List<Long> ids = Collections.nCopies(Config.MAX_LOOKUP_SIZE + 1, 1L);
+
+		ResponseEntity<Object> responseEntity = userController.lookupUsers(new UserLookupRecord(ids, null, null), null);
+
+		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.UNPROCESSABLE_ENTITY.value()));
+		assertThat(responseEntity.getBody(), is("A lookup cannot ask for more than " + Config.MAX_LOOKUP_SIZE + " keys"));
+	}
+
 	@Test
 	public void should_no_update_user_record_when_id_not_exists() {
 		UserSaveRecord userSaveRecord = new UserSaveRecord("newUserName",
@@ -401,7 +944,7 @@ public class UserControllerTest {
 
 		when(userServiceMock.findById(1L)).thenReturn(Optional.empty());
 
-		ResponseEntity<Object> responseEntity = userController.updateUserById(1L, userSaveRecord);
+		ResponseEntity<Object> responseEntity = userController.updateUserById(1L, null, userSaveRecord);
 
 		verify(userServiceMock).findById(1L);
 		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.NOT_FOUND.value()));
@@ -437,9 +980,9 @@ public class UserControllerTest {
 		when(validatorFactoryImpMock.getValidator()).thenReturn(validatorImpMock);
 		when(validatorImpMock.validate(any(UserSaveRecord.class))).thenReturn(constraintViolations);
 		when(userServiceMock.validateUserData(any(UserEntity.class), eq(false))).thenReturn(StringUtils.EMPTY);
-		when(userServiceMock.save(any(UserEntity.class))).thenReturn(any(UserEntity.class));
+		when(userServiceMock.save(any(UserEntity.class))).thenReturn(userEntity);
 
-		ResponseEntity<Object> responseEntity = userController.updateUserByUserName("fakeUserName", userSaveRecord);
+		ResponseEntity<Object> responseEntity = userController.updateUserByUserName("fakeUserName", null, userSaveRecord);
 
 		verify(userServiceMock).findByUserName("fakeUserName");
 		verify(userServiceMock).validateUserData(userModelArgumentCaptor.capture(), eq(false));
@@ -468,7 +1011,7 @@ public class UserControllerTest {
 
 		when(userServiceMock.findByUserName("fakeUserName")).thenReturn(Optional.empty());
 
-		ResponseEntity<Object> responseEntity = userController.updateUserByUserName("fakeUserName", userSaveRecord);
+		ResponseEntity<Object> responseEntity = userController.updateUserByUserName("fakeUserName", null, userSaveRecord);
 
 		verify(userServiceMock).findByUserName("fakeUserName");
 		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.NOT_FOUND.value()));
@@ -504,9 +1047,9 @@ public class UserControllerTest {
 		when(validatorFactoryImpMock.getValidator()).thenReturn(validatorImpMock);
 		when(validatorImpMock.validate(any(UserSaveRecord.class))).thenReturn(constraintViolations);
 		when(userServiceMock.validateUserData(any(UserEntity.class), eq(false))).thenReturn(StringUtils.EMPTY);
-		when(userServiceMock.save(any(UserEntity.class))).thenReturn(any(UserEntity.class));
+		when(userServiceMock.save(any(UserEntity.class))).thenReturn(userEntity);
 
-		ResponseEntity<Object> responseEntity = userController.updateUserByCpf("1234567890", userSaveRecord);
+		ResponseEntity<Object> responseEntity = userController.updateUserByCpf("1234567890", null, userSaveRecord);
 
 		verify(userServiceMock).findByCpf("1234567890");
 		verify(userServiceMock).validateUserData(userModelArgumentCaptor.capture(), eq(false));
@@ -535,10 +1078,42 @@ public class UserControllerTest {
 
 		when(userServiceMock.findByCpf("1234567890")).thenReturn(Optional.empty());
 
-		ResponseEntity<Object> responseEntity = userController.updateUserByCpf("1234567890", userSaveRecord);
+		ResponseEntity<Object> responseEntity = userController.updateUserByCpf("1234567890", null, userSaveRecord);
 
 		verify(userServiceMock).findByCpf("1234567890");
 		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.NOT_FOUND.value()));
 		assertThat(responseEntity.getBody(), is("User not found"));
 	}
+
+	@Test
+	public void should_read_the_changes_from_the_start_when_there_is_no_cursor() {
+		UserChangePageRecord userChangePageRecord = new UserChangePageRecord(List.of(), UserChangeCursorRecord.START.encode());
+		when(userChangeServiceMock.changesAfter(UserChangeCursorRecord.START, Config.MAX_PAGE_SIZE)).thenReturn(userChangePageRecord);
+
+		ResponseEntity<UserChangePageRecord> responseEntity = userController.getChanges(null, 5000);
+
+		verify(userChangeServiceMock).changesAfter(UserChangeCursorRecord.START, Config.MAX_PAGE_SIZE);
+		assertThat(responseEntity.getStatusCodeValue(), is(HttpStatus.OK.value()));
+		assertThat(responseEntity.getBody(), is(userChangePageRecord));
+	}
+
+	@Test
+	public void should_reject_an_invalid_change_cursor() {
+		ResponseStatusException responseStatusException = assertThrows(ResponseStatusException.class,
+				() -> userController.getChanges("not a cursor", 500));
+
+		assertThat(responseStatusException.getStatusCode().value(), is(HttpStatus.BAD_REQUEST.value()));
+	}
+
+	@Test
+	public void should_answer_gone_when_the_change_cursor_is_older_than_the_retention() {
+		UserChangeCursorRecord cursor = new UserChangeCursorRecord(LocalDateTime.of(2020, 1, 1, 0, 0), 1L);
+		when(userChangeServiceMock.isExpired(cursor)).thenReturn(true);
+
+		ResponseStatusException responseStatusException = assertThrows(ResponseStatusException.class,
+				() -> userController.streamChanges(null, cursor.encode()));
+
+		verify(userChangeServiceMock).isExpired(cursor);
+		assertThat(responseStatusException.getStatusCode().value(), is(HttpStatus.GONE.value()));
+	}
 }
@@ -0,0 +1,130 @@
+package com.portfolio.userapi.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class ReplicaRoutingDataSourceTest {
+
+	private final Connection primaryConnection = mock(Connection.class);
+	private final Connection replicaConnection = mock(Connection.class);
+
+	private DataSource primaryDataSource;
+	private DataSource replicaDataSource;
+	private ReplicaHealth replicaHealth;
+	private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+	@BeforeEach
+	void setUp() throws SQLException {
+		primaryDataSource = mock(DataSource.class);
+		when(primaryDataSource.getConnection()).thenReturn(primaryConnection);
+		replicaDataSource = replicaWithLag(replicaConnection, 0.0);
+
+		Map<String, DataSource> replicas = new LinkedHashMap<>();
+		replicas.put("replica-1", replicaDataSource);
+		replicaHealth = new ReplicaHealth(replicas, Duration.ofSeconds(5), Duration.ofHours(1));
+		replicaRoutingDataSource = new ReplicaRoutingDataSource(primaryDataSource, replicaHealth);
+		replicaRoutingDataSource.afterPropertiesSet();
+	}
+
+	@AfterEach
+	void tearDown() {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+		replicaHealth.close();
+	}
+
+	@Test
+	void should_send_writes_to_the_primary_and_read_only_transactions_to_a_replica() throws SQLException {
+		assertThat(replicaRoutingDataSource.getConnection(), is(sameInstance(primaryConnection)));
+
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		assertThat(replicaRoutingDataSource.getConnection(), is(sameInstance(replicaConnection)));
+	}
+
+	@Test
+	void should_read_from_the_primary_right_after_the_client_wrote() throws Exception {
+		ReadYourWritesInterceptor readYourWritesInterceptor = new ReadYourWritesInterceptor(Duration.ofSeconds(5));
+		MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+		readYourWritesInterceptor.preHandle(new MockHttpServletRequest("POST", "/user/add"), writeResponse, null);
+		readYourWritesInterceptor.afterCompletion(null, null, null, null);
+
+		MockHttpServletRequest readRequest = new MockHttpServletRequest("GET", "/user/all");
+		readRequest.setCookies(writeResponse.getCookie(ReadYourWritesInterceptor.COOKIE_NAME));
+		readYourWritesInterceptor.preHandle(readRequest, new MockHttpServletResponse(), null);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		try {
+			assertThat(replicaRoutingDataSource.getConnection(), is(sameInstance(primaryConnection)));
+		} finally {
+			readYourWritesInterceptor.afterCompletion(readRequest, null, null, null);
+		}
+
+		assertThat(replicaRoutingDataSource.getConnection(), is(sameInstance(replicaConnection)));
+	}
+
+	@Test
+	void should_keep_a_lagging_replica_out_of_rotation() throws SQLException {
+		replicaWithLag(replicaDataSource, replicaConnection, 60_000.0);
+		replicaHealth.check();
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		assertThat(replicaRoutingDataSource.getConnection(), is(sameInstance(primaryConnection)));
+	}
+
+	@Test
+	void should_fall_back_to_the_primary_when_a_replica_cannot_give_a_connection() throws SQLException {
+		when(replicaDataSource.getConnection()).thenThrow(new SQLException("Connection refused"));
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		assertThat(replicaRoutingDataSource.getConnection(), is(sameInstance(primaryConnection)));
+		assertThat(replicaHealth.nextHealthyReplica().isPresent(), is(false));
+	}
+
+	@Test
+	void should_close_the_replica_pools_when_closed() throws Exception {
+		DataSource pooledDataSource = mock(DataSource.class, withSettings().extraInterfaces(AutoCloseable.class));
+		replicaWithLag(pooledDataSource, mock(Connection.class), 0.0);
+		ReplicaHealth pooledReplicaHealth = new ReplicaHealth(Map.of("replica-1", pooledDataSource), Duration.ofSeconds(5), Duration.ofHours(1));
+
+		pooledReplicaHealth.close();
+
+		verify((AutoCloseable) pooledDataSource).close();
+	}
+
+	private DataSource replicaWithLag(Connection connection, double lagMillis) throws SQLException {
+		DataSource dataSource = mock(DataSource.class);
+		replicaWithLag(dataSource, connection, lagMillis);
+		return dataSource;
+	}
+
+	private void replicaWithLag(DataSource dataSource, Connection connection, double lagMillis) throws SQLException {
+		Statement statement = mock(Statement.class);
+		ResultSet resultSet = mock(ResultSet.class);
+		when(dataSource.getConnection()).thenReturn(connection);
+		when(connection.createStatement()).thenReturn(statement);
+		when(statement.executeQuery(anyString())).thenReturn(resultSet);
+		when(resultSet.next()).thenReturn(true);
+		when(resultSet.getDouble(1)).thenReturn(lagMillis);
+	}
+}
@@ -0,0 +1,98 @@
+package com.portfolio.userapi.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+class SlowQueryListenerTest {
+
+	private final Logger logger = (Logger) LoggerFactory.getLogger(SlowQueryListener.class);
+	private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+	private final SlowQueryListener slowQueryListener = new SlowQueryListener(Duration.ofMillis(100), 1.0, true);
+
+	@BeforeEach
+	void setUp() {
+		appender.start();
+		logger.addAppender(appender);
+		MDC.put(RequestIdFilter.MDC_KEY, "request-1");
+	}
+
+	@AfterEach
+	void tearDown() {
+		logger.detachAppender(appender);
+		MDC.remove(RequestIdFilter.MDC_KEY);
+	}
+
+	@Test
+	void logsSlowUpdateWithRowCount() {
+		slowQueryListener.afterQuery(execution(250, 3), List.of(new QueryInfo("update tb_user set name=?")));
+
+		assertThat(appender.list, hasSize(1));
+		String message = appender.list.get(0).getFormattedMessage();
+		assertThat(message, containsString("duration:250ms"));
+		assertThat(message, containsString("rows:3"));
+		assertThat(message, containsString("requestId:request-1"));
+		assertThat(message, containsString("sql:update tb_user set name=?"));
+	}
+
+	@Test
+	void ignoresFastStatement() {
+		slowQueryListener.afterQuery(execution(20, 1), List.of(new QueryInfo("update tb_user set name=?")));
+
+		assertThat(appender.list, empty());
+	}
+
+	@Test
+	void logsSlowQueryWhenResultSetIsClosed() throws NoSuchMethodException {
+		ResultSet resultSet = mock(ResultSet.class);
+		ResultSet resultSetProxy = mock(ResultSet.class, withSettings().extraInterfaces(ProxyJdbcObject.class));
+		when(((ProxyJdbcObject) resultSetProxy).getTarget()).thenReturn(resultSet);
+		slowQueryListener.afterQuery(execution(300, resultSetProxy), List.of(new QueryInfo("select * from tb_user")));
+		assertThat(appender.list, empty());
+
+		slowQueryListener.afterMethod(resultSetCall(resultSet, "next", true));
+		slowQueryListener.afterMethod(resultSetCall(resultSet, "next", true));
+		slowQueryListener.afterMethod(resultSetCall(resultSet, "next", false));
+		slowQueryListener.afterMethod(resultSetCall(resultSet, "close", null));
+
+		assertThat(appender.list, hasSize(1));
+		assertThat(appender.list.get(0).getFormattedMessage(), containsString("rows:2"));
+	}
+
+	private static ExecutionInfo execution(long elapsedMillis, Object result) {
+		ExecutionInfo executionInfo = new ExecutionInfo();
+		executionInfo.setElapsedTime(elapsedMillis);
+		executionInfo.setResult(result);
+		return executionInfo;
+	}
+
+	private static MethodExecutionContext resultSetCall(ResultSet resultSet, String method, Object result)
+			throws NoSuchMethodException {
+		return MethodExecutionContext.Builder.create()
+				.target(resultSet)
+				.method(ResultSet.class.getMethod(method))
+				.result(result)
+				.build();
+	}
+}
@@ -0,0 +1,139 @@
+package com.portfolio.userapi.ratelimit;
+
+import com.portfolio.userapi.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+
+class RateLimitInterceptorTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void tokenBucketAllowsBurstThenRefills() {
+		long now = 0L;
+		TokenBucket tokenBucket = new TokenBucket(2, 1.0, now);
+
+		assertThat(tokenBucket.tryAcquire(now), is(0L));
+		assertThat(tokenBucket.tryAcquire(now), is(0L));
+		assertThat(tokenBucket.tryAcquire(now), is(TimeUnit.SECONDS.toNanos(1)));
+		assertThat(tokenBucket.tryAcquire(now + TimeUnit.SECONDS.toNanos(1)), is(0L));
+	}
+
+	@Test
+	void rejectsClientOverEndpointLimitWithRetryAfter() throws Exception {
+		RateLimitInterceptor rateLimitInterceptor = interceptor(10);
+
+		assertThat(call(rateLimitInterceptor, "addUser", "client-a").getStatus(), is(HttpStatus.OK.value()));
+		MockHttpServletResponse limited = call(rateLimitInterceptor, "addUser", "client-a");
+
+		assertThat(limited.getStatus(), is(HttpStatus.TOO_MANY_REQUESTS.value()));
+		assertThat(limited.getHeader(HttpHeaders.RETRY_AFTER), is("1"));
+		assertThat(call(rateLimitInterceptor, "addUser", "client-b").getStatus(), is(HttpStatus.OK.value()));
+		assertThat(call(rateLimitInterceptor, "getAllUsers", "client-a").getStatus(), is(HttpStatus.OK.value()));
+		assertThat(decisions("addUser", RateLimitInterceptor.DECISION_ALLOWED), is(2.0));
+		assertThat(decisions("addUser", RateLimitInterceptor.DECISION_LIMITED), is(1.0));
+	}
+
+	@Test
+	void limitsUnknownApiKeysByAddress() throws Exception {
+		RateLimitInterceptor rateLimitInterceptor = interceptor(10);
+
+		assertThat(call(rateLimitInterceptor, "addUser", "made-up-1").getStatus(), is(HttpStatus.OK.value()));
+		assertThat(call(rateLimitInterceptor, "addUser", "made-up-2").getStatus(), is(HttpStatus.TOO_MANY_REQUESTS.value()));
+		assertThat(call(rateLimitInterceptor, "addUser", "client-a").getStatus(), is(HttpStatus.OK.value()));
+	}
+
+	@Test
+	void refusesToStartWithALimitThatNeverRefills() {
+		new ApplicationContextRunner()
+				.withConfiguration(AutoConfigurations.of(ValidationAutoConfiguration.class))
+				.withUserConfiguration(PropertiesConfig.class)
+				.withPropertyValues("user-api.rate-limit.endpoints[addUser].refill-per-second=0")
+				.run(context -> assertThat(NestedExceptionUtils.getMostSpecificCause(context.getStartupFailure()).getMessage(),
+						containsString("endpoints[addUser].refillPerSecond")));
+	}
+
+	@Test
+	void shedsCallsOverConcurrencyLimitUntilOneCompletes() throws Exception {
+		RateLimitInterceptor rateLimitInterceptor = interceptor(1);
+		MockHttpServletRequest inProgress = request("client-a");
+		HandlerMethod handler = handler("getAllUsers");
+
+		assertThat(rateLimitInterceptor.preHandle(inProgress, new MockHttpServletResponse(), handler), is(true));
+		MockHttpServletResponse shed = call(rateLimitInterceptor, "getAllUsers", "client-b");
+		assertThat(shed.getStatus(), is(HttpStatus.SERVICE_UNAVAILABLE.value()));
+		assertThat(shed.getHeader(HttpHeaders.RETRY_AFTER), is("1"));
+
+		rateLimitInterceptor.afterCompletion(inProgress, new MockHttpServletResponse(), handler, null);
+		assertThat(call(rateLimitInterceptor, "getAllUsers", "client-b").getStatus(), is(HttpStatus.OK.value()));
+		assertThat(decisions("getAllUsers", RateLimitInterceptor.DECISION_SHED), is(1.0));
+	}
+
+	private RateLimitInterceptor interceptor(int maxConcurrentRequests) {
+		RateLimitProperties rateLimitProperties = new RateLimitProperties(true, "X-API-Key", Set.of("client-a", "client-b"),
+				new RateLimitProperties.Limit(100, 50), Map.of("addUser", new RateLimitProperties.Limit(1, 1)),
+				1000, Duration.ofMinutes(10), maxConcurrentRequests);
+		return new RateLimitInterceptor(new RateLimiter(rateLimitProperties), rateLimitProperties.clientHeader(),
+				rateLimitProperties.apiKeys(), maxConcurrentRequests, meterRegistry);
+	}
+
+	private static MockHttpServletResponse call(RateLimitInterceptor rateLimitInterceptor, String endpoint, String apiKey)
+			throws Exception {
+		MockHttpServletRequest request = request(apiKey);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		HandlerMethod handler = handler(endpoint);
+		if (rateLimitInterceptor.preHandle(request, response, handler)) {
+			rateLimitInterceptor.afterCompletion(request, response, handler, null);
+		}
+		return response;
+	}
+
+	private static MockHttpServletRequest request(String apiKey) {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("X-API-Key", apiKey);
+		return request;
+	}
+
+	private static HandlerMethod handler(String endpoint) throws NoSuchMethodException {
+		return new HandlerMethod(new Endpoints(), Endpoints.class.getMethod(endpoint));
+	}
+
+	private double decisions(String endpoint, String decision) {
+		return meterRegistry.get(RateLimitInterceptor.DECISIONS_COUNTER)
+				.tag("endpoint", endpoint)
+				.tag("decision", decision)
+				.counter()
+				.count();
+	}
+
+	@EnableConfigurationProperties(RateLimitProperties.class)
+	static class PropertiesConfig {
+	}
+
+	public static class Endpoints {
+		public void addUser() {
+		}
+
+		public void getAllUsers() {
+		}
+	}
+}
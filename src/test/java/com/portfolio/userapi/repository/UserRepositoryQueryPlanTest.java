@@ -0,0 +1,258 @@
+package com.portfolio.userapi.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.portfolio.userapi.util.Tools;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * Migrates a schema of its own with Flyway, seeds it with {@value #USERS} users and tombstones, runs every
+ * repository query and fails when EXPLAIN, given the same parameters, plans a sequential scan on either table.
+ * Counting every user for offset page totals and streaming every user for the export read the whole table by
+ * design, so those two are left out.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.hikari.data-source-properties.currentSchema=" + UserRepositoryQueryPlanTest.SCHEMA + ",public",
+		"spring.flyway.schemas=" + UserRepositoryQueryPlanTest.SCHEMA,
+		"spring.jpa.properties.hibernate.show_sql=false"
+})
+@Import(UserRepositoryQueryPlanTest.QueryRecorderConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserRepositoryQueryPlanTest {
+
+	static final String SCHEMA = "user_api_query_plan";
+
+	private static final int USERS = 200_000;
+	private static final List<RecordedQuery> recordedQueries = new CopyOnWriteArrayList<>();
+	private static volatile boolean recording;
+
+	@Autowired
+	private IUserRepository iUserRepository;
+
+	@Autowired
+	private IUserTombstoneRepository iUserTombstoneRepository;
+
+	@Autowired
+	private IUserIdempotencyKeyRepository iUserIdempotencyKeyRepository;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@BeforeAll
+	void seed() {
+		jdbcTemplate.execute("truncate tb_user, tb_user_tombstone, tb_user_idempotency_key");
+		jdbcTemplate.update("insert into tb_user (id, user_name, cpf, first_name, last_name, date_of_birth, email, " +
+				"creation_date, update_date, version) " +
+				"select g, 'user' || g, lpad(g::text, 11, '0'), 'First' || g, 'Last' || (g * 7919 % 100000), date '1990-01-01', " +
+				"'user' || g || '@example.com', timestamp '2024-01-01' + g * interval '1 minute', " +
+				"timestamp '2024-01-01' + g * interval '1 minute', 0 from generate_series(1, ?) g", USERS);
+		jdbcTemplate.update("insert into tb_user_tombstone (user_id, deleted_at) " +
+				"select ? + g, localtimestamp - g * interval '5 seconds' from generate_series(1, ?) g", USERS, USERS);
+		jdbcTemplate.update("insert into tb_user_idempotency_key (idempotency_key, request_hash, response_status, response_body, created_at) " +
+				"select 'key-' || g, md5(g::text), 201, '{}', localtimestamp - g * interval '1 second' from generate_series(1, ?) g", USERS);
+		jdbcTemplate.execute("analyze tb_user");
+		jdbcTemplate.execute("analyze tb_user_idempotency_key");
+		jdbcTemplate.execute("analyze tb_user_tombstone");
+	}
+
+	@AfterAll
+	void dropSchema() {
+		jdbcTemplate.execute("drop schema if exists " + SCHEMA + " cascade");
+	}
+
+	@Test
+	void should_not_plan_a_sequential_scan_for_any_repository_query() throws Exception {
+		LocalDateTime until = LocalDateTime.now();
+		LocalDateTime cursorDate = LocalDateTime.of(2024, 3, 1, 0, 0);
+		String userName = "user4242";
+		String cpf = "00000004242";
+		String email = "USER4242@example.com";
+		PageRequest page = PageRequest.ofSize(20);
+
+		Map<String, Runnable> queries = new LinkedHashMap<>();
+		queries.put("existsByUserName", () -> iUserRepository.existsByUserName(userName));
+		queries.put("existsByCpf", () -> iUserRepository.existsByCpf(cpf));
+		queries.put("existsByEmail", () -> iUserRepository.existsByEmail(email));
+		queries.put("findById", () -> iUserRepository.findById(4242L));
+		queries.put("findByUserName", () -> iUserRepository.findByUserName(userName));
+		queries.put("findByCpf", () -> iUserRepository.findByCpf(cpf));
+		queries.put("findAllByIdIn", () -> iUserRepository.findAllByIdIn(new Long[]{1L, 4242L, 199_999L}));
+		queries.put("findAllByUserNameIn", () -> iUserRepository.findAllByUserNameIn(new String[]{userName, "user7"}));
+		queries.put("findAllByCpfIn", () -> iUserRepository.findAllByCpfIn(new String[]{cpf, "00000000007"}));
+		queries.put("findByFirstNameLike", () -> iUserRepository.findByFirstNameLike(Tools.containsPattern("rst4242"), page));
+		queries.put("findByLastNameLike", () -> iUserRepository.findByLastNameLike(Tools.containsPattern("st4242"), page));
+		queries.put("findByFirstNameLikeAndLastNameLike", () -> iUserRepository.findByFirstNameLikeAndLastNameLike(
+				Tools.containsPattern("rst4242"), Tools.containsPattern("ast"), page));
+		queries.put("findByFullNameLike", () -> iUserRepository.findByFullNameLike(Tools.containsPattern("rst4242 La"), page));
+		queries.put("findSummariesByFirstNameLike", () -> iUserRepository.findSummariesByFirstNameLike(Tools.containsPattern("rst4242"), page));
+		queries.put("findSummariesByLastNameLike", () -> iUserRepository.findSummariesByLastNameLike(Tools.containsPattern("st4242"), page));
+		queries.put("findSummariesByFirstNameLikeAndLastNameLike", () -> iUserRepository.findSummariesByFirstNameLikeAndLastNameLike(
+				Tools.containsPattern("rst4242"), Tools.containsPattern("ast"), page));
+		queries.put("findSummariesByFullNameLike", () -> iUserRepository.findSummariesByFullNameLike(Tools.containsPattern("rst4242 La"), page));
+		queries.put("deleteReturningById", () -> iUserRepository.deleteReturningById(4242L, true, new String[0], until));
+		queries.put("deleteReturningByUserName", () -> iUserRepository.deleteReturningByUserName(userName, false, new String[]{"\"4242-0\""}, until));
+		queries.put("deleteReturningByCpf", () -> iUserRepository.deleteReturningByCpf(cpf, true, new String[0], until));
+		queries.put("deleteReturningByIdsOrUserNamesOrCpfs", () -> iUserRepository.deleteReturningByIdsOrUserNamesOrCpfs(
+				new Long[]{1L, 2L}, new String[]{userName}, new String[]{cpf}, until));
+		queries.put("findChangedAfter", () -> iUserRepository.findChangedAfter(cursorDate, 0L, until, page));
+		queries.put("findAll", () -> iUserRepository.findAll(PageRequest.of(10, 20, Sort.by("id"))));
+		queries.put("findAllBy", () -> iUserRepository.findAllBy(PageRequest.of(10, 20, Sort.by("id"))));
+		queries.put("findAllBy creationDate", () -> iUserRepository.findAllBy(PageRequest.of(0, 20, Sort.by("creationDate", "id"))));
+		queries.put("findAllSummaries", () -> iUserRepository.findAllSummaries(PageRequest.of(10, 20, Sort.by("id"))));
+		queries.put("findAllSummariesBy", () -> iUserRepository.findAllSummariesBy(PageRequest.of(10, 20, Sort.by("id"))));
+		queries.put("findAllAfterId", () -> iUserRepository.findAllAfterId(4242L, page));
+		queries.put("findAllSummariesAfterId", () -> iUserRepository.findAllSummariesAfterId(4242L, page));
+		queries.put("findAllAfterCreationDate", () -> iUserRepository.findAllAfterCreationDate(cursorDate, 0L, page));
+		queries.put("findConflicts", () -> iUserRepository.findConflicts(0L, userName, cpf, email));
+		queries.put("findUserNamesIn", () -> iUserRepository.findUserNamesIn(List.of(userName, "user7")));
+		queries.put("findCpfsIn", () -> iUserRepository.findCpfsIn(List.of(cpf, "00000000007")));
+		queries.put("findEmailsIn", () -> iUserRepository.findEmailsIn(List.of("user4242@example.com", "user7@example.com")));
+		queries.put("findDeletedAfter", () -> iUserTombstoneRepository.findDeletedAfter(until.minusHours(1), 0L, until, page));
+		queries.put("deleteDeletedBefore", () -> iUserTombstoneRepository.deleteDeletedBefore(until.minusDays(30)));
+		queries.put("findStoredSince", () -> iUserIdempotencyKeyRepository.findStoredSince("key-4242", until.minusDays(1)));
+		queries.put("deleteCreatedBefore", () -> iUserIdempotencyKeyRepository.deleteCreatedBefore(until.minusDays(3)));
+
+		List<String> sequentialScans = new ArrayList<>();
+		for (Map.Entry<String, Runnable> query : queries.entrySet()) {
+			List<RecordedQuery> recorded = record(query.getValue());
+			assertThat(query.getKey() + " ran no statement", recorded, is(not(empty())));
+
+			for (RecordedQuery recordedQuery : recorded) {
+				if (isCountOfEveryUser(recordedQuery.sql())) {
+					continue;
+				}
+				JsonNode plan = explain(recordedQuery);
+				if (hasSequentialScan(plan)) {
+					sequentialScans.add(query.getKey() + ": " + recordedQuery.sql() + "\n" + plan.toPrettyString());
+				}
+			}
+		}
+
+		assertThat(String.join("\n\n", sequentialScans), sequentialScans, is(empty()));
+	}
+
+	private List<RecordedQuery> record(Runnable query) {
+		recordedQueries.clear();
+		recording = true;
+		try {
+			TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+			transactionTemplate.executeWithoutResult(status -> {
+				query.run();
+				status.setRollbackOnly();
+			});
+		} finally {
+			recording = false;
+		}
+		return List.copyOf(recordedQueries);
+	}
+
+	private JsonNode explain(RecordedQuery recordedQuery) throws Exception {
+		try (Connection connection = dataSource.getConnection();
+			 PreparedStatement preparedStatement = connection.prepareStatement("explain (format json) " + recordedQuery.sql())) {
+			for (ParameterSetOperation parameter : recordedQuery.parameters()) {
+				parameter.getMethod().invoke(preparedStatement, parameter.getArgs());
+			}
+			try (ResultSet resultSet = preparedStatement.executeQuery()) {
+				resultSet.next();
+				return objectMapper.readTree(resultSet.getString(1));
+			}
+		}
+	}
+
+	private static boolean isCountOfEveryUser(String sql) {
+		String normalized = sql.toLowerCase();
+		return normalized.startsWith("select count(") && !normalized.contains(" where ");
+	}
+
+	private static boolean hasSequentialScan(JsonNode node) {
+		if ("Seq Scan".equals(node.path("Node Type").asText())) {
+			return true;
+		}
+		for (JsonNode child : node) {
+			if (hasSequentialScan(child)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private record RecordedQuery(String sql, List<ParameterSetOperation> parameters) {
+	}
+
+	@TestConfiguration
+	static class QueryRecorderConfig {
+
+		@Bean
+		static BeanPostProcessor queryRecordingDataSource() {
+			QueryExecutionListener listener = new QueryExecutionListener() {
+				@Override
+				public void beforeQuery(ExecutionInfo executionInfo, List<QueryInfo> queryInfoList) {
+				}
+
+				@Override
+				public void afterQuery(ExecutionInfo executionInfo, List<QueryInfo> queryInfoList) {
+					if (!recording) {
+						return;
+					}
+					for (QueryInfo queryInfo : queryInfoList) {
+						List<ParameterSetOperation> parameters = queryInfo.getParametersList().isEmpty()
+								? List.of() : queryInfo.getParametersList().get(0);
+						recordedQueries.add(new RecordedQuery(queryInfo.getQuery(), parameters));
+					}
+				}
+			};
+
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					return bean instanceof DataSource dataSource
+							? ProxyDataSourceBuilder.create(dataSource).listener(listener).build()
+							: bean;
+				}
+			};
+		}
+	}
+}
@@ -0,0 +1,119 @@
+package com.portfolio.userapi.service;
+
+import com.portfolio.userapi.entity.UserEntity;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+class UserCacheTest {
+
+	private UserCache userCache;
+
+	private AtomicInteger loads;
+
+	@BeforeEach
+	void setUp() {
+		userCache = new UserCache(100, Duration.ofMinutes(5));
+		loads = new AtomicInteger();
+	}
+
+	@Test
+	void should_serve_every_key_from_a_single_load() {
+		UserEntity userEntity = newUserEntity(1L, "userFake", "52998224725");
+
+		userCache.findById(1L, () -> load(userEntity));
+		Optional<UserEntity> byUserName = userCache.findByUserName("userFake", () -> load(userEntity));
+		Optional<UserEntity> byCpf = userCache.findByCpf("52998224725", () -> load(userEntity));
+
+		assertThat(loads.get(), is(1));
+		assertThat(byUserName.get().getId(), is(1L));
+		assertThat(byCpf.get().getId(), is(1L));
+		assertThat(userCache.stats().hits(), is(2L));
+		assertThat(userCache.stats().misses(), is(1L));
+	}
+
+	@Test
+	void should_return_copies_so_callers_cannot_change_the_cached_user() {
+		UserEntity userEntity = newUserEntity(1L, "userFake", "52998224725");
+		userCache.findById(1L, () -> load(userEntity));
+
+		UserEntity cachedUserEntity = userCache.findById(1L, () -> load(userEntity)).get();
+		cachedUserEntity.setFirstName("Changed");
+
+		assertThat(cachedUserEntity, not(sameInstance(userEntity)));
+		assertThat(userCache.findById(1L, () -> load(userEntity)).get().getFirstName(), is("First Name"));
+	}
+
+	@Test
+	void should_evict_the_old_keys_when_a_user_changes_them() {
+		UserEntity userEntity = newUserEntity(1L, "oldUserName", "52998224725");
+		userCache.findById(1L, () -> load(userEntity));
+
+		userCache.evict(newUserEntity(1L, "newUserName", "11144477735"));
+
+		assertThat(userCache.findByUserName("oldUserName", Optional::empty), is(Optional.empty()));
+		assertThat(userCache.findByCpf("52998224725", Optional::empty), is(Optional.empty()));
+		assertThat(userCache.findById(1L, Optional::empty), is(Optional.empty()));
+		assertThat(userCache.stats().size(), is(0L));
+	}
+
+	@Test
+	void should_load_the_misses_of_a_bulk_lookup_at_once_and_cache_them() {
+		UserEntity cachedUserEntity = newUserEntity(1L, "cachedUser", "52998224725");
+		userCache.findById(1L, () -> load(cachedUserEntity));
+		List<List<String>> loadedKeys = new ArrayList<>();
+
+		Map<String, UserEntity> userEntityMap = userCache.findAllByCpfs(List.of("52998224725", "11144477735", "11144477735"), cpfs -> {
+			loadedKeys.add(cpfs);
+			return List.of(newUserEntity(2L, "loadedUser", "11144477735"));
+		});
+
+		assertThat(loadedKeys, is(List.of(List.of("11144477735"))));
+		assertThat(userEntityMap.get("52998224725").getId(), is(1L));
+		assertThat(userEntityMap.get("11144477735").getId(), is(2L));
+		assertThat(userCache.findByUserName("loadedUser", Optional::empty).get().getId(), is(2L));
+		assertThat(userCache.stats().misses(), is(2L));
+	}
+
+	@Test
+	void should_publish_lookups_and_size_as_metrics() {
+		MeterRegistry meterRegistry = new SimpleMeterRegistry();
+		userCache.bindTo(meterRegistry);
+		UserEntity userEntity = newUserEntity(1L, "userFake", "52998224725");
+
+		userCache.findById(1L, () -> load(userEntity));
+		userCache.findByUserName("userFake", () -> load(userEntity));
+
+		assertThat(meterRegistry.get("user.cache.lookups").tag("result", "hit").functionCounter().count(), is(1.0));
+		assertThat(meterRegistry.get("user.cache.lookups").tag("result", "miss").functionCounter().count(), is(1.0));
+		assertThat(meterRegistry.get("cache.size").tag("cache", "users").gauge().value(), is(1.0));
+	}
+
+	private Optional<UserEntity> load(UserEntity userEntity) {
+		loads.incrementAndGet();
+		return Optional.of(userEntity);
+	}
+
+	private UserEntity newUserEntity(long id, String userName, String cpf) {
+		UserEntity userEntity = new UserEntity();
+		userEntity.setId(id);
+		userEntity.setUserName(userName);
+		userEntity.setCpf(cpf);
+		userEntity.setFirstName("First Name");
+		userEntity.setLastName("Last Name");
+		return userEntity;
+	}
+}
@@ -0,0 +1,110 @@
+package com.portfolio.userapi.service;
+
+import com.portfolio.userapi.dto.UserChangeCursorRecord;
+import com.portfolio.userapi.dto.UserChangePageRecord;
+import com.portfolio.userapi.dto.UserChangeRecord;
+import com.portfolio.userapi.entity.UserEntity;
+import com.portfolio.userapi.entity.UserTombstoneEntity;
+import com.portfolio.userapi.repository.IUserRepository;
+import com.portfolio.userapi.repository.IUserTombstoneRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class UserChangeServiceTest {
+
+	private static final LocalDateTime T0 = LocalDateTime.of(2024, 5, 1, 10, 0);
+
+	@Mock
+	private IUserRepository iUserRepositoryMock;
+
+	@Mock
+	private IUserTombstoneRepository iUserTombstoneRepositoryMock;
+
+	@InjectMocks
+	private UserChangeService userChangeService;
+
+	@BeforeEach
+	void setUp() {
+		MockitoAnnotations.openMocks(this);
+		ReflectionTestUtils.setField(userChangeService, "settleTime", Duration.ofSeconds(2));
+		ReflectionTestUtils.setField(userChangeService, "tombstoneRetention", Duration.ofDays(30));
+	}
+
+	@AfterEach
+	void tearDown() {
+		verifyNoMoreInteractions(iUserRepositoryMock, iUserTombstoneRepositoryMock);
+	}
+
+	@Test
+	void should_merge_updates_and_tombstones_in_cursor_order_up_to_the_page_size() {
+		UserChangeCursorRecord since = new UserChangeCursorRecord(T0, 0L);
+		when(iUserRepositoryMock.findChangedAfter(eq(T0), eq(0L), any(LocalDateTime.class), any(Pageable.class)))
+				.thenReturn(new SliceImpl<>(List.of(newUserEntity(3L, T0.plusSeconds(1)), newUserEntity(1L, T0.plusSeconds(3)))));
+		when(iUserTombstoneRepositoryMock.findDeletedAfter(eq(T0), eq(0L), any(LocalDateTime.class), any(Pageable.class)))
+				.thenReturn(new SliceImpl<>(List.of(newTombstone(2L, T0.plusSeconds(1)), newTombstone(4L, T0.plusSeconds(2)))));
+
+		UserChangePageRecord userChangePageRecord = userChangeService.changesAfter(since, 3);
+
+		assertThat(userChangePageRecord.changes().stream().map(UserChangeRecord::id).toList(), is(List.of(2L, 3L, 4L)));
+		assertThat(userChangePageRecord.changes().stream().map(UserChangeRecord::deleted).toList(), is(List.of(true, false, true)));
+		assertThat(userChangePageRecord.nextCursor(), is(new UserChangeCursorRecord(T0.plusSeconds(2), 4L).encode()));
+		verify(iUserRepositoryMock).findChangedAfter(eq(T0), eq(0L), any(LocalDateTime.class), any(Pageable.class));
+		verify(iUserTombstoneRepositoryMock).findDeletedAfter(eq(T0), eq(0L), any(LocalDateTime.class), any(Pageable.class));
+	}
+
+	@Test
+	void should_keep_the_cursor_when_there_are_no_changes() {
+		UserChangeCursorRecord since = new UserChangeCursorRecord(T0, 7L);
+		when(iUserRepositoryMock.findChangedAfter(eq(T0), eq(7L), any(LocalDateTime.class), any(Pageable.class)))
+				.thenReturn(new SliceImpl<>(List.of()));
+		when(iUserTombstoneRepositoryMock.findDeletedAfter(eq(T0), eq(7L), any(LocalDateTime.class), any(Pageable.class)))
+				.thenReturn(new SliceImpl<>(List.of()));
+
+		UserChangePageRecord userChangePageRecord = userChangeService.changesAfter(since, 500);
+
+		assertThat(userChangePageRecord.changes().isEmpty(), is(true));
+		assertThat(userChangePageRecord.nextCursor(), is(since.encode()));
+		verify(iUserRepositoryMock).findChangedAfter(eq(T0), eq(7L), any(LocalDateTime.class), any(Pageable.class));
+		verify(iUserTombstoneRepositoryMock).findDeletedAfter(eq(T0), eq(7L), any(LocalDateTime.class), any(Pageable.class));
+	}
+
+	@Test
+	void should_expire_cursors_older_than_the_tombstone_retention() {
+		assertThat(userChangeService.isExpired(UserChangeCursorRecord.START), is(false));
+		assertThat(userChangeService.isExpired(new UserChangeCursorRecord(LocalDateTime.now().minusDays(1), 1L)), is(false));
+		assertThat(userChangeService.isExpired(new UserChangeCursorRecord(LocalDateTime.now().minusDays(31), 1L)), is(true));
+	}
+
+	private UserEntity newUserEntity(long id, LocalDateTime updateDate) {
+		UserEntity userEntity = new UserEntity();
+		userEntity.setId(id);
+		userEntity.setUpdateDate(updateDate);
+		return userEntity;
+	}
+
+	private UserTombstoneEntity newTombstone(long userId, LocalDateTime deletedAt) {
+		UserTombstoneEntity userTombstoneEntity = new UserTombstoneEntity();
+		userTombstoneEntity.setUserId(userId);
+		userTombstoneEntity.setDeletedAt(deletedAt);
+		return userTombstoneEntity;
+	}
+}
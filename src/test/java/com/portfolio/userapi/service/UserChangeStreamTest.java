@@ -0,0 +1,145 @@
+package com.portfolio.userapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.portfolio.userapi.dto.UserChangeCursorRecord;
+import com.portfolio.userapi.dto.UserChangePageRecord;
+import com.portfolio.userapi.dto.UserChangeRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserChangeStreamTest {
+
+	@Mock
+	private UserChangeService userChangeServiceMock;
+
+	@Spy
+	private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+	@InjectMocks
+	private UserChangeStream userChangeStream;
+
+	@BeforeEach
+	void setUp() {
+		MockitoAnnotations.openMocks(this);
+		ReflectionTestUtils.setField(userChangeStream, "heartbeat", Duration.ofMillis(10));
+		ReflectionTestUtils.setField(userChangeStream, "queueSize", 10);
+	}
+
+	@Test
+	void should_keep_replaying_until_the_feed_has_settled_past_the_subscribe_time() throws Exception {
+		UserChangeRecord settledLate = UserChangeRecord.tombstone(42L, LocalDateTime.now());
+		when(userChangeServiceMock.settledUntil())
+				.thenAnswer(invocation -> LocalDateTime.now().minus(Duration.ofMillis(200)))
+				.thenAnswer(invocation -> LocalDateTime.now().plusSeconds(1));
+		when(userChangeServiceMock.changesAfter(any(UserChangeCursorRecord.class), anyInt()))
+				.thenReturn(new UserChangePageRecord(List.of(), UserChangeCursorRecord.START.encode()))
+				.thenReturn(new UserChangePageRecord(List.of(settledLate), settledLate.cursor().encode()))
+				.thenReturn(new UserChangePageRecord(List.of(), settledLate.cursor().encode()));
+
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		Thread subscriber = Thread.ofVirtual().start(() -> {
+			try {
+				userChangeStream.stream(UserChangeCursorRecord.START, outputStream);
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		});
+		long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+		while (!outputStream.toString(StandardCharsets.UTF_8).contains(": keep-alive") && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		subscriber.interrupt();
+		subscriber.join();
+
+		String events = outputStream.toString(StandardCharsets.UTF_8);
+		assertThat(events, containsString("id: " + settledLate.cursor().encode() + "\n"));
+		assertThat(events.indexOf("id: ") < events.indexOf(": keep-alive"), is(true));
+		verify(userChangeServiceMock, atLeast(3)).changesAfter(any(UserChangeCursorRecord.class), anyInt());
+	}
+
+	@Test
+	void should_resume_from_a_live_event_without_losing_a_change_stamped_before_it() throws Exception {
+		List<UserChangeRecord> feed = new CopyOnWriteArrayList<>();
+		when(userChangeServiceMock.settledUntil()).thenAnswer(invocation -> LocalDateTime.now().plusSeconds(1));
+		when(userChangeServiceMock.changesAfter(any(UserChangeCursorRecord.class), anyInt())).thenAnswer(invocation -> {
+			UserChangeCursorRecord since = invocation.getArgument(0);
+			List<UserChangeRecord> changes = new ArrayList<>(feed.stream()
+					.filter(change -> change.cursor().compareTo(since) > 0)
+					.sorted(Comparator.comparing(UserChangeRecord::cursor))
+					.toList());
+			String nextCursor = changes.isEmpty() ? since.encode() : changes.getLast().cursor().encode();
+			return new UserChangePageRecord(changes, nextCursor);
+		});
+
+		UserChangeRecord live = UserChangeRecord.tombstone(8L, LocalDateTime.now());
+		ByteArrayOutputStream firstConnection = new ByteArrayOutputStream();
+		Thread subscriber = subscribe(UserChangeCursorRecord.START, firstConnection, ": keep-alive");
+		userChangeStream.publishAfterCommit(List.of(live));
+		awaitAndDisconnect(subscriber, firstConnection, "\"id\":8");
+
+		// Another transaction stamped before the live change commits only now
+		UserChangeRecord committedLate = UserChangeRecord.tombstone(7L, live.changedAt().minusSeconds(1));
+		feed.add(committedLate);
+		feed.add(live);
+
+		String firstEvents = firstConnection.toString(StandardCharsets.UTF_8);
+		String lastEventId = firstEvents.substring(firstEvents.lastIndexOf("id: ") + 4, firstEvents.indexOf('\n', firstEvents.lastIndexOf("id: ")));
+		assertThat(lastEventId, not(live.cursor().encode()));
+
+		ByteArrayOutputStream secondConnection = new ByteArrayOutputStream();
+		awaitAndDisconnect(subscribe(UserChangeCursorRecord.decode(lastEventId).orElseThrow(), secondConnection, ": keep-alive"),
+				secondConnection, ": keep-alive");
+
+		assertThat(secondConnection.toString(StandardCharsets.UTF_8), containsString("\"id\":7"));
+	}
+
+	// Starts a subscriber and returns once it has written the marker, so it is registered for live changes
+	private Thread subscribe(UserChangeCursorRecord since, ByteArrayOutputStream outputStream, String marker) throws InterruptedException {
+		Thread subscriber = Thread.ofVirtual().start(() -> {
+			try {
+				userChangeStream.stream(since, outputStream);
+			} catch (Exception e) {
+				throw new RuntimeException(e);
+			}
+		});
+		awaitOutput(outputStream, marker);
+		return subscriber;
+	}
+
+	private static void awaitAndDisconnect(Thread subscriber, ByteArrayOutputStream outputStream, String marker) throws InterruptedException {
+		awaitOutput(outputStream, marker);
+		subscriber.interrupt();
+		subscriber.join();
+	}
+
+	private static void awaitOutput(ByteArrayOutputStream outputStream, String marker) throws InterruptedException {
+		long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+		while (!outputStream.toString(StandardCharsets.UTF_8).contains(marker) && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+	}
+}
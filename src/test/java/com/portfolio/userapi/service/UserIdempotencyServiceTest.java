@@ -0,0 +1,154 @@
+package com.portfolio.userapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.portfolio.userapi.dto.UserSaveRecord;
+import com.portfolio.userapi.entity.UserEntity;
+import com.portfolio.userapi.entity.UserIdempotencyKeyEntity;
+import com.portfolio.userapi.exception.IdempotencyKeyReusedException;
+import com.portfolio.userapi.repository.IUserIdempotencyKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserIdempotencyServiceTest {
+
+	private static final String KEY = "6f1c2a9e-retry";
+
+	private final IUserIdempotencyKeyRepository iUserIdempotencyKeyRepositoryMock = mock(IUserIdempotencyKeyRepository.class);
+	private final ObjectMapper objectMapper = JsonMapper.builder()
+			.findAndAddModules()
+			.filterProvider(new SimpleFilterProvider().setFailOnUnknownId(false))
+			.build();
+	private final AtomicInteger created = new AtomicInteger();
+
+	private UserSaveRecord userSaveRecord;
+
+	@BeforeEach
+	void setUp() {
+		userSaveRecord = new UserSaveRecord("userFake", "11144477735", "First", "Last", LocalDate.of(1990, 1, 31), "user@fake.com");
+	}
+
+	@Test
+	void should_replay_the_created_response_without_creating_the_user_again() {
+		UserIdempotencyService userIdempotencyService = userIdempotencyService(false);
+
+		ResponseEntity<Object> first = userIdempotencyService.execute(KEY, userSaveRecord, this::createUser);
+		ResponseEntity<Object> retry = userIdempotencyService.execute(KEY, userSaveRecord, this::createUser);
+
+		assertThat(created.get(), is(1));
+		assertThat(first.getHeaders().getFirst(UserIdempotencyService.REPLAYED_HEADER), is(nullValue()));
+		assertThat(retry.getStatusCode(), is(HttpStatus.CREATED));
+		assertThat(retry.getHeaders().getFirst(UserIdempotencyService.REPLAYED_HEADER), is("true"));
+		assertThat(retry.getBody(), is(first.getBody()));
+	}
+
+	@Test
+	void should_reject_a_key_reused_with_a_different_request() {
+		UserIdempotencyService userIdempotencyService = userIdempotencyService(false);
+		userIdempotencyService.execute(KEY, userSaveRecord, this::createUser);
+
+		UserSaveRecord otherUserSaveRecord = new UserSaveRecord("otherUser", "52998224725", "First", "Last",
+				LocalDate.of(1990, 1, 31), "other@fake.com");
+
+		assertThrows(IdempotencyKeyReusedException.class,
+				() -> userIdempotencyService.execute(KEY, otherUserSaveRecord, this::createUser));
+		assertThat(created.get(), is(1));
+	}
+
+	@Test
+	void should_not_keep_a_response_that_created_nothing() {
+		UserIdempotencyService userIdempotencyService = userIdempotencyService(false);
+
+		ResponseEntity<Object> rejected = userIdempotencyService.execute(KEY, userSaveRecord,
+				() -> ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body("Username already exist!"));
+		ResponseEntity<Object> retry = userIdempotencyService.execute(KEY, userSaveRecord, this::createUser);
+
+		assertThat(rejected.getStatusCode(), is(HttpStatus.UNPROCESSABLE_ENTITY));
+		assertThat(retry.getStatusCode(), is(HttpStatus.CREATED));
+		assertThat(created.get(), is(1));
+	}
+
+	@Test
+	void should_coalesce_concurrent_requests_with_the_same_key() throws Exception {
+		UserIdempotencyService userIdempotencyService = userIdempotencyService(false);
+		CountDownLatch firstStarted = new CountDownLatch(1);
+		CountDownLatch releaseFirst = new CountDownLatch(1);
+
+		CompletableFuture<ResponseEntity<Object>> first = CompletableFuture.supplyAsync(() ->
+				userIdempotencyService.execute(KEY, userSaveRecord, () -> {
+					firstStarted.countDown();
+					await(releaseFirst);
+					return createUser();
+				}));
+		await(firstStarted);
+		CompletableFuture<ResponseEntity<Object>> second = CompletableFuture.supplyAsync(() ->
+				userIdempotencyService.execute(KEY, userSaveRecord, this::createUser));
+		releaseFirst.countDown();
+
+		assertThat(second.get(5, TimeUnit.SECONDS).getBody(), is(first.get(5, TimeUnit.SECONDS).getBody()));
+		assertThat(second.get().getHeaders().getFirst(UserIdempotencyService.REPLAYED_HEADER), is("true"));
+		assertThat(created.get(), is(1));
+	}
+
+	@Test
+	void should_replay_a_response_stored_in_the_database_by_another_instance() {
+		userIdempotencyService(true).execute(KEY, userSaveRecord, this::createUser);
+		ArgumentCaptor<UserIdempotencyKeyEntity> storedKey = ArgumentCaptor.forClass(UserIdempotencyKeyEntity.class);
+		verify(iUserIdempotencyKeyRepositoryMock).save(storedKey.capture());
+		when(iUserIdempotencyKeyRepositoryMock.findStoredSince(eq(KEY), any(LocalDateTime.class))).thenReturn(Optional.of(storedKey.getValue()));
+
+		ResponseEntity<Object> retry = userIdempotencyService(true).execute(KEY, userSaveRecord, this::createUser);
+
+		assertThat(created.get(), is(1));
+		assertThat(retry.getStatusCode(), is(HttpStatus.CREATED));
+		assertThat(((UserEntity) retry.getBody()).getUserName(), is("userFake"));
+		assertThat(((UserEntity) retry.getBody()).getDateOfBirth(), is(LocalDate.of(1990, 1, 31)));
+	}
+
+	private UserIdempotencyService userIdempotencyService(boolean databaseStore) {
+		UserIdempotencyService userIdempotencyService = new UserIdempotencyService(Duration.ofHours(24), 1000, databaseStore);
+		ReflectionTestUtils.setField(userIdempotencyService, "iUserIdempotencyKeyRepository", iUserIdempotencyKeyRepositoryMock);
+		ReflectionTestUtils.setField(userIdempotencyService, "objectMapper", objectMapper);
+		return userIdempotencyService;
+	}
+
+	private ResponseEntity<Object> createUser() {
+		UserEntity userEntity = new UserEntity();
+		userEntity.setId((long) created.incrementAndGet());
+		userEntity.setUserName(userSaveRecord.userName());
+		userEntity.setDateOfBirth(userSaveRecord.dateOfBirth());
+		return ResponseEntity.status(HttpStatus.CREATED).body(userEntity);
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package com.portfolio.userapi.service;
+
+import com.portfolio.userapi.entity.UserEntity;
+import com.portfolio.userapi.exception.UserConflictException;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Registers two users with the same email, differing only by case, from two threads that both pass the conflict
+ * check before either inserts. Only the unique lower(email) index can stop the second one.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.hikari.data-source-properties.currentSchema=" + UserServiceEmailConflictTest.SCHEMA + ",public",
+		"spring.flyway.schemas=" + UserServiceEmailConflictTest.SCHEMA,
+		"spring.jpa.properties.hibernate.show_sql=false"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserServiceEmailConflictTest {
+
+	static final String SCHEMA = "user_api_email_conflict";
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@AfterAll
+	void dropSchema() {
+		jdbcTemplate.execute("drop schema if exists " + SCHEMA + " cascade");
+	}
+
+	@Test
+	void should_let_only_one_of_two_concurrent_registrations_take_an_email() throws Exception {
+		List<UserEntity> userEntityList = List.of(
+				newUserEntity("first", "52998224725", "same@conflict.com"),
+				newUserEntity("second", "11144477735", "SAME@conflict.com"));
+		CyclicBarrier checked = new CyclicBarrier(userEntityList.size());
+
+		List<String> outcomes;
+		try (ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor()) {
+			List<Future<String>> futures = userEntityList.stream()
+					.map(userEntity -> executorService.submit(() -> {
+						String legend = userService.validateUserData(userEntity, true);
+						checked.await();
+						if (StringUtils.isNotEmpty(legend)) {
+							return legend;
+						}
+						try {
+							userService.save(userEntity);
+							return "saved";
+						} catch (UserConflictException e) {
+							return e.getMessage();
+						}
+					}))
+					.toList();
+			outcomes = futures.stream().map(UserServiceEmailConflictTest::outcome).toList();
+		}
+
+		assertThat(outcomes, containsInAnyOrder("saved", "This email has been assigned another user!"));
+		assertThat(jdbcTemplate.queryForObject("select count(*) from tb_user where lower(email) = 'same@conflict.com'",
+				Long.class), is(1L));
+	}
+
+	private static String outcome(Future<String> future) {
+		try {
+			return future.get();
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static UserEntity newUserEntity(String userName, String cpf, String email) {
+		UserEntity userEntity = new UserEntity();
+		userEntity.setUserName(userName);
+		userEntity.setCpf(cpf);
+		userEntity.setFirstName("Email");
+		userEntity.setLastName("Conflict");
+		userEntity.setDateOfBirth(LocalDate.of(1990, 1, 1));
+		userEntity.setEmail(email);
+		return userEntity;
+	}
+}
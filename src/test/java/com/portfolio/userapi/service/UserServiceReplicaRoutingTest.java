@@ -0,0 +1,83 @@
+package com.portfolio.userapi.service;
+
+import com.portfolio.userapi.dto.UserLookupItemRecord;
+import com.portfolio.userapi.dto.UserLookupRecord;
+import com.portfolio.userapi.dto.UserLookupResultRecord;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Runs the service against two datasources that disagree: the primary is a migrated schema holding one user and the
+ * replica is an empty copy of its table. Anything the service answers with that user was read from the primary.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.hikari.data-source-properties.currentSchema=" + UserServiceReplicaRoutingTest.PRIMARY_SCHEMA + ",public",
+		"spring.flyway.schemas=" + UserServiceReplicaRoutingTest.PRIMARY_SCHEMA,
+		"spring.jpa.properties.hibernate.show_sql=false",
+		"user-api.datasource.replicas[0].url=jdbc:postgresql://localhost:5532/dbpostgres?currentSchema=" + UserServiceReplicaRoutingTest.REPLICA_SCHEMA + ",public",
+		"user-api.datasource.replicas[0].username=postgres",
+		"user-api.datasource.replicas[0].password=postgres"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserServiceReplicaRoutingTest {
+
+	static final String PRIMARY_SCHEMA = "user_api_routing_primary";
+	static final String REPLICA_SCHEMA = "user_api_routing_replica";
+
+	private static final long USER_ID = 4242L;
+	private static final String USER_NAME = "routing4242";
+	private static final String CPF = "52998224725";
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@BeforeAll
+	void seed() {
+		jdbcTemplate.execute("create schema if not exists " + REPLICA_SCHEMA);
+		jdbcTemplate.execute("create table if not exists " + REPLICA_SCHEMA + ".tb_user (like " + PRIMARY_SCHEMA + ".tb_user including all)");
+		jdbcTemplate.update("insert into tb_user (id, user_name, cpf, first_name, last_name, date_of_birth, email, " +
+				"creation_date, update_date, version) values (?, ?, ?, 'Routing', 'Test', date '1990-01-01', " +
+				"'routing4242@test.com', localtimestamp, localtimestamp, 0)", USER_ID, USER_NAME, CPF);
+	}
+
+	@AfterAll
+	void dropSchemas() {
+		jdbcTemplate.execute("drop schema if exists " + REPLICA_SCHEMA + " cascade");
+		jdbcTemplate.execute("drop schema if exists " + PRIMARY_SCHEMA + " cascade");
+	}
+
+	@Test
+	void should_send_plain_read_only_queries_to_the_replica() {
+		assertThat(userService.existsByUserName(USER_NAME), is(false));
+	}
+
+	@Test
+	void should_read_the_single_user_lookups_from_the_primary() {
+		assertThat(userService.findById(USER_ID).isPresent(), is(true));
+		assertThat(userService.findByUserName(USER_NAME).isPresent(), is(true));
+		assertThat(userService.findByCpf(CPF).isPresent(), is(true));
+	}
+
+	@Test
+	void should_read_the_bulk_lookup_from_the_primary() {
+		UserLookupResultRecord userLookupResultRecord = userService.lookup(
+				new UserLookupRecord(List.of(USER_ID), List.of(USER_NAME), List.of(CPF)));
+
+		assertThat(userLookupResultRecord.ids().stream().allMatch(UserLookupItemRecord::found), is(true));
+		assertThat(userLookupResultRecord.userNames().stream().allMatch(UserLookupItemRecord::found), is(true));
+		assertThat(userLookupResultRecord.cpfs().stream().allMatch(UserLookupItemRecord::found), is(true));
+	}
+}
@@ -1,17 +1,86 @@
 package com.portfolio.userapi.service;
 
+import com.portfolio.userapi.dto.UserConflictRecord;
+import com.portfolio.userapi.dto.UserDeleteBatchRecord;
+import com.portfolio.userapi.dto.UserDeleteBatchResultRecord;
+import com.portfolio.userapi.dto.UserLookupItemRecord;
+import com.portfolio.userapi.dto.UserLookupRecord;
+import com.portfolio.userapi.dto.UserLookupResultRecord;
+import com.portfolio.userapi.dto.UserPatchRecord;
+import com.portfolio.userapi.entity.UserConstraints;
+import com.portfolio.userapi.entity.UserEntity;
+import com.portfolio.userapi.exception.UserConflictException;
+import com.portfolio.userapi.repository.IUserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
 
 class UserServiceTest {
 
+	private static final String VALID_CPF = "52998224725";
+
+	@Mock
+	private IUserRepository iUserRepositoryMock;
+
+	@Mock
+	private EntityManager entityManagerMock;
+
+	@Mock
+	private UserChangeStream userChangeStreamMock;
+
+	@Spy
+	private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+	@Spy
+	private UserCache userCache = new UserCache(100, Duration.ofMinutes(5));
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Spy
+	private UserMetrics userMetrics = new UserMetrics(meterRegistry);
+
+	@InjectMocks
+	private UserService userService;
+
 	@BeforeEach
 	void setUp() {
+		MockitoAnnotations.openMocks(this);
 	}
 
 	@AfterEach
 	void tearDown() {
+		verifyNoMoreInteractions(iUserRepositoryMock);
 	}
 
 	@Test
@@ -19,7 +88,98 @@ class UserServiceTest {
 	}
 
 	@Test
-	void delete() {
+	void should_translate_a_unique_violation_into_a_conflict_when_saving() {
+		UserEntity userEntity = newUserEntity();
+		when(iUserRepositoryMock.saveAndFlush(any(UserEntity.class))).thenThrow(integrityViolation(UserConstraints.CPF));
+
+		UserConflictException userConflictException = assertThrows(UserConflictException.class, () -> userService.save(userEntity));
+
+		assertThat(userConflictException.getMessage(), is("CPF already exist!"));
+		verify(iUserRepositoryMock).saveAndFlush(userEntity);
+	}
+
+	@Test
+	void should_not_turn_a_violation_of_another_constraint_into_a_conflict() {
+		UserEntity userEntity = newUserEntity();
+		DataIntegrityViolationException dataIntegrityViolationException = integrityViolation("tb_user_pkey");
+		when(iUserRepositoryMock.saveAndFlush(any(UserEntity.class))).thenThrow(dataIntegrityViolationException);
+
+		assertThat(assertThrows(DataIntegrityViolationException.class, () -> userService.save(userEntity)), is(dataIntegrityViolationException));
+
+		verify(iUserRepositoryMock).saveAndFlush(userEntity);
+	}
+
+	@Test
+	void should_delete_a_user_with_one_statement_and_evict_it_from_the_cache() {
+		UserEntity userEntity = newUserEntity();
+		userEntity.setId(1L);
+		when(iUserRepositoryMock.deleteReturningById(eq(1L), eq(true), eq(new String[0]), any(LocalDateTime.class))).thenReturn(Optional.of(userEntity));
+
+		assertThat(userService.deleteById(1L, null), is(Optional.of(userEntity)));
+
+		verify(iUserRepositoryMock).deleteReturningById(eq(1L), eq(true), eq(new String[0]), any(LocalDateTime.class));
+		verify(userCache).evict(userEntity);
+		verify(userChangeStreamMock).publishAfterCommit(argThat(changes -> changes.size() == 1 && changes.get(0).deleted()));
+	}
+
+	@Test
+	void should_fail_the_optimistic_lock_when_the_user_exists_with_another_version() {
+		String[] eTags = {"\"1-3\""};
+		when(iUserRepositoryMock.deleteReturningByUserName(eq("userFake"), eq(false), eq(eTags), any(LocalDateTime.class))).thenReturn(Optional.empty());
+		when(iUserRepositoryMock.existsByUserName("userFake")).thenReturn(true);
+
+		assertThrows(ObjectOptimisticLockingFailureException.class, () -> userService.deleteByUserName("userFake", List.of("\"1-3\"")));
+
+		verify(iUserRepositoryMock).deleteReturningByUserName(eq("userFake"), eq(false), eq(eTags), any(LocalDateTime.class));
+		verify(iUserRepositoryMock).existsByUserName("userFake");
+	}
+
+	@Test
+	void should_not_find_a_missing_user_to_delete_even_with_if_match() {
+		String[] eTags = {"\"1-3\""};
+		when(iUserRepositoryMock.deleteReturningByCpf(eq(VALID_CPF), eq(false), eq(eTags), any(LocalDateTime.class))).thenReturn(Optional.empty());
+		when(iUserRepositoryMock.existsByCpf(VALID_CPF)).thenReturn(false);
+
+		assertThat(userService.deleteByCpf(VALID_CPF, List.of("\"1-3\"")), is(Optional.empty()));
+
+		verify(iUserRepositoryMock).deleteReturningByCpf(eq(VALID_CPF), eq(false), eq(eTags), any(LocalDateTime.class));
+		verify(iUserRepositoryMock).existsByCpf(VALID_CPF);
+	}
+
+	@Test
+	void should_delete_users_in_batch_and_report_the_keys_not_found() {
+		UserEntity userEntity = newUserEntity();
+		userEntity.setId(1L);
+		Long[] ids = {1L, 2L};
+		String[] userNames = {"userFake", "ghost"};
+		String[] cpfs = {VALID_CPF};
+		when(iUserRepositoryMock.deleteReturningByIdsOrUserNamesOrCpfs(eq(ids), eq(userNames), eq(cpfs), any(LocalDateTime.class))).thenReturn(List.of(userEntity));
+
+		UserDeleteBatchResultRecord userDeleteBatchResultRecord = userService.deleteAll(
+				new UserDeleteBatchRecord(List.of(1L, 2L), List.of("userFake", "ghost"), List.of(VALID_CPF)));
+
+		assertThat(userDeleteBatchResultRecord, is(new UserDeleteBatchResultRecord(1, List.of(2L), List.of("ghost"), List.of())));
+		verify(iUserRepositoryMock).deleteReturningByIdsOrUserNamesOrCpfs(eq(ids), eq(userNames), eq(cpfs), any(LocalDateTime.class));
+		verify(userCache).evict(userEntity);
+	}
+
+	@Test
+	void should_look_up_only_the_keys_the_cache_misses_and_answer_in_request_order() {
+		UserEntity cachedUserEntity = newUserEntity();
+		cachedUserEntity.setId(1L);
+		userCache.findById(1L, () -> Optional.of(cachedUserEntity));
+		UserEntity loadedUserEntity = newUserEntity();
+		loadedUserEntity.setId(3L);
+		when(iUserRepositoryMock.findAllByIdIn(new Long[]{3L, 2L})).thenReturn(List.of(loadedUserEntity));
+
+		UserLookupResultRecord userLookupResultRecord = userService.lookup(new UserLookupRecord(List.of(3L, 1L, 2L, 3L), null, null));
+
+		assertThat(userLookupResultRecord.ids().stream().map(UserLookupItemRecord::key).toList(), is(List.of(3L, 1L, 2L, 3L)));
+		assertThat(userLookupResultRecord.ids().stream().map(UserLookupItemRecord::found).toList(), is(List.of(true, true, false, true)));
+		assertThat(userLookupResultRecord.ids().get(1).user().getId(), is(1L));
+		assertThat(userLookupResultRecord.userNames(), is(List.of()));
+		verify(iUserRepositoryMock).findAllByIdIn(new Long[]{3L, 2L});
+		verifyNoMoreInteractions(iUserRepositoryMock);
 	}
 
 	@Test
@@ -42,10 +202,6 @@ class UserServiceTest {
 	void findByUserName() {
 	}
 
-	@Test
-	void existUsersExludingId() {
-	}
-
 	@Test
 	void findByCpf() {
 	}
@@ -59,14 +215,124 @@ class UserServiceTest {
 	}
 
 	@Test
-	void findUserByEmailAndCpfDiffersToGiven() {
+	void findAll() {
 	}
 
 	@Test
-	void findAll() {
+	void should_accept_a_new_user_without_conflicts_with_a_single_query() {
+		UserEntity userEntity = newUserEntity();
+		when(iUserRepositoryMock.findConflicts(0L, "userFake", VALID_CPF, "fake@fake.com"))
+				.thenReturn(new UserConflictRecord(0, 0, 0));
+
+		assertThat(userService.validateUserData(userEntity, true), is(""));
+
+		verify(iUserRepositoryMock).findConflicts(0L, "userFake", VALID_CPF, "fake@fake.com");
+	}
+
+	@Test
+	void should_exclude_the_user_itself_when_validating_an_update() {
+		UserEntity userEntity = newUserEntity();
+		userEntity.setId(5L);
+		when(iUserRepositoryMock.findConflicts(5L, "userFake", VALID_CPF, "fake@fake.com"))
+				.thenReturn(new UserConflictRecord(0, 0, 1));
+
+		assertThat(userService.validateUserData(userEntity, false), is("This email has been assigned another user!"));
+
+		verify(iUserRepositoryMock).findConflicts(5L, "userFake", VALID_CPF, "fake@fake.com");
+	}
+
+	@Test
+	void should_report_the_username_conflict_before_an_invalid_cpf() {
+		UserEntity userEntity = newUserEntity();
+		userEntity.setCpf("12345678900");
+		when(iUserRepositoryMock.findConflicts(0L, "userFake", "12345678900", "fake@fake.com"))
+				.thenReturn(new UserConflictRecord(1, 0, 0));
+
+		assertThat(userService.validateUserData(userEntity, true), is("Username already exist!"));
+
+		verify(iUserRepositoryMock).findConflicts(0L, "userFake", "12345678900", "fake@fake.com");
+	}
+
+	@Test
+	void should_time_each_validation_step() {
+		UserEntity userEntity = newUserEntity();
+		when(iUserRepositoryMock.findConflicts(0L, "userFake", VALID_CPF, "fake@fake.com"))
+				.thenReturn(new UserConflictRecord(0, 0, 0));
+
+		userService.validateUserData(userEntity, true);
+
+		for (String step : new String[]{UserMetrics.STEP_AGE, UserMetrics.STEP_CONFLICTS, UserMetrics.STEP_CPF, UserMetrics.STEP_EMAIL}) {
+			assertThat(step, meterRegistry.get(UserMetrics.VALIDATION_TIMER).tag("step", step).timer().count(), is(1L));
+		}
+		verify(iUserRepositoryMock).findConflicts(0L, "userFake", VALID_CPF, "fake@fake.com");
+	}
+
+	@Test
+	void should_only_check_the_changed_email_when_validating_a_patch() {
+		UserEntity userEntity = newUserEntity();
+		userEntity.setId(5L);
+		userEntity.setCpf("12345678900");
+		when(iUserRepositoryMock.findConflicts(5L, null, null, "fake@fake.com"))
+				.thenReturn(new UserConflictRecord(0, 0, 1));
+
+		assertThat(userService.validateChangedUserData(userEntity, Set.of(UserPatchRecord.FIELD_EMAIL)),
+				is("This email has been assigned another user!"));
+
+		verify(iUserRepositoryMock).findConflicts(5L, null, null, "fake@fake.com");
+	}
+
+	@Test
+	void should_not_query_conflicts_when_a_patch_changes_no_unique_field() {
+		UserEntity userEntity = newUserEntity();
+		userEntity.setId(5L);
+
+		assertThat(userService.validateChangedUserData(userEntity,
+				Set.of(UserPatchRecord.FIELD_FIRST_NAME, UserPatchRecord.FIELD_LAST_NAME)), is(""));
 	}
 
 	@Test
-	void validateUserData() {
+	void should_not_query_conflicts_when_the_user_is_under_age() {
+		UserEntity userEntity = newUserEntity();
+		userEntity.setDateOfBirth(LocalDate.now().minusYears(10));
+
+		assertThat(userService.validateUserData(userEntity, true), is("Only users over 18 years of age must be registered!"));
+	}
+
+	@Test
+	void should_validate_a_batch_in_the_same_order_against_the_taken_and_earlier_keys() {
+		UserEntity first = newUserEntity();
+		UserEntity sameUserName = newUserEntity();
+		sameUserName.setCpf("12345678900");
+		UserEntity takenEmail = newUserEntity();
+		takenEmail.setUserName("otherFake");
+		takenEmail.setCpf("11144477735");
+		takenEmail.setEmail("Taken@Fake.com");
+		when(iUserRepositoryMock.findUserNamesIn(Set.of("userFake", "otherFake"))).thenReturn(List.of());
+		when(iUserRepositoryMock.findCpfsIn(Set.of(VALID_CPF, "12345678900", "11144477735"))).thenReturn(List.of());
+		when(iUserRepositoryMock.findEmailsIn(Set.of("fake@fake.com", "taken@fake.com"))).thenReturn(List.of("taken@fake.com"));
+
+		assertThat(userService.validateUsersData(List.of(first, sameUserName, takenEmail)),
+				is(List.of("", "Username already exist!", "This email has been assigned another user!")));
+
+		assertThat(meterRegistry.find(UserMetrics.VALIDATION_TIMER).timers().stream().allMatch(timer -> timer.count() == 0), is(true));
+		verify(iUserRepositoryMock).findUserNamesIn(Set.of("userFake", "otherFake"));
+		verify(iUserRepositoryMock).findCpfsIn(Set.of(VALID_CPF, "12345678900", "11144477735"));
+		verify(iUserRepositoryMock).findEmailsIn(Set.of("fake@fake.com", "taken@fake.com"));
+	}
+
+	private static DataIntegrityViolationException integrityViolation(String constraintName) {
+		return new DataIntegrityViolationException("duplicate", new ConstraintViolationException("duplicate key",
+				new SQLException("ERROR: duplicate key value violates unique constraint \"" + constraintName + "\""), constraintName));
+	}
+
+	private UserEntity newUserEntity() {
+		UserEntity userEntity = new UserEntity();
+		userEntity.setUserName("userFake");
+		userEntity.setCpf(VALID_CPF);
+		userEntity.setFirstName("First Name");
+		userEntity.setLastName("Last Name");
+		userEntity.setDateOfBirth(LocalDate.of(1999, 12, 31));
+		userEntity.setEmail("fake@fake.com");
+		return userEntity;
 	}
-}
\ No newline at end of file
+}
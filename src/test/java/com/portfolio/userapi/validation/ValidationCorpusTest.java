@@ -0,0 +1,242 @@
+package com.portfolio.userapi.validation;
+
+import com.portfolio.userapi.config.Config;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Pattern;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Checks the validation engine against copies of the implementations it replaced, over generated valid and
+ * invalid inputs.
+ */
+class ValidationCorpusTest {
+
+	private static final int CORPUS_SIZE = 200_000;
+
+	private static final String[] TOP_LEVEL_DOMAINS = {"com", "org", "net", "edu", "gov", "mil", "biz", "info",
+			"mobi", "name", "aero", "asia", "jobs", "museum", "br", "io", "c", "comm", "museu", "COM", "Info", "ꓳrg",
+			"ſobs", "br1", "b-r", ""};
+
+	private final Random random = new Random(42);
+
+	@Test
+	void should_validate_cpf_like_the_legacy_implementation() {
+		List<String> corpus = new ArrayList<>();
+		for (char digit = '0'; digit <= '9'; digit++) {
+			corpus.add(String.valueOf(digit).repeat(11));
+			corpus.add(String.valueOf(digit).repeat(3) + "." + String.valueOf(digit).repeat(3) + "."
+					+ String.valueOf(digit).repeat(3) + "-" + String.valueOf(digit).repeat(2));
+		}
+		corpus.add("aaaaaaaaaaa");
+		corpus.add("");
+		corpus.add("529.982.247-25");
+		corpus.add("529/982/247/25");
+		corpus.add("5299822472");
+		corpus.add("529982247250");
+		corpus.add("  529982247");
+		for (int i = 0; i < CORPUS_SIZE; i++) {
+			corpus.add(switch (i % 4) {
+				case 0 -> newCpf();
+				case 1 -> formatted(newCpf());
+				case 2 -> mutated(random.nextBoolean() ? newCpf() : formatted(newCpf()), "0123456789.-/ a*");
+				default -> randomString(random.nextInt(16), "0123456789.-/ ?:");
+			});
+		}
+
+		int valid = 0;
+		for (String cpf : corpus) {
+			boolean expected = legacyIsValidCpf(cpf);
+			assertThat(cpf, CpfValidator.isValid(cpf), is(expected));
+			valid += expected ? 1 : 0;
+		}
+		assertThat(valid, greaterThan(CORPUS_SIZE / 4));
+		assertThat(corpus.size() - valid, greaterThan(CORPUS_SIZE / 4));
+	}
+
+	@Test
+	void should_validate_email_like_the_legacy_regular_expression() {
+		java.util.regex.Pattern caseSensitive = java.util.regex.Pattern.compile(Config.EMAIL_REGEXP_FORMAT);
+		java.util.regex.Pattern caseInsensitive = java.util.regex.Pattern.compile(Config.EMAIL_REGEXP_FORMAT,
+				java.util.regex.Pattern.CASE_INSENSITIVE);
+
+		List<String> corpus = new ArrayList<>(List.of("", "@", "a@b.co", "a@.com", "@b.com", "a@b.c", "a@@b.com",
+				"a.b@c.d.museum", "a@b.com\n", "a@b.COM", "a b@c.com", "a@b_c.com", "ä@b.com", "a@b.ſobs"));
+		for (int i = 0; i < CORPUS_SIZE; i++) {
+			corpus.add(switch (i % 3) {
+				case 0 -> newEmail();
+				case 1 -> mutated(newEmail(), "aZ09._%+-@ äſ");
+				default -> randomString(random.nextInt(20), "abZ09._%+-@ ");
+			});
+		}
+
+		int valid = 0;
+		for (String email : corpus) {
+			boolean expected = caseSensitive.matcher(email).matches();
+			assertThat(email, EmailValidator.isValid(email), is(expected));
+			assertThat(email, EmailValidator.isValid(email, true), is(caseInsensitive.matcher(email).matches()));
+			valid += expected ? 1 : 0;
+		}
+		assertThat(valid, greaterThan(CORPUS_SIZE / 10));
+		assertThat(corpus.size() - valid, greaterThan(CORPUS_SIZE / 10));
+	}
+
+	@Test
+	void should_apply_the_email_constraint_like_the_legacy_annotation() {
+		try (ValidatorFactory validatorFactory = Validation.buildDefaultValidatorFactory()) {
+			Validator validator = validatorFactory.getValidator();
+			for (int i = 0; i < 20_000; i++) {
+				String email = i % 2 == 0 ? newEmail() : mutated(newEmail(), "aZ09._%+-@ ");
+				boolean expected = validator.validate(new LegacyEmailRecord(email)).isEmpty();
+				assertThat(email, validator.validate(new EmailRecord(email)).isEmpty(), is(expected));
+			}
+		}
+	}
+
+	@Test
+	void should_compute_age_like_period_between() {
+		List<LocalDate> todays = List.of(LocalDate.of(2024, 2, 29), LocalDate.of(2024, 3, 1),
+				LocalDate.of(2027, 2, 28), LocalDate.of(2027, 3, 1), LocalDate.of(2028, 2, 29),
+				LocalDate.of(2023, 12, 31), LocalDate.of(2025, 1, 1), LocalDate.now());
+
+		for (LocalDate today : todays) {
+			for (LocalDate dateOfBirth = today.minusYears(25); dateOfBirth.isBefore(today.plusYears(1));
+				 dateOfBirth = dateOfBirth.plusDays(1)) {
+				boolean expected = Period.between(dateOfBirth, today).getYears() < Config.ALLOWED_AGE_USERS_REGISTRATION;
+				assertThat(dateOfBirth + " " + today, AgeValidator.isUnderAge(dateOfBirth, today), is(expected));
+			}
+		}
+		assertThat(AgeValidator.isUnderAge(LocalDate.now().minusYears(18)), is(true));
+		assertThat(AgeValidator.isUnderAge(LocalDate.now().minusYears(19)), is(false));
+	}
+
+	private String newCpf() {
+		int[] digits = new int[11];
+		for (int i = 0; i < 9; i++) {
+			digits[i] = random.nextInt(10);
+		}
+		for (int position = 9; position < 11; position++) {
+			int sum = 0;
+			for (int i = 0; i < position; i++) {
+				sum += digits[i] * (position + 1 - i);
+			}
+			int r = 11 - (sum % 11);
+			digits[position] = r >= 10 ? 0 : r;
+		}
+		StringBuilder cpf = new StringBuilder();
+		for (int digit : digits) {
+			cpf.append(digit);
+		}
+		return cpf.toString();
+	}
+
+	private String formatted(String cpf) {
+		return cpf.substring(0, 3) + "." + cpf.substring(3, 6) + "." + cpf.substring(6, 9) + "-" + cpf.substring(9);
+	}
+
+	private String newEmail() {
+		return randomString(1 + random.nextInt(10), "abcXYZ019._%+-") + "@"
+				+ randomString(1 + random.nextInt(10), "abcXYZ019.-") + "."
+				+ TOP_LEVEL_DOMAINS[random.nextInt(TOP_LEVEL_DOMAINS.length)];
+	}
+
+	private String mutated(String text, String alphabet) {
+		StringBuilder builder = new StringBuilder(text);
+		int position = random.nextInt(builder.length() + 1);
+		char c = alphabet.charAt(random.nextInt(alphabet.length()));
+		switch (random.nextInt(3)) {
+			case 0 -> builder.insert(position, c);
+			case 1 -> {
+				if (position < builder.length()) {
+					builder.deleteCharAt(position);
+				}
+			}
+			default -> {
+				if (position < builder.length()) {
+					builder.setCharAt(position, c);
+				}
+			}
+		}
+		return builder.toString();
+	}
+
+	private String randomString(int length, String alphabet) {
+		StringBuilder builder = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+		}
+		return builder.toString();
+	}
+
+	private record EmailRecord(@Email @ValidEmail(ignoreCase = true) String email) {
+	}
+
+	private record LegacyEmailRecord(@Email(regexp = Config.EMAIL_REGEXP_FORMAT, flags = Pattern.Flag.CASE_INSENSITIVE)
+									 String email) {
+	}
+
+	private static boolean legacyIsValidCpf(String cpf) {
+		cpf = legacyRemoveCaracteresEspeciais(cpf);
+
+		if (cpf.equals("00000000000") || cpf.equals("11111111111") || cpf.equals("22222222222") || cpf.equals("33333333333") || cpf.equals("44444444444") || cpf.equals("55555555555") || cpf.equals("66666666666") || cpf.equals("77777777777") || cpf.equals("88888888888") || cpf.equals("99999999999") || (cpf.length() != 11))
+			return (false);
+
+		char dig10, dig11;
+		int sm, i, r, num, peso;
+
+		sm = 0;
+		peso = 10;
+		for (i = 0; i < 9; i++) {
+			num = (int) (cpf.charAt(i) - 48);
+			sm = sm + (num * peso);
+			peso = peso - 1;
+		}
+
+		r = 11 - (sm % 11);
+		if ((r == 10) || (r == 11))
+			dig10 = '0';
+		else
+			dig10 = (char) (r + 48);
+
+		sm = 0;
+		peso = 11;
+		for (i = 0; i < 10; i++) {
+			num = (int) (cpf.charAt(i) - 48);
+			sm = sm + (num * peso);
+			peso = peso - 1;
+		}
+
+		r = 11 - (sm % 11);
+		if ((r == 10) || (r == 11))
+			dig11 = '0';
+		else
+			dig11 = (char) (r + 48);
+
+		return (dig10 == cpf.charAt(9)) && (dig11 == cpf.charAt(10));
+	}
+
+	private static String legacyRemoveCaracteresEspeciais(String doc) {
+		if (doc.contains(".")) {
+			doc = doc.replace(".", "");
+		}
+		if (doc.contains("-")) {
+			doc = doc.replace("-", "");
+		}
+		if (doc.contains("/")) {
+			doc = doc.replace("/", "");
+		}
+		return doc;
+	}
+}
@@ -0,0 +1,13 @@
+package com.portfolio.userapi.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class UserReactiveApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(UserReactiveApplication.class, args);
+	}
+
+}
@@ -0,0 +1,342 @@
+package com.portfolio.userapi.reactive.controller;
+
+import com.portfolio.userapi.config.Config;
+import com.portfolio.userapi.dto.UserPageRecord;
+import com.portfolio.userapi.dto.UserSaveRecord;
+import com.portfolio.userapi.exception.UserConflictException;
+import com.portfolio.userapi.reactive.entity.UserReactiveEntity;
+import com.portfolio.userapi.reactive.service.UserReactiveService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The routes of {@code UserController} that a reactive client needs, answered with the same statuses, legends,
+ * ETags and page records. Nothing here blocks: every handler returns a {@link Mono} that Netty writes once the
+ * database answers.
+ */
+@RestController
+@RequestMapping("/user")
+public class UserReactiveController {
+
+	private final static String LEGEND_USER_NOT_FOUND = "User not found";
+	private final static String LEGEND_USER_DELETED = "User has been deleted";
+	private final static String LEGEND_SEARCH_TERM_TOO_SHORT = "Search terms must have at least " + Config.MIN_SEARCH_LENGTH + " characters";
+	private final static String LEGEND_INVALID_PAGE = "Invalid page, page cannot be negative and size must be at least 1";
+	private final static String LEGEND_USER_MODIFIED = "User has been modified by another request";
+
+	@Autowired
+	private UserReactiveService userReactiveService;
+
+	@Operation(summary = "Add a user", description = "Allows adding a user record")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "201", description = "User created"),
+			@ApiResponse(responseCode = "422", description = "Unprocessable entity")
+	})
+	@PostMapping(value = "/add",
+			consumes = MediaType.APPLICATION_JSON_VALUE,
+			produces = MediaType.APPLICATION_JSON_VALUE
+	)
+	public Mono<ResponseEntity<Object>> addUser(@RequestBody @Valid Mono<UserSaveRecord> userSaveRecordMono) {
+		return userSaveRecordMono.map(this::toUserEntity).flatMap(this::createUser);
+	}
+
+	@Operation(summary = "Get all users", description = "Returns a page of all users in id order. " +
+			"Set withTotals=false to skip the count query")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Successfully retrieved"),
+			@ApiResponse(responseCode = "400", description = "Invalid page")
+	})
+	@GetMapping("/all")
+	public Mono<ResponseEntity<Object>> getAllUsers(@RequestParam(defaultValue = "0") int page,
+													@RequestParam(defaultValue = "10") int size,
+													@RequestParam(defaultValue = "true") boolean withTotals) {
+
+		validatePage(page, size);
+		int pageSize = Math.min(size, Config.MAX_PAGE_SIZE);
+		Mono<List<UserReactiveEntity>> users = userReactiveService.findAll(offsetPage(page, pageSize)).collectList();
+
+		if (!withTotals) {
+			return users.map(userList -> ok(new UserPageRecord(page, null, null, null, userList)));
+		}
+
+		// The page and its count go to the database at the same time on two connections
+		return Mono.zip(users, userReactiveService.count())
+				.map(pageAndCount -> ok(new UserPageRecord(page, pageAndCount.getT2(),
+						(int) Math.ceilDiv(pageAndCount.getT2(), pageSize), null, pageAndCount.getT1())));
+	}
+
+	@Operation(summary = "Get a user by username", description = "Returns a user record given its username")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Successfully retrieved"),
+			@ApiResponse(responseCode = "304", description = "If-None-Match matches the current ETag"),
+	})
+	@GetMapping("/username/{username}")
+	public Mono<ResponseEntity<Object>> getUserByUserName(@PathVariable(value = "username") String userName,
+														  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		return userReactiveService.findByUserName(userName)
+				.map(userEntity -> userResponse(userEntity, ifNoneMatch))
+				.defaultIfEmpty(ResponseEntity.status(HttpStatus.NOT_FOUND).body(LEGEND_USER_NOT_FOUND));
+	}
+
+	@Operation(summary = "Get a user by cpf", description = "Returns a user record given its cpf")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Successfully retrieved"),
+			@ApiResponse(responseCode = "304", description = "If-None-Match matches the current ETag"),
+	})
+	@GetMapping("/cpf/{cpf}")
+	public Mono<ResponseEntity<Object>> getUserByCpf(@PathVariable(value = "cpf") String cpf,
+													 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		return userReactiveService.findByCpf(cpf)
+				.map(userEntity -> userResponse(userEntity, ifNoneMatch))
+				.defaultIfEmpty(ResponseEntity.status(HttpStatus.NOT_FOUND).body(LEGEND_USER_NOT_FOUND));
+	}
+
+	@Operation(summary = "Gets users given first name", description = "Returns a page of the users given the first name or part of it, " +
+			"which needs at least 3 characters")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Successfully retrieved"),
+			@ApiResponse(responseCode = "400", description = "The first name is too short or the page is invalid")
+	})
+	@RequestMapping(value = {"/user/filter/firstname"}, method = RequestMethod.GET, params = "firstname")
+	public Mono<ResponseEntity<Object>> getUserbyFirstName(
+			@RequestParam(value = "firstname") String firstName,
+			@RequestParam(defaultValue = "0") int page,
+			@RequestParam(defaultValue = "50") int size) {
+
+		return userReactiveService.findByFirstNameContains(searchTerm(firstName), searchPage(page, size)).collectList().map(this::ok);
+	}
+
+	@Operation(summary = "Gets users given last name", description = "Returns a page of the users given the last name or part of it, " +
+			"which needs at least 3 characters")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Successfully retrieved"),
+			@ApiResponse(responseCode = "400", description = "The last name is too short or the page is invalid")
+	})
+	@RequestMapping(value = {"/user/filter/lastname"}, method = RequestMethod.GET, params = "lastname")
+	public Mono<ResponseEntity<Object>> getUserbyLastName(
+			@RequestParam(value = "lastname") String lastName,
+			@RequestParam(defaultValue = "0") int page,
+			@RequestParam(defaultValue = "50") int size) {
+
+		return userReactiveService.findByLastNameContains(searchTerm(lastName), searchPage(page, size)).collectList().map(this::ok);
+	}
+
+	@Operation(summary = "Search users by name", description = "Returns a page of the users whose full name contains 'name', " +
+			"or whose first and/or last name contain 'firstname' and 'lastname'. Each term needs at least 3 characters")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "Successfully retrieved"),
+			@ApiResponse(responseCode = "400", description = "Search terms are missing or too short, or the page is invalid")
+	})
+	@GetMapping("/search")
+	public Mono<ResponseEntity<Object>> searchUsers(@RequestParam(required = false) String name,
+													@RequestParam(value = "firstname", required = false) String firstName,
+													@RequestParam(value = "lastname", required = false) String lastName,
+													@RequestParam(defaultValue = "0") int page,
+													@RequestParam(defaultValue = "20") int size) {
+
+		Flux<UserReactiveEntity> users;
+		if (Objects.nonNull(name)) {
+			users = userReactiveService.searchByName(searchTerm(name), searchPage(page, size));
+		} else if (Objects.nonNull(firstName) || Objects.nonNull(lastName)) {
+			String firstNameTerm = Objects.isNull(firstName) ? null : searchTerm(firstName);
+			String lastNameTerm = Objects.isNull(lastName) ? null : searchTerm(lastName);
+			users = userReactiveService.searchByFirstAndLastName(firstNameTerm, lastNameTerm, searchPage(page, size));
+		} else {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, LEGEND_SEARCH_TERM_TOO_SHORT);
+		}
+
+		return users.collectList().map(userList -> ok(new UserPageRecord(page, null, null, null, userList)));
+	}
+
+	@Operation(summary = "Delete a user given their id", description = "Delete a user record by giving its id")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "User has been deleted"),
+			@ApiResponse(responseCode = "404", description = "User not found"),
+			@ApiResponse(responseCode = "412", description = "If-Match does not match the current ETag, or the user is not found"),
+	})
+	@DeleteMapping("/{id}")
+	public Mono<ResponseEntity<Object>> deleteUserById(@PathVariable(value = "id") long id,
+													   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		return deleteUser(userReactiveService.deleteById(id, strongETags(ifMatch)), ifMatch);
+	}
+
+	@Operation(summary = "Delete a user given their username", description = "Delete a user record by giving its username")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "User has been deleted"),
+			@ApiResponse(responseCode = "404", description = "User not found"),
+			@ApiResponse(responseCode = "412", description = "If-Match does not match the current ETag, or the user is not found"),
+	})
+	@DeleteMapping("/username/{username}")
+	public Mono<ResponseEntity<Object>> deleteUserByUserName(@PathVariable(value = "username") String userName,
+															 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		return deleteUser(userReactiveService.deleteByUserName(userName, strongETags(ifMatch)), ifMatch);
+	}
+
+	@Operation(summary = "Delete a user given their cpf", description = "Delete a user record by giving its cpf")
+	@ApiResponses(value = {
+			@ApiResponse(responseCode = "200", description = "User has been deleted"),
+			@ApiResponse(responseCode = "404", description = "User not found"),
+			@ApiResponse(responseCode = "412", description = "If-Match does not match the current ETag, or the user is not found"),
+	})
+	@DeleteMapping("/cpf/{cpf}")
+	public Mono<ResponseEntity<Object>> deleteUserByCpf(@PathVariable(value = "cpf") String cpf,
+														@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+		return deleteUser(userReactiveService.deleteByCpf(cpf, strongETags(ifMatch)), ifMatch);
+	}
+
+	@ExceptionHandler(UserConflictException.class)
+	public ResponseEntity<Object> handleUserConflict(UserConflictException userConflictException) {
+		return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(userConflictException.getMessage());
+	}
+
+	@ExceptionHandler(OptimisticLockingFailureException.class)
+	public ResponseEntity<Object> handleOptimisticLockingFailure(OptimisticLockingFailureException optimisticLockingFailureException) {
+		return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(LEGEND_USER_MODIFIED);
+	}
+
+	private Mono<ResponseEntity<Object>> createUser(UserReactiveEntity userEntity) {
+		return userReactiveService.validateUserData(userEntity, true)
+				.flatMap(validateNewUserLegend -> validateNewUserLegend.isEmpty()
+						? userReactiveService.save(userEntity).map(savedUserEntity -> ResponseEntity.status(HttpStatus.CREATED).body(savedUserEntity))
+						: Mono.just(ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(validateNewUserLegend)));
+	}
+
+	// If-Match, even *, asks for a current version, and a missing user has none, so the precondition fails
+	private Mono<ResponseEntity<Object>> deleteUser(Mono<UserReactiveEntity> deletedMono, String ifMatch) {
+		return deletedMono
+				.map(userEntity -> ResponseEntity.status(HttpStatus.OK).body((Object) LEGEND_USER_DELETED))
+				.defaultIfEmpty(ResponseEntity.status(Objects.isNull(ifMatch) ? HttpStatus.NOT_FOUND : HttpStatus.PRECONDITION_FAILED)
+						.body(LEGEND_USER_NOT_FOUND));
+	}
+
+	private ResponseEntity<Object> ok(Object body) {
+		return ResponseEntity.status(HttpStatus.OK).body(body);
+	}
+
+	// Offset pages follow the primary key, so every page is stable and read through its index
+	private PageRequest offsetPage(int page, int size) {
+		return PageRequest.of(page, size, Sort.by("id"));
+	}
+
+	private PageRequest searchPage(int page, int size) {
+		validatePage(page, size);
+		return PageRequest.of(page, Math.min(size, Config.MAX_SEARCH_SIZE));
+	}
+
+	private void validatePage(int page, int size) {
+		if (page < 0 || size < 1) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, LEGEND_INVALID_PAGE);
+		}
+	}
+
+	private String searchTerm(String term) {
+
+		String trimmedTerm = term.trim();
+		if (trimmedTerm.length() < Config.MIN_SEARCH_LENGTH) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, LEGEND_SEARCH_TERM_TOO_SHORT);
+		}
+
+		return trimmedTerm;
+	}
+
+	private ResponseEntity<Object> userResponse(UserReactiveEntity userEntity, String ifNoneMatch) {
+
+		String eTag = eTagOf(userEntity);
+		if (matchesETag(ifNoneMatch, eTag, false)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+		}
+
+		return ResponseEntity.status(HttpStatus.OK).eTag(eTag).body(userEntity);
+	}
+
+	// Null lets any version through (no If-Match, or *); weak tags can never satisfy If-Match so they are dropped
+	private static List<String> strongETags(String ifMatch) {
+
+		if (Objects.isNull(ifMatch)) {
+			return null;
+		}
+
+		List<String> eTags = new ArrayList<>();
+		for (String candidate : ifMatch.split(",")) {
+			candidate = candidate.trim();
+			if (candidate.equals("*")) {
+				return null;
+			}
+			if (!candidate.startsWith("W/")) {
+				eTags.add(candidate);
+			}
+		}
+
+		return eTags;
+	}
+
+	private static String eTagOf(UserReactiveEntity userEntity) {
+		return "\"" + userEntity.getId() + "-" + userEntity.getVersion() + "\"";
+	}
+
+	// If-None-Match compares weakly and If-Match strongly, so a W/ tag can only satisfy the former
+	private static boolean matchesETag(String header, String eTag, boolean strong) {
+
+		if (Objects.isNull(header)) {
+			return false;
+		}
+
+		for (String candidate : header.split(",")) {
+			candidate = candidate.trim();
+			if (candidate.equals("*")) {
+				return true;
+			}
+			if (candidate.startsWith("W/")) {
+				if (strong) {
+					continue;
+				}
+				candidate = candidate.substring(2);
+			}
+			if (candidate.equals(eTag)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private UserReactiveEntity toUserEntity(UserSaveRecord userSaveRecord) {
+		UserReactiveEntity userEntity = new UserReactiveEntity();
+		userEntity.setUserName(userSaveRecord.userName());
+		userEntity.setCpf(userSaveRecord.cpf());
+		userEntity.setFirstName(userSaveRecord.firstName());
+		userEntity.setLastName(userSaveRecord.lastName());
+		userEntity.setDateOfBirth(userSaveRecord.dateOfBirth());
+		userEntity.setEmail(userSaveRecord.email());
+
+		return userEntity;
+	}
+}
@@ -0,0 +1,52 @@
+package com.portfolio.userapi.reactive.entity;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.portfolio.userapi.config.Config;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * The R2DBC mapping of {@code tb_user}. The schema stays owned by the MVC application's Flyway migrations, so the
+ * fields, their order and their JSON form are the same as {@code UserEntity}'s.
+ */
+@Data
+@Table("tb_user")
+public class UserReactiveEntity {
+
+	@Id
+	private Long id;
+
+	private String userName;
+
+	private String cpf;
+
+	private String firstName;
+
+	private String lastName;
+
+	@JsonFormat(shape = JsonFormat.Shape.STRING,
+			pattern = Config.DATE_FORMAT,
+			locale = Config.LOCALIZATION,
+			timezone = Config.TIME_ZONE)
+	private LocalDate dateOfBirth;
+
+	private String email;
+
+	private LocalDateTime creationDate;
+
+	private LocalDateTime updateDate;
+
+	@Version
+	private Long version;
+
+	@Override
+	public String toString() {
+		return "CPF: " + this.cpf + " Name: " + this.getLastName() + ", " + this.getFirstName();
+	}
+
+}
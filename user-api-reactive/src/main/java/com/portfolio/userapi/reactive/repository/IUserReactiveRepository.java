@@ -0,0 +1,69 @@
+package com.portfolio.userapi.reactive.repository;
+
+import com.portfolio.userapi.dto.UserConflictRecord;
+import com.portfolio.userapi.reactive.entity.UserReactiveEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IUserReactiveRepository extends ReactiveCrudRepository<UserReactiveEntity, Long> {
+
+	String TOMBSTONES = "tombstones as (insert into tb_user_tombstone (user_id, deleted_at) select id, :deletedAt from deleted) ";
+
+	// Hibernate keeps a pool of 50 ids per value; the reactive side takes a whole value per insert, so the two never collide
+	@Query("select nextval('tb_user_seq')")
+	Mono<Long> nextId();
+
+	Mono<Boolean> existsByUserName(String userName);
+
+	Mono<Boolean> existsByCpf(String cpf);
+
+	Mono<UserReactiveEntity> findByUserName(String userName);
+
+	Mono<UserReactiveEntity> findByCpf(String cpf);
+
+	Flux<UserReactiveEntity> findAllBy(Pageable pageable);
+
+	@Query("select * from tb_user u where u.first_name ilike :pattern order by u.id limit :limit offset :offset")
+	Flux<UserReactiveEntity> findByFirstNameLike(String pattern, int limit, long offset);
+
+	@Query("select * from tb_user u where u.last_name ilike :pattern order by u.id limit :limit offset :offset")
+	Flux<UserReactiveEntity> findByLastNameLike(String pattern, int limit, long offset);
+
+	@Query("select * from tb_user u where u.first_name ilike :firstNamePattern and u.last_name ilike :lastNamePattern " +
+			"order by u.id limit :limit offset :offset")
+	Flux<UserReactiveEntity> findByFirstNameLikeAndLastNameLike(String firstNamePattern, String lastNamePattern, int limit, long offset);
+
+	@Query("select * from tb_user u where (u.first_name || ' ' || u.last_name) ilike :pattern order by u.id limit :limit offset :offset")
+	Flux<UserReactiveEntity> findByFullNameLike(String pattern, int limit, long offset);
+
+	// If-Match is checked in the same statement: with anyVersion false only a row whose "<id>-<version>" tag is listed goes.
+	// Every delete leaves a tombstone in the same statement so the change feed can report it
+	@Query("with deleted as (delete from tb_user u where u.id = :id " +
+			"and (:anyVersion or ('\"' || u.id || '-' || u.version || '\"') = any(:eTags)) returning *), " +
+			TOMBSTONES + "select * from deleted")
+	Mono<UserReactiveEntity> deleteReturningById(long id, boolean anyVersion, String[] eTags, LocalDateTime deletedAt);
+
+	@Query("with deleted as (delete from tb_user u where u.user_name = :userName " +
+			"and (:anyVersion or ('\"' || u.id || '-' || u.version || '\"') = any(:eTags)) returning *), " +
+			TOMBSTONES + "select * from deleted")
+	Mono<UserReactiveEntity> deleteReturningByUserName(String userName, boolean anyVersion, String[] eTags, LocalDateTime deletedAt);
+
+	@Query("with deleted as (delete from tb_user u where u.cpf = :cpf " +
+			"and (:anyVersion or ('\"' || u.id || '-' || u.version || '\"') = any(:eTags)) returning *), " +
+			TOMBSTONES + "select * from deleted")
+	Mono<UserReactiveEntity> deleteReturningByCpf(String cpf, boolean anyVersion, String[] eTags, LocalDateTime deletedAt);
+
+	@Query("select count(*) filter (where u.user_name = :userName) as user_name_conflicts, " +
+			"count(*) filter (where u.cpf = :cpf) as cpf_conflicts, " +
+			"count(*) filter (where lower(u.email) = lower(:email)) as email_conflicts " +
+			"from tb_user u " +
+			"where (u.user_name = :userName or u.cpf = :cpf or lower(u.email) = lower(:email)) and u.id <> :excludedId")
+	Mono<UserConflictRecord> findConflicts(long excludedId, String userName, String cpf, String email);
+}
@@ -0,0 +1,203 @@
+package com.portfolio.userapi.reactive.service;
+
+import com.portfolio.userapi.dto.UserConflictRecord;
+import com.portfolio.userapi.entity.UserConstraints;
+import com.portfolio.userapi.exception.UserConflictException;
+import com.portfolio.userapi.reactive.entity.UserReactiveEntity;
+import com.portfolio.userapi.reactive.repository.IUserReactiveRepository;
+import com.portfolio.userapi.util.Tools;
+import com.portfolio.userapi.validation.AgeValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * The reactive counterpart of {@code UserService}: the same validation chain, legends and conflict mapping, with
+ * every database call returning a publisher instead of blocking a thread.
+ */
+@Service
+public class UserReactiveService {
+	private static final Logger log = LoggerFactory.getLogger(UserReactiveService.class);
+
+	private static final String USER_LEGEND_INVALID_CPF = "Invalid CPF!";
+	private static final String USER_LEGEND_USERNAME_EXISTS = "Username already exist!";
+	private static final String USER_LEGEND_CPF_EXISTS = "CPF already exist!";
+	private static final String USER_LEGEND_AGE_NOT_ADMITED = "Only users over 18 years of age must be registered!";
+	private static final String USER_LEGEND_EMAIL_IS_INVALID = "This email is invalid!";
+	private static final String USER_LEGEND_EMAIL_ALREADY_ASSIGNED = "This email has been assigned another user!";
+	private static final long NEW_USER_ID = 0L;
+
+	@Autowired
+	private IUserReactiveRepository iUserReactiveRepository;
+
+	@Autowired
+	private R2dbcEntityTemplate r2dbcEntityTemplate;
+
+	// The id is taken first so the row goes in with a plain insert, as the MVC side does with its sequence pool
+	public Mono<UserReactiveEntity> save(UserReactiveEntity userEntity) {
+		return iUserReactiveRepository.nextId()
+				.flatMap(id -> {
+					LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+					userEntity.setId(id);
+					userEntity.setCreationDate(now);
+					userEntity.setUpdateDate(now);
+					return r2dbcEntityTemplate.insert(userEntity);
+				})
+				.onErrorMap(DataIntegrityViolationException.class, e -> new UserConflictException(conflictLegend(e), e))
+				.doFinally(signal -> log.info("User saved -> cpf:{}", userEntity.getCpf()));
+	}
+
+	// Null eTags delete any version; otherwise a user kept at an unlisted version fails the optimistic lock
+	public Mono<UserReactiveEntity> deleteById(long id, List<String> eTags) {
+		LocalDateTime deletedAt = deletionTime();
+		return deleted(iUserReactiveRepository.deleteReturningById(id, Objects.isNull(eTags), toArray(eTags), deletedAt),
+				eTags, () -> iUserReactiveRepository.existsById(id));
+	}
+
+	public Mono<UserReactiveEntity> deleteByUserName(String userName, List<String> eTags) {
+		LocalDateTime deletedAt = deletionTime();
+		return deleted(iUserReactiveRepository.deleteReturningByUserName(userName, Objects.isNull(eTags), toArray(eTags), deletedAt),
+				eTags, () -> iUserReactiveRepository.existsByUserName(userName));
+	}
+
+	public Mono<UserReactiveEntity> deleteByCpf(String cpf, List<String> eTags) {
+		LocalDateTime deletedAt = deletionTime();
+		return deleted(iUserReactiveRepository.deleteReturningByCpf(cpf, Objects.isNull(eTags), toArray(eTags), deletedAt),
+				eTags, () -> iUserReactiveRepository.existsByCpf(cpf));
+	}
+
+	public Mono<UserReactiveEntity> findByUserName(String userName) {
+		return iUserReactiveRepository.findByUserName(userName);
+	}
+
+	public Mono<UserReactiveEntity> findByCpf(String cpf) {
+		return iUserReactiveRepository.findByCpf(cpf);
+	}
+
+	public Flux<UserReactiveEntity> findAll(Pageable pageable) {
+		return iUserReactiveRepository.findAllBy(pageable);
+	}
+
+	public Mono<Long> count() {
+		return iUserReactiveRepository.count();
+	}
+
+	public Flux<UserReactiveEntity> findByFirstNameContains(String firstName, Pageable pageable) {
+		return iUserReactiveRepository.findByFirstNameLike(Tools.containsPattern(firstName), pageable.getPageSize(), pageable.getOffset());
+	}
+
+	public Flux<UserReactiveEntity> findByLastNameContains(String lastName, Pageable pageable) {
+		return iUserReactiveRepository.findByLastNameLike(Tools.containsPattern(lastName), pageable.getPageSize(), pageable.getOffset());
+	}
+
+	public Flux<UserReactiveEntity> searchByName(String name, Pageable pageable) {
+		return iUserReactiveRepository.findByFullNameLike(Tools.containsPattern(name), pageable.getPageSize(), pageable.getOffset());
+	}
+
+	public Flux<UserReactiveEntity> searchByFirstAndLastName(String firstName, String lastName, Pageable pageable) {
+
+		if (Objects.isNull(lastName)) {
+			return findByFirstNameContains(firstName, pageable);
+		}
+		if (Objects.isNull(firstName)) {
+			return findByLastNameContains(lastName, pageable);
+		}
+
+		return iUserReactiveRepository.findByFirstNameLikeAndLastNameLike(Tools.containsPattern(firstName),
+				Tools.containsPattern(lastName), pageable.getPageSize(), pageable.getOffset());
+	}
+
+	/**
+	 * Emits the legend of the first check the user fails, or an empty string. The checks run in the same order as
+	 * {@code UserService.validateUserData}, and the single conflicts query is only sent once the age is admitted.
+	 */
+	public Mono<String> validateUserData(UserReactiveEntity userEntity, boolean isNewUser) {
+
+		if (AgeValidator.isUnderAge(userEntity.getDateOfBirth())) {
+			return Mono.just(USER_LEGEND_AGE_NOT_ADMITED);
+		}
+
+		long excludedId = isNewUser ? NEW_USER_ID : userEntity.getId();
+		return iUserReactiveRepository.findConflicts(excludedId, userEntity.getUserName(), userEntity.getCpf(), userEntity.getEmail())
+				.map(userConflictRecord -> validateUserData(userEntity, userConflictRecord));
+	}
+
+	private String validateUserData(UserReactiveEntity userEntity, UserConflictRecord userConflictRecord) {
+
+		if (userConflictRecord.userNameTaken()) {
+			return USER_LEGEND_USERNAME_EXISTS;
+		}
+
+		if (!Tools.isValidCpf(userEntity.getCpf())) {
+			return USER_LEGEND_INVALID_CPF;
+		}
+
+		if (userConflictRecord.cpfTaken()) {
+			return USER_LEGEND_CPF_EXISTS;
+		}
+
+		String email = userEntity.getEmail();
+		if (Objects.nonNull(email)) {
+			if (!Tools.isValidEmail(email)) {
+				return USER_LEGEND_EMAIL_IS_INVALID;
+			}
+
+			if (userConflictRecord.emailTaken()) {
+				return USER_LEGEND_EMAIL_ALREADY_ASSIGNED;
+			}
+		}
+
+		return "";
+	}
+
+	// R2DBC reports a unique violation by constraint name only, so the name is looked for in the driver message
+	private String conflictLegend(DataIntegrityViolationException e) {
+
+		String message = Objects.toString(e.getMostSpecificCause().getMessage(), "");
+		if (message.contains(UserConstraints.USER_NAME)) {
+			return USER_LEGEND_USERNAME_EXISTS;
+		}
+		if (message.contains(UserConstraints.CPF)) {
+			return USER_LEGEND_CPF_EXISTS;
+		}
+		if (message.contains(UserConstraints.EMAIL)) {
+			return USER_LEGEND_EMAIL_ALREADY_ASSIGNED;
+		}
+
+		throw e;
+	}
+
+	private Mono<UserReactiveEntity> deleted(Mono<UserReactiveEntity> deletedMono, List<String> eTags, Supplier<Mono<Boolean>> exists) {
+
+		Mono<UserReactiveEntity> notDeleted = Objects.isNull(eTags) ? Mono.empty() : Mono.defer(exists)
+				.flatMap(userExists -> userExists
+						? Mono.error(new OptimisticLockingFailureException("User has been modified by another request"))
+						: Mono.empty());
+
+		return deletedMono
+				.doOnNext(userEntity -> log.info("User deleted -> cpf:{}", userEntity.getCpf()))
+				.switchIfEmpty(notDeleted);
+	}
+
+	// PostgreSQL keeps microseconds, so a tombstone carries the same cursor the change feed reads back
+	private static LocalDateTime deletionTime() {
+		return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+	}
+
+	private static String[] toArray(List<String> eTags) {
+		return Objects.isNull(eTags) ? new String[0] : eTags.toArray(String[]::new);
+	}
+}
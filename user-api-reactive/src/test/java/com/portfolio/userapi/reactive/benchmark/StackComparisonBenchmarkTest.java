@@ -0,0 +1,124 @@
+package com.portfolio.userapi.reactive.benchmark;
+
+import com.portfolio.userapi.reactive.UserReactiveApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+
+/**
+ * Sends the same burst of concurrent clients to the MVC application (Tomcat, JDBC, virtual threads) and to this
+ * one (Netty, R2DBC), on the routes both serve. The MVC application must already be running, with its rate limit
+ * off, at {@code -Dbenchmark.mvc-url} (default {@code http://localhost:8090}); this one is started here. Run with
+ * {@code mvn test -Pbenchmark}; the burst is tuned with {@code -Dbenchmark.concurrency} and {@code -Dbenchmark.requests}.
+ */
+@Tag("benchmark")
+class StackComparisonBenchmarkTest {
+	private static final Logger log = LoggerFactory.getLogger(StackComparisonBenchmarkTest.class);
+
+	private static final String MVC_URL = System.getProperty("benchmark.mvc-url", "http://localhost:8090");
+	private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 2000);
+	private static final int REQUESTS = Integer.getInteger("benchmark.requests", 20000);
+	private static final String[] PATHS = {
+			"/user/all?size=20&withTotals=false",
+			"/user/username/benchmark-%d",
+			"/user/cpf/%011d",
+			"/user/search?name=benchmark-%d&size=20"
+	};
+
+	@Test
+	void compare_mvc_and_webflux() throws Exception {
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(UserReactiveApplication.class)
+				.run("--server.port=0")) {
+			String reactiveUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+			// Each stack is warmed up, then measured, alternately so neither gets a warmer database
+			burst(MVC_URL, "mvc", Math.min(REQUESTS, 2000));
+			burst(reactiveUrl, "webflux", Math.min(REQUESTS, 2000));
+			BenchmarkResult mvc = burst(MVC_URL, "mvc", REQUESTS);
+			BenchmarkResult webflux = burst(reactiveUrl, "webflux", REQUESTS);
+
+			log.info("{}", mvc);
+			log.info("{}", webflux);
+
+			assertThat(mvc.completed(), greaterThan(0L));
+			assertThat(webflux.completed(), greaterThan(0L));
+		}
+	}
+
+	private BenchmarkResult burst(String baseUrl, String stack, int requests) throws Exception {
+		HttpClient httpClient = HttpClient.newBuilder()
+				.executor(Executors.newVirtualThreadPerTaskExecutor())
+				.connectTimeout(Duration.ofSeconds(30))
+				.build();
+		AtomicLong next = new AtomicLong();
+		AtomicLong failures = new AtomicLong();
+		long[] latencies = new long[requests];
+
+		long start = System.nanoTime();
+		try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+			List<Future<?>> futures = new ArrayList<>(CONCURRENCY);
+			for (int client = 0; client < CONCURRENCY; client++) {
+				futures.add(clients.submit(() -> {
+					for (long i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+						String path = String.format(PATHS[(int) (i % PATHS.length)], i);
+						long requestStart = System.nanoTime();
+						try {
+							HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+									.timeout(Duration.ofSeconds(60)).build(), HttpResponse.BodyHandlers.discarding());
+							if (response.statusCode() >= 500 || response.statusCode() == 429) {
+								failures.incrementAndGet();
+							}
+						} catch (Exception e) {
+							failures.incrementAndGet();
+						}
+						latencies[(int) i] = System.nanoTime() - requestStart;
+					}
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		long elapsed = System.nanoTime() - start;
+
+		Arrays.sort(latencies);
+		return new BenchmarkResult(stack, requests - failures.get(), failures.get(),
+				requests / (elapsed / 1_000_000_000.0),
+				percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999));
+	}
+
+	private static double percentile(long[] sortedLatencies, double percentile) {
+		int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+		return sortedLatencies[Math.max(index, 0)] / 1_000_000.0;
+	}
+
+	private record BenchmarkResult(String stack, long completed, long failed, double requestsPerSecond,
+								   double p50Millis, double p99Millis, double p999Millis) {
+
+		@Override
+		public String toString() {
+			return String.format("%-8s completed=%d failed=%d throughput=%.0f req/s p50=%.1fms p99=%.1fms p99.9=%.1fms",
+					stack, completed, failed, requestsPerSecond, p50Millis, p99Millis, p999Millis);
+		}
+	}
+}
@@ -0,0 +1,147 @@
+package com.portfolio.userapi.reactive.service;
+
+import com.portfolio.userapi.dto.UserConflictRecord;
+import com.portfolio.userapi.exception.UserConflictException;
+import com.portfolio.userapi.reactive.entity.UserReactiveEntity;
+import com.portfolio.userapi.reactive.repository.IUserReactiveRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class UserReactiveServiceTest {
+
+	private static final String VALID_CPF = "52998224725";
+
+	@Mock
+	private IUserReactiveRepository iUserReactiveRepositoryMock;
+
+	@Mock
+	private R2dbcEntityTemplate r2dbcEntityTemplateMock;
+
+	@InjectMocks
+	private UserReactiveService userReactiveService;
+
+	@BeforeEach
+	void setUp() {
+		MockitoAnnotations.openMocks(this);
+	}
+
+	@AfterEach
+	void tearDown() {
+		verifyNoMoreInteractions(iUserReactiveRepositoryMock);
+	}
+
+	@Test
+	void should_save_a_user_with_the_next_sequence_value() {
+		UserReactiveEntity userEntity = newUserEntity();
+		when(iUserReactiveRepositoryMock.nextId()).thenReturn(Mono.just(51L));
+		when(r2dbcEntityTemplateMock.insert(userEntity)).thenReturn(Mono.just(userEntity));
+
+		StepVerifier.create(userReactiveService.save(userEntity))
+				.expectNext(userEntity)
+				.verifyComplete();
+
+		assertThat(userEntity.getId(), is(51L));
+		assertThat(userEntity.getCreationDate(), notNullValue());
+		assertThat(userEntity.getUpdateDate(), is(userEntity.getCreationDate()));
+		verify(iUserReactiveRepositoryMock).nextId();
+	}
+
+	@Test
+	void should_translate_a_unique_violation_into_a_conflict_when_saving() {
+		UserReactiveEntity userEntity = newUserEntity();
+		when(iUserReactiveRepositoryMock.nextId()).thenReturn(Mono.just(51L));
+		when(r2dbcEntityTemplateMock.insert(userEntity)).thenReturn(Mono.error(
+				new DuplicateKeyException("duplicate key value violates unique constraint \"uk869sa3rebuf3nm0d4jwxdtouk\"")));
+
+		StepVerifier.create(userReactiveService.save(userEntity))
+				.expectErrorSatisfies(error -> {
+					assertThat(error instanceof UserConflictException, is(true));
+					assertThat(error.getMessage(), is("CPF already exist!"));
+				})
+				.verify();
+
+		verify(iUserReactiveRepositoryMock).nextId();
+	}
+
+	@Test
+	void should_validate_a_new_user_with_one_conflicts_query() {
+		UserReactiveEntity userEntity = newUserEntity();
+		when(iUserReactiveRepositoryMock.findConflicts(0L, "userFake", VALID_CPF, "user@fake.com"))
+				.thenReturn(Mono.just(new UserConflictRecord(0, 0, 1)));
+
+		StepVerifier.create(userReactiveService.validateUserData(userEntity, true))
+				.expectNext("This email has been assigned another user!")
+				.verifyComplete();
+
+		verify(iUserReactiveRepositoryMock).findConflicts(0L, "userFake", VALID_CPF, "user@fake.com");
+	}
+
+	@Test
+	void should_reject_an_under_age_user_without_querying() {
+		UserReactiveEntity userEntity = newUserEntity();
+		userEntity.setDateOfBirth(LocalDate.now().minusYears(10));
+
+		StepVerifier.create(userReactiveService.validateUserData(userEntity, true))
+				.expectNext("Only users over 18 years of age must be registered!")
+				.verifyComplete();
+	}
+
+	@Test
+	void should_fail_the_optimistic_lock_when_the_user_exists_with_another_version() {
+		String[] eTags = {"\"1-3\""};
+		when(iUserReactiveRepositoryMock.deleteReturningByUserName(eq("userFake"), eq(false), eq(eTags), any(LocalDateTime.class)))
+				.thenReturn(Mono.empty());
+		when(iUserReactiveRepositoryMock.existsByUserName("userFake")).thenReturn(Mono.just(true));
+
+		StepVerifier.create(userReactiveService.deleteByUserName("userFake", List.of("\"1-3\"")))
+				.expectError(OptimisticLockingFailureException.class)
+				.verify();
+
+		verify(iUserReactiveRepositoryMock).deleteReturningByUserName(eq("userFake"), eq(false), eq(eTags), any(LocalDateTime.class));
+		verify(iUserReactiveRepositoryMock).existsByUserName("userFake");
+	}
+
+	@Test
+	void should_not_look_for_the_user_when_deleting_any_version() {
+		when(iUserReactiveRepositoryMock.deleteReturningById(eq(1L), eq(true), eq(new String[0]), any(LocalDateTime.class)))
+				.thenReturn(Mono.empty());
+
+		StepVerifier.create(userReactiveService.deleteById(1L, null))
+				.verifyComplete();
+
+		verify(iUserReactiveRepositoryMock).deleteReturningById(eq(1L), eq(true), eq(new String[0]), any(LocalDateTime.class));
+	}
+
+	private static UserReactiveEntity newUserEntity() {
+		UserReactiveEntity userEntity = new UserReactiveEntity();
+		userEntity.setUserName("userFake");
+		userEntity.setCpf(VALID_CPF);
+		userEntity.setFirstName("First");
+		userEntity.setLastName("Last");
+		userEntity.setDateOfBirth(LocalDate.of(1990, 1, 1));
+		userEntity.setEmail("user@fake.com");
+		return userEntity;
+	}
+}